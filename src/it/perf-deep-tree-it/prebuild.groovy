@@ -0,0 +1,15 @@
+int fragments = Integer.getInteger("merge.perf.fragments", 10000)
+
+File root = new File(basedir, "src/main/resources")
+for (int i = 0; i < fragments; i++) {
+    String digits = String.format("%06d", i)
+    File dir = root
+    for (int level = 0; level < digits.length() - 1; level++) {
+        dir = new File(dir, "level" + digits.charAt(level))
+    }
+    dir.mkdirs()
+    new File(dir, "fragment" + i + ".properties").withWriter("ISO-8859-1") { w ->
+        w << "tree.fragment" << i << "=" << digits << "\n"
+    }
+}
+new File(basedir, "target").mkdirs()
@@ -0,0 +1,15 @@
+int fragments = Integer.getInteger("merge.perf.fragments", 10000)
+
+Properties properties = new Properties()
+File propertiesFile = new File("${basedir}/target/merged/out.properties")
+propertiesFile.withInputStream {
+    properties.load(it)
+}
+
+assert properties.size() == fragments
+assert properties.getProperty("tree.fragment1") == "000001"
+
+scenario = "deepTree"
+timeBudget = fragments * 3
+heapBudget = 512
+evaluate(new File(perfSupportDirectory, "check-budget.groovy"))
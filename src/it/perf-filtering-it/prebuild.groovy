@@ -0,0 +1,12 @@
+int files = Math.max(1, Integer.getInteger("merge.perf.fragments", 10000) / 10 as int)
+
+File root = new File(basedir, "src/main/resources")
+root.mkdirs()
+for (int i = 0; i < files; i++) {
+    new File(root, "filtered" + i + ".properties").withWriter("ISO-8859-1") { w ->
+        for (int k = 0; k < 50; k++) {
+            w << "filtered" << i << ".key" << k << '=${environment}/@region@/${project.artifactId}/' << k << "\n"
+        }
+    }
+}
+new File(basedir, "target").mkdirs()
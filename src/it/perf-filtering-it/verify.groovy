@@ -0,0 +1,15 @@
+int files = Math.max(1, Integer.getInteger("merge.perf.fragments", 10000) / 10 as int)
+
+Properties properties = new Properties()
+File propertiesFile = new File("${basedir}/target/merged/out.properties")
+propertiesFile.withInputStream {
+    properties.load(it)
+}
+
+assert properties.size() == files * 50
+assert properties.getProperty("filtered0.key7") == "production/north/perf-filtering-it/7"
+
+scenario = "filtering"
+timeBudget = files * 50
+heapBudget = 512
+evaluate(new File(perfSupportDirectory, "check-budget.groovy"))
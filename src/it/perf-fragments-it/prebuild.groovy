@@ -0,0 +1,13 @@
+int fragments = Integer.getInteger("merge.perf.fragments", 10000)
+
+File root = new File(basedir, "src/main/resources")
+for (int i = 0; i < fragments; i++) {
+    File dir = new File(root, "group" + (i % 100))
+    dir.mkdirs()
+    new File(dir, "fragment" + i + ".properties").withWriter("ISO-8859-1") { w ->
+        for (int k = 0; k < 5; k++) {
+            w << "fragment" << i << ".key" << k << "=value " << i << " " << k << "\n"
+        }
+    }
+}
+new File(basedir, "target").mkdirs()
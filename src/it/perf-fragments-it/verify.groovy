@@ -0,0 +1,15 @@
+int fragments = Integer.getInteger("merge.perf.fragments", 10000)
+
+Properties properties = new Properties()
+File propertiesFile = new File("${basedir}/target/merged/out.properties")
+propertiesFile.withInputStream {
+    properties.load(it)
+}
+
+assert properties.size() == fragments * 5
+assert properties.getProperty("fragment0.key4") == "value 0 4"
+
+scenario = "fragments"
+timeBudget = fragments * 3
+heapBudget = 512
+evaluate(new File(perfSupportDirectory, "check-budget.groovy"))
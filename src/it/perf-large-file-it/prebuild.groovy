@@ -0,0 +1,10 @@
+int keys = Integer.getInteger("merge.perf.largeFileKeys", 300000)
+
+File root = new File(basedir, "src/main/resources")
+root.mkdirs()
+new File(root, "large.properties").withWriter("ISO-8859-1") { w ->
+    for (int i = 0; i < keys; i++) {
+        w << "large.section" << (i % 1000) << ".key" << i << "=a somewhat longer value number " << i << "\n"
+    }
+}
+new File(basedir, "target").mkdirs()
@@ -0,0 +1,15 @@
+int keys = Integer.getInteger("merge.perf.largeFileKeys", 300000)
+
+Properties properties = new Properties()
+File propertiesFile = new File("${basedir}/target/merged/out.properties")
+propertiesFile.withInputStream {
+    properties.load(it)
+}
+
+assert properties.size() == keys
+assert properties.getProperty("large.section1.key1") == "a somewhat longer value number 1"
+
+scenario = "largeFile"
+timeBudget = Math.max(10000, keys / 10 as long)
+heapBudget = 1024
+evaluate(new File(perfSupportDirectory, "check-budget.groovy"))
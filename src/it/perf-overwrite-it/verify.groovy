@@ -0,0 +1,15 @@
+int fragments = Integer.getInteger("merge.perf.fragments", 10000)
+
+Properties properties = new Properties()
+File propertiesFile = new File("${basedir}/target/merged/out.properties")
+propertiesFile.withInputStream {
+    properties.load(it)
+}
+
+assert properties.size() == fragments + 50
+assert properties.getProperty("shared.key0").startsWith("value from ")
+
+scenario = "overwrite"
+timeBudget = fragments * 5
+heapBudget = 512
+evaluate(new File(perfSupportDirectory, "check-budget.groovy"))
@@ -0,0 +1,60 @@
+/*
+ * Checks the merge of a performance integration test against its budgets.
+ *
+ * Only the merge itself is measured, using the Execution event the plugin records in the flight recording in
+ * target/merge.jfr. The time budget applies to the duration of the merge execution. The heap budget applies to the
+ * growth of the used heap during the merge, i.e. the largest used heap reported by a garbage collection during the
+ * merge less the used heap after the last garbage collection before the merge, so the heap retained by Maven itself
+ * is not counted. Expects the variables basedir, scenario, timeBudget in milliseconds and heapBudget in megabytes.
+ * The budgets are overridden by the merge.perf.<scenario>.timeBudget and merge.perf.<scenario>.heapBudget system
+ * properties and scaled by merge.perf.budgetFactor.
+ *
+ * The performance tests only run when the perf profile is active as well, e.g. mvn -Pit,perf verify.
+ */
+import jdk.jfr.consumer.RecordingFile
+
+double factor = Double.parseDouble(System.getProperty("merge.perf.budgetFactor", "1"))
+long timeLimit = (Long.getLong("merge.perf.${scenario}.timeBudget".toString(), timeBudget as long) * factor) as long
+long heapLimit = (Long.getLong("merge.perf.${scenario}.heapBudget".toString(), heapBudget as long) * factor) as long
+
+File recording = new File(basedir, "target/merge.jfr")
+assert recording.isFile() : "No flight recording found: ${recording}"
+
+def executions = []
+def heapSummaries = []
+for (event in RecordingFile.readAllEvents(recording.toPath())) {
+    switch (event.eventType.name) {
+        case "org.polago.maven.plugins.mergeproperties.Execution":
+            executions << event
+            break
+        case "jdk.GCHeapSummary":
+            heapSummaries << event
+            break
+    }
+}
+assert executions.size() == 1 : "Expected one merge execution in the recording but found ${executions.size()}"
+
+def execution = executions[0]
+long mergeMillis = execution.duration.toMillis()
+long baseline = 0
+long peakHeap = 0
+int collections = 0
+for (summary in heapSummaries.sort { it.startTime }) {
+    if (summary.startTime.isBefore(execution.startTime)) {
+        if (summary.getString("when") == "After GC") {
+            baseline = summary.getLong("heapUsed")
+        }
+    } else if (!summary.startTime.isAfter(execution.endTime)) {
+        peakHeap = Math.max(peakHeap, summary.getLong("heapUsed"))
+        collections++
+    }
+}
+long mergeHeapMegabytes = Math.max(0L, peakHeap - baseline) >> 20
+
+println "${scenario}: merge ${mergeMillis} ms (budget ${timeLimit} ms), merge heap ${mergeHeapMegabytes} MB" +
+    " (budget ${heapLimit} MB, ${collections} heap summaries during the merge)"
+new File(basedir, "target/perf-result.properties").text = "scenario=${scenario}\nmergeMillis=${mergeMillis}\n" +
+    "mergeHeapMegabytes=${mergeHeapMegabytes}\n"
+
+assert mergeMillis <= timeLimit : "${scenario}: merge took ${mergeMillis} ms, budget is ${timeLimit} ms"
+assert mergeHeapMegabytes <= heapLimit : "${scenario}: merge heap ${mergeHeapMegabytes} MB, budget is ${heapLimit} MB"
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Local cache of merge outputs keyed by a fingerprint of the content of every input.
+ * <p>
+ * Unlike a {@link MergeSnapshot}, the fingerprint does not depend on modification times or on the location of the
+ * project, so the outputs of a merge can be restored in a fresh checkout or after a clean build. Each entry is a
+ * directory named after the fingerprint that contains the output files together with an <code>entry.properties</code>
+ * file that declares the fingerprint, every input and every output of the merge.
+ */
+class BuildCache {
+
+    static final String ENTRY_FILE = "entry.properties";
+
+    private static final String FINGERPRINT_KEY = "fingerprint";
+
+    private static final String INPUT_PREFIX = "input.";
+
+    private static final String OUTPUT_PREFIX = "output.";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final File directory;
+
+    /**
+     * Computes the fingerprint of the inputs of a merge.
+     */
+    static final class Fingerprint {
+
+        private final MessageDigest digest;
+
+        private final String basedir;
+
+        private final List<String> inputs = new ArrayList<>();
+
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+
+        /**
+         * Create a new Fingerprint.
+         *
+         * @param basedir the project base directory that paths are made relative to, or null
+         */
+        Fingerprint(File basedir) {
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            this.basedir = basedir == null ? null : basedir.getAbsolutePath();
+        }
+
+        /**
+         * Make the paths in the given text relative to the base directory.
+         *
+         * @param text the text to convert
+         * @return the converted text
+         */
+        private String relativize(String text) {
+            if (basedir == null) {
+                return text;
+            }
+            return text.replace(basedir + File.separator, "").replace(basedir, ".");
+        }
+
+        /**
+         * Add a text, such as a description of the configuration.
+         *
+         * @param name the name of the text
+         * @param text the text to add
+         */
+        void addText(String name, String text) {
+            update(name + '=' + relativize(text) + '\n');
+        }
+
+        /**
+         * Add the name and content of an input.
+         *
+         * @param name the name of the input
+         * @param in the content of the input, that is closed by this method
+         * @throws IOException indicating IO Error
+         */
+        void addInput(String name, InputStream in) throws IOException {
+            String input = relativize(name);
+            inputs.add(input);
+            update("input=" + input + '\n');
+            long length = 0;
+            try (InputStream is = in) {
+                int n;
+                while ((n = is.read(buffer)) >= 0) {
+                    digest.update(buffer, 0, n);
+                    length += n;
+                }
+            }
+            update("length=" + length + '\n');
+        }
+
+        /**
+         * Gets the inputs added to this Fingerprint.
+         *
+         * @return the relative input names
+         */
+        List<String> getInputs() {
+            return inputs;
+        }
+
+        /**
+         * Compute the fingerprint. No more data may be added afterwards.
+         *
+         * @return the hex encoded fingerprint
+         */
+        String getValue() {
+            return MergeSnapshot.toHex(digest.digest());
+        }
+
+        private void update(String s) {
+            digest.update(s.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Create a BuildCache.
+     *
+     * @param directory the cache directory
+     */
+    BuildCache(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Gets the entry directory of the given fingerprint.
+     *
+     * @param fingerprint the fingerprint
+     * @return the entry directory
+     */
+    File getEntryDirectory(String fingerprint) {
+        return new File(new File(directory, fingerprint.substring(0, 2)), fingerprint);
+    }
+
+    /**
+     * Restore the outputs of the given fingerprint into the given directory.
+     *
+     * @param fingerprint the fingerprint of the inputs
+     * @param outputDirectory the directory to restore the outputs into
+     * @return the restored files or null if there is no complete entry for the fingerprint
+     * @throws IOException indicating IO Error
+     */
+    List<File> restore(String fingerprint, File outputDirectory) throws IOException {
+        File entryDirectory = getEntryDirectory(fingerprint);
+        File entryFile = new File(entryDirectory, ENTRY_FILE);
+        if (!entryFile.isFile()) {
+            return null;
+        }
+        Properties entry = new Properties();
+        try (InputStream is = Files.newInputStream(entryFile.toPath())) {
+            entry.load(is);
+        }
+        if (!fingerprint.equals(entry.getProperty(FINGERPRINT_KEY))) {
+            return null;
+        }
+        List<File> result = new ArrayList<>();
+        for (int i = 0; entry.getProperty(OUTPUT_PREFIX + i) != null; i++) {
+            String name = entry.getProperty(OUTPUT_PREFIX + i);
+            File cached = new File(entryDirectory, name);
+            if (name.indexOf('/') >= 0 || name.indexOf('\\') >= 0 || !cached.isFile()) {
+                return null;
+            }
+            result.add(cached);
+        }
+        List<File> restored = new ArrayList<>();
+        for (File cached : result) {
+            File output = new File(outputDirectory, cached.getName());
+            File tempFile = new File(outputDirectory, cached.getName() + ".tmp");
+            Files.copy(cached.toPath(), tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tempFile.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            restored.add(output);
+        }
+        return restored;
+    }
+
+    /**
+     * Store the outputs of a merge. An existing entry for the fingerprint is kept as is.
+     *
+     * @param fingerprint the fingerprint of the inputs
+     * @param inputs the inputs of the merge
+     * @param outputs the output files, that must all be in the same directory
+     * @throws IOException indicating IO Error
+     */
+    void store(String fingerprint, List<String> inputs, List<File> outputs) throws IOException {
+        File entryDirectory = getEntryDirectory(fingerprint);
+        if (entryDirectory.exists()) {
+            return;
+        }
+        File parent = entryDirectory.getParentFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create directory: " + parent);
+        }
+        File tempDirectory = Files.createTempDirectory(parent.toPath(), fingerprint).toFile();
+        try {
+            Properties entry = new Properties();
+            entry.setProperty(FINGERPRINT_KEY, fingerprint);
+            for (int i = 0; i < inputs.size(); i++) {
+                entry.setProperty(INPUT_PREFIX + i, inputs.get(i));
+            }
+            for (int i = 0; i < outputs.size(); i++) {
+                File output = outputs.get(i);
+                Files.copy(output.toPath(), new File(tempDirectory, output.getName()).toPath());
+                entry.setProperty(OUTPUT_PREFIX + i, output.getName());
+            }
+            try (OutputStream os = Files.newOutputStream(new File(tempDirectory, ENTRY_FILE).toPath())) {
+                entry.store(os, null);
+            }
+            if (!tempDirectory.renameTo(entryDirectory) && !entryDirectory.exists()) {
+                throw new IOException("Cannot create build cache entry: " + entryDirectory);
+            }
+        } finally {
+            deleteTree(tempDirectory);
+        }
+    }
+
+    /**
+     * Delete a directory that only contains files.
+     *
+     * @param dir the directory to delete
+     */
+    private static void deleteTree(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        dir.delete();
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.security.DigestOutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The compression of a source or of the merged output file.
+ * <p>
+ * Sources are decompressed while they are read and the output is compressed while it is written, so neither is ever
+ * stored uncompressed on disk. The compression of a source is determined by its file name extension.
+ */
+public enum Compression {
+
+    /**
+     * Plain text.
+     */
+    NONE(""),
+
+    /**
+     * The gzip format, with the file name extension <code>.gz</code>.
+     */
+    GZIP(".gz"),
+
+    /**
+     * The zlib deflate format, with the file name extension <code>.deflate</code>.
+     */
+    DEFLATE(".deflate");
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private final String extension;
+
+    Compression(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Gets the file name extension of this compression.
+     *
+     * @return the extension including the leading '.' or an empty String for NONE
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Determine the compression of a file from its name.
+     *
+     * @param name the file name
+     * @return the Compression indicated by the file name extension
+     */
+    public static Compression forName(String name) {
+        for (Compression compression : values()) {
+            if (compression != NONE && name.endsWith(compression.extension)) {
+                return compression;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Remove any compression extension from a file name.
+     *
+     * @param name the file name
+     * @return the file name of the uncompressed content
+     */
+    public static String stripExtension(String name) {
+        Compression compression = forName(name);
+        return name.substring(0, name.length() - compression.extension.length());
+    }
+
+    /**
+     * Wrap a stream of compressed content in a decompressing stream.
+     *
+     * @param in the compressed stream, that is closed when the returned stream is closed
+     * @return the uncompressed stream
+     * @throws IOException indicating IO Error
+     */
+    public InputStream decompress(InputStream in) throws IOException {
+        switch (this) {
+            case GZIP:
+                return new GZIPInputStream(in, BUFFER_SIZE);
+            case DEFLATE:
+                return new InflaterInputStream(new BufferedInputStream(in, BUFFER_SIZE));
+            default:
+                return in;
+        }
+    }
+
+    /**
+     * Wrap a stream in a compressing stream.
+     *
+     * @param out the stream to write the compressed content to, that is closed when the returned stream is closed
+     * @return the compressing stream
+     * @throws IOException indicating IO Error
+     */
+    public OutputStream compress(OutputStream out) throws IOException {
+        switch (this) {
+            case GZIP:
+                return new GZIPOutputStream(out, BUFFER_SIZE);
+            case DEFLATE:
+                return new DeflaterOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+            default:
+                return out;
+        }
+    }
+
+    /**
+     * Open a buffered Writer that writes to the given file using the default Charset, as a FileWriter, compressing
+     * the content.
+     *
+     * @param file the file to write
+     * @return a new Writer that must be closed by the caller
+     * @throws IOException indicating IO Error
+     */
+    public Writer newWriter(File file) throws IOException {
+        return newWriter(file, null);
+    }
+
+    /**
+     * Open a buffered Writer that writes to the given file using the default Charset, as a FileWriter, compressing
+     * the content and updating the content digest of an OutputDigest with every byte written to the file.
+     *
+     * @param file the file to write
+     * @param digest the OutputDigest to update or null
+     * @return a new Writer that must be closed by the caller
+     * @throws IOException indicating IO Error
+     */
+    Writer newWriter(File file, OutputDigest digest) throws IOException {
+        OutputStream os = new FileOutputStream(file);
+        if (digest != null) {
+            os = new DigestOutputStream(os, digest.getContentDigest());
+        }
+        try {
+            return new BufferedWriter(new OutputStreamWriter(compress(os), Charset.defaultCharset()));
+        } catch (IOException e) {
+            os.close();
+            throw e;
+        }
+    }
+}
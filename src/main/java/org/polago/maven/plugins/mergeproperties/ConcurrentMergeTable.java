@@ -0,0 +1,245 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Key table that sources are merged into concurrently.
+ * <p>
+ * Every worker inserts the keys of a source directly into a {@link ConcurrentHashMap}, whose bins are locked
+ * independently. Each value carries the ordinal of its source and its position in the source, so that the winner of
+ * a key is settled by precedence and ordinal regardless of the insertion order. Only the keys that are contributed by
+ * more than one source keep all of their values, which are replayed in serial merge order afterwards to produce
+ * exactly the same messages and errors as a serial merge.
+ */
+final class ConcurrentMergeTable {
+
+    private final ConcurrentMap<String, Entry> table = new ConcurrentHashMap<>();
+
+    private int failedOrdinal = Integer.MAX_VALUE;
+
+    private MergeException failure;
+
+    /**
+     * A value contributed by a source.
+     */
+    private static final class Contribution {
+
+        private final String value;
+
+        private final int ordinal;
+
+        private final int position;
+
+        private final int precedence;
+
+        Contribution(String value, int ordinal, int position, int precedence) {
+            this.value = value;
+            this.ordinal = ordinal;
+            this.position = position;
+            this.precedence = precedence;
+        }
+    }
+
+    /**
+     * The contributions of a key. Only modified while the bin of the key is locked.
+     */
+    private static final class Entry {
+
+        private Contribution winner;
+
+        private Contribution first;
+
+        private List<Contribution> all;
+
+        Entry(Contribution contribution) {
+            this.winner = contribution;
+            this.first = contribution;
+        }
+
+        Entry add(Contribution c) {
+            if (all == null) {
+                all = new ArrayList<>(4);
+                all.add(first);
+            }
+            all.add(c);
+            if (c.ordinal < first.ordinal) {
+                first = c;
+            }
+            if (c.precedence > winner.precedence || c.precedence == winner.precedence && c.ordinal > winner.ordinal) {
+                winner = c;
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Something that happened while merging a source, in serial merge order.
+     */
+    private static final class Event {
+
+        private final int ordinal;
+
+        private final int position;
+
+        private final boolean debug;
+
+        private final String message;
+
+        private final MergeException error;
+
+        Event(int ordinal, int position, boolean debug, String message, MergeException error) {
+            this.ordinal = ordinal;
+            this.position = position;
+            this.debug = debug;
+            this.message = message;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Insert the Properties of a source. May be invoked concurrently.
+     *
+     * @param ordinal the index of the source in merge order
+     * @param precedence the precedence of the source
+     * @param p the Properties of the source
+     */
+    void insert(int ordinal, int precedence, Properties p) {
+        Iterable<String> keys =
+            p instanceof SourceProperties ? ((SourceProperties) p).getKeyOrder() : p.stringPropertyNames();
+        int position = 0;
+        for (String key : keys) {
+            Contribution c = new Contribution(p.getProperty(key), ordinal, position++, precedence);
+            table.compute(key, (k, e) -> e == null ? new Entry(c) : e.add(c));
+        }
+    }
+
+    /**
+     * Record that a source could not be loaded. May be invoked concurrently.
+     *
+     * @param ordinal the index of the source in merge order
+     * @param e the failure
+     */
+    synchronized void fail(int ordinal, MergeException e) {
+        if (ordinal < failedOrdinal) {
+            failedOrdinal = ordinal;
+            failure = e;
+        }
+    }
+
+    /**
+     * Replay the conflicts and failures in serial merge order, logging the same messages as a serial merge and
+     * throwing the first error that a serial merge would throw.
+     *
+     * @param sources the sources in merge order
+     * @param overwrite true if duplicate properties with the same precedence should be overwritten
+     * @param log the MergeLog to use
+     * @throws MergeException the first error in serial merge order
+     */
+    void replay(List<MergeSource> sources, boolean overwrite, MergeLog log) throws MergeException {
+        List<Event> events = new ArrayList<>();
+        synchronized (this) {
+            if (failure != null) {
+                events.add(new Event(failedOrdinal, -1, false, null, failure));
+            }
+        }
+        for (Map.Entry<String, Entry> e : table.entrySet()) {
+            List<Contribution> all = e.getValue().all;
+            if (all == null) {
+                continue;
+            }
+            String key = e.getKey();
+            all.sort(Comparator.comparingInt(c -> c.ordinal));
+            Contribution current = all.get(0);
+            for (int i = 1; i < all.size(); i++) {
+                Contribution c = all.get(i);
+                MergeSource source = sources.get(c.ordinal);
+                if (current.precedence > c.precedence) {
+                    events.add(new Event(c.ordinal, c.position, true,
+                        PropertiesMergeEngine.ignoringMessage(key, source), null));
+                    continue;
+                } else if (current.precedence < c.precedence) {
+                    events.add(new Event(c.ordinal, c.position, false,
+                        PropertiesMergeEngine.overridingMessage(key, current.value, c.value, source), null));
+                } else if (overwrite) {
+                    events.add(new Event(c.ordinal, c.position, false,
+                        PropertiesMergeEngine.overwritingMessage(key, current.value, c.value, source), null));
+                } else {
+                    String message = PropertiesMergeEngine.conflictMessage(key, current.value, c.value, source);
+                    events.add(new Event(c.ordinal, c.position, false, null, new MergeException(message)));
+                    break;
+                }
+                current = c;
+            }
+        }
+
+        events.sort(Comparator.<Event> comparingInt(e -> e.ordinal).thenComparingInt(e -> e.position));
+        for (Event event : events) {
+            if (event.error != null) {
+                throw event.error;
+            } else if (event.debug) {
+                log.debug(event.message);
+            } else {
+                log.info(event.message);
+            }
+        }
+    }
+
+    /**
+     * Create the merged Properties from the winning values.
+     *
+     * @return the merged Properties
+     */
+    Properties toProperties() {
+        Properties result = new Properties();
+        for (Map.Entry<String, Entry> e : table.entrySet()) {
+            result.setProperty(e.getKey(), e.getValue().winner.value);
+        }
+        return result;
+    }
+
+    /**
+     * Record every key in a MergeOrder as a serial merge would.
+     *
+     * @param order the MergeOrder to update
+     * @param outputOrder the OutputOrder tracked by the MergeOrder
+     */
+    void fill(MergeOrder order, OutputOrder outputOrder) {
+        if (outputOrder == OutputOrder.SOURCE) {
+            @SuppressWarnings("unchecked")
+            Map.Entry<String, Entry>[] entries = table.entrySet().toArray(new Map.Entry[0]);
+            Arrays.parallelSort(entries, Comparator
+                .<Map.Entry<String, Entry>> comparingInt(e -> e.getValue().first.ordinal)
+                .thenComparingInt(e -> e.getValue().first.position));
+            for (Map.Entry<String, Entry> e : entries) {
+                order.merged(e.getKey(), true, e.getValue().first.ordinal);
+            }
+        } else {
+            for (Map.Entry<String, Entry> e : table.entrySet()) {
+                order.merged(e.getKey(), true, e.getValue().winner.ordinal);
+            }
+        }
+    }
+}
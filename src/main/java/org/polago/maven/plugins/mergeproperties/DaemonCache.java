@@ -0,0 +1,188 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Memory bounded cache that lives as long as the plugin class loader.
+ * <p>
+ * A long running build daemon, such as the Maven Daemon, keeps the plugin class loader alive between builds. The
+ * shared instance then keeps the parsed unfiltered sources and the last merged result of every output file, so that a
+ * repeated build only loads the sources that changed and an unchanged merge is written without merging at all. Half
+ * of the maximum size is used for sources and half for merged results, each evicting the least recently used entries.
+ */
+public final class DaemonCache {
+
+    private static DaemonCache instance;
+
+    private long maxSize;
+
+    private final SourceCache sourceCache;
+
+    private long maxResultSize;
+
+    private final Map<String, CachedResult> results = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long resultSize;
+
+    /**
+     * A merged result together with the inputs it was merged from.
+     */
+    static final class CachedResult {
+
+        private final MergeSnapshot inputs;
+
+        private final Properties properties;
+
+        private final List<String> keys;
+
+        private final long size;
+
+        CachedResult(MergeSnapshot inputs, Properties properties, List<String> keys) {
+            this.inputs = inputs;
+            this.properties = properties;
+            this.keys = keys;
+            this.size = SourceCache.estimateSize(properties) + 64L * inputs.size();
+        }
+
+        /**
+         * Gets the merged Properties, that must never be modified.
+         *
+         * @return the merged Properties
+         */
+        Properties getProperties() {
+            return properties;
+        }
+
+        /**
+         * Gets the keys in output order.
+         *
+         * @return the keys or null if the output is sorted
+         */
+        List<String> getKeys() {
+            return keys;
+        }
+    }
+
+    /**
+     * Create a new DaemonCache.
+     *
+     * @param maxSize the maximum estimated size in bytes
+     */
+    DaemonCache(long maxSize) {
+        this.maxSize = maxSize;
+        this.sourceCache = new SourceCache(maxSize / 2);
+        this.maxResultSize = maxSize - maxSize / 2;
+    }
+
+    /**
+     * Gets the shared instance. Builds that request different maximum sizes share a single instance, that is grown to
+     * the largest requested size, so that the cached content is never discarded because of a differing size.
+     *
+     * @param maxSize the maximum estimated size in bytes
+     * @return the shared instance
+     */
+    public static synchronized DaemonCache getInstance(long maxSize) {
+        if (instance == null) {
+            instance = new DaemonCache(maxSize);
+        } else {
+            instance.grow(maxSize);
+        }
+        return instance;
+    }
+
+    /**
+     * Grow the maximum size of this cache if the given size is larger.
+     *
+     * @param maxSize the requested maximum estimated size in bytes
+     */
+    synchronized void grow(long maxSize) {
+        if (maxSize > this.maxSize) {
+            this.maxSize = maxSize;
+            this.maxResultSize = maxSize - maxSize / 2;
+            sourceCache.grow(maxSize / 2);
+        }
+    }
+
+    /**
+     * Gets the maximum size of this cache.
+     *
+     * @return the maximum estimated size in bytes
+     */
+    synchronized long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Gets the sourceCache property value.
+     *
+     * @return the current value of the sourceCache property
+     */
+    public SourceCache getSourceCache() {
+        return sourceCache;
+    }
+
+    /**
+     * Gets the last merged result of the given output file, if it was merged from exactly the given inputs.
+     *
+     * @param destinationFile the merge destination file
+     * @param inputs the snapshot of the current configuration and inputs
+     * @return the cached result or null
+     */
+    synchronized CachedResult getResult(File destinationFile, MergeSnapshot inputs) {
+        CachedResult cached = results.get(destinationFile.getAbsolutePath());
+        return cached != null && cached.inputs.isSameAs(inputs) ? cached : null;
+    }
+
+    /**
+     * Store the merged result of the given output file, replacing any previous result.
+     *
+     * @param destinationFile the merge destination file
+     * @param inputs the snapshot of the configuration and inputs the result was merged from
+     * @param properties the merged Properties, that must never be modified afterwards
+     * @param keys the keys in output order or null if the output is sorted
+     */
+    synchronized void putResult(File destinationFile, MergeSnapshot inputs, Properties properties,
+        List<String> keys) {
+        CachedResult result = new CachedResult(inputs.copy(), properties, keys);
+        CachedResult previous = results.put(destinationFile.getAbsolutePath(), result);
+        if (previous != null) {
+            resultSize -= previous.size;
+        }
+        resultSize += result.size;
+        Iterator<CachedResult> it = results.values().iterator();
+        while (resultSize > maxResultSize && it.hasNext()) {
+            resultSize -= it.next().size;
+            it.remove();
+        }
+    }
+
+    /**
+     * Gets the number of cached results.
+     *
+     * @return the number of cached results
+     */
+    synchronized int getResultCount() {
+        return results.size();
+    }
+}
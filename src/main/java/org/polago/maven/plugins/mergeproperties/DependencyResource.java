@@ -0,0 +1,178 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Selects properties entries to merge directly from a JAR dependency of the project.
+ * <p>
+ * The dependency is identified by groupId, artifactId and an optional classifier and must be declared as a
+ * dependency of the project. The includes and excludes patterns are matched against the entry names in the JAR.
+ */
+public class DependencyResource {
+
+    private String groupId;
+
+    private String artifactId;
+
+    private String classifier;
+
+    private List<String> includes = new ArrayList<>();
+
+    private List<String> excludes = new ArrayList<>();
+
+    private boolean filtering = false;
+
+    private File file;
+
+    /**
+     * Gets the groupId property value.
+     *
+     * @return the current value of the groupId property
+     */
+    public String getGroupId() {
+        return groupId;
+    }
+
+    /**
+     * Sets the groupId property.
+     *
+     * @param groupId the new property value
+     */
+    public void setGroupId(String groupId) {
+        this.groupId = groupId;
+    }
+
+    /**
+     * Gets the artifactId property value.
+     *
+     * @return the current value of the artifactId property
+     */
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    /**
+     * Sets the artifactId property.
+     *
+     * @param artifactId the new property value
+     */
+    public void setArtifactId(String artifactId) {
+        this.artifactId = artifactId;
+    }
+
+    /**
+     * Gets the classifier property value.
+     *
+     * @return the current value of the classifier property
+     */
+    public String getClassifier() {
+        return classifier;
+    }
+
+    /**
+     * Sets the classifier property.
+     *
+     * @param classifier the new property value
+     */
+    public void setClassifier(String classifier) {
+        this.classifier = classifier;
+    }
+
+    /**
+     * Gets the includes property value.
+     *
+     * @return the current value of the includes property
+     */
+    public List<String> getIncludes() {
+        return includes;
+    }
+
+    /**
+     * Sets the includes property.
+     *
+     * @param includes the new property value
+     */
+    public void setIncludes(List<String> includes) {
+        this.includes = includes;
+    }
+
+    /**
+     * Gets the excludes property value.
+     *
+     * @return the current value of the excludes property
+     */
+    public List<String> getExcludes() {
+        return excludes;
+    }
+
+    /**
+     * Sets the excludes property.
+     *
+     * @param excludes the new property value
+     */
+    public void setExcludes(List<String> excludes) {
+        this.excludes = excludes;
+    }
+
+    /**
+     * Gets the filtering property value.
+     *
+     * @return the current value of the filtering property
+     */
+    public boolean isFiltering() {
+        return filtering;
+    }
+
+    /**
+     * Sets the filtering property.
+     *
+     * @param filtering the new property value
+     */
+    public void setFiltering(boolean filtering) {
+        this.filtering = filtering;
+    }
+
+    /**
+     * Gets the resolved JAR file.
+     *
+     * @return the current value of the file property
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Sets the resolved JAR file.
+     *
+     * @param file the new property value
+     */
+    public void setFile(File file) {
+        this.file = file;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return groupId + ":" + artifactId + (classifier == null ? "" : ":" + classifier);
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Interpolates the content of a filtered source before it is parsed.
+ *
+ * @since 1.3
+ */
+@FunctionalInterface
+public interface Interpolator {
+
+    /**
+     * Wrap a Reader so that the content is interpolated while read.
+     *
+     * @param reader the Reader of the source content
+     * @return a Reader of the interpolated content, that closes the given Reader when closed
+     * @throws IOException indicating IO Error
+     */
+    Reader interpolate(Reader reader) throws IOException;
+}
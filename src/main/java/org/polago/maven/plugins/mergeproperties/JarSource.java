@@ -0,0 +1,240 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.codehaus.plexus.util.DirectoryScanner;
+import org.codehaus.plexus.util.SelectorUtils;
+
+/**
+ * A JAR file whose entries are merged without extracting them.
+ * <p>
+ * The entry names are read from the central directory and cached by the checksum and size of the JAR, so a JAR that
+ * is used by several merges or builds is only indexed once. The index evicts the least recently used JARs once it
+ * holds more than {@link #MAX_INDEX_SIZE} entry names. Entries are streamed directly from the JAR.
+ */
+class JarSource implements Closeable {
+
+    /**
+     * The maximum number of entry names kept in the index of all JARs.
+     */
+    static final int MAX_INDEX_SIZE = 100000;
+
+    private static final Map<String, List<String>> INDEX = new LinkedHashMap<>(16, 0.75f, true);
+
+    private static int indexSize;
+
+    private final File file;
+
+    private ZipFile zipFile;
+
+    /**
+     * Create a JarSource.
+     *
+     * @param file the JAR file
+     */
+    JarSource(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Gets the file property value.
+     *
+     * @return the current value of the file property
+     */
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Select the entries that match the given patterns.
+     *
+     * @param includes the include patterns, all entries are included if empty
+     * @param excludes the exclude patterns
+     * @param addDefaultExcludes if true, the default excludes of the plexus Scanner are applied
+     * @return the sorted matching entry names
+     * @throws IOException indicating IO Error
+     */
+    List<String> select(String[] includes, String[] excludes, boolean addDefaultExcludes) throws IOException {
+        List<String> result = new ArrayList<>();
+        for (String name : getEntries()) {
+            if (matches(name, includes, true) && !matches(name, excludes, false)
+                && !(addDefaultExcludes && matches(name, DirectoryScanner.DEFAULTEXCLUDES, false))) {
+                result.add(name);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Determine if the name matches any of the patterns.
+     *
+     * @param name the entry name
+     * @param patterns the patterns to match
+     * @param emptyResult the result if there are no patterns
+     * @return true if the name matches
+     */
+    private static boolean matches(String name, String[] patterns, boolean emptyResult) {
+        if (patterns == null || patterns.length == 0) {
+            return emptyResult;
+        }
+        for (String pattern : patterns) {
+            String p = pattern.replace('\\', '/');
+            if (p.endsWith("/")) {
+                p += "**";
+            }
+            if (SelectorUtils.matchPath(p, name, "/", true)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the names of all file entries, using the cached index if available.
+     *
+     * @return the sorted entry names
+     * @throws IOException indicating IO Error
+     */
+    List<String> getEntries() throws IOException {
+        String key = getChecksum() + ':' + file.length();
+        synchronized (INDEX) {
+            List<String> entries = INDEX.get(key);
+            if (entries != null) {
+                return entries;
+            }
+        }
+        List<String> names = new ArrayList<>();
+        Enumeration<? extends ZipEntry> e = getZipFile().entries();
+        while (e.hasMoreElements()) {
+            ZipEntry entry = e.nextElement();
+            if (!entry.isDirectory()) {
+                names.add(entry.getName());
+            }
+        }
+        Collections.sort(names);
+        List<String> entries = Collections.unmodifiableList(names);
+        synchronized (INDEX) {
+            List<String> previous = INDEX.put(key, entries);
+            indexSize += entries.size() - (previous == null ? 0 : previous.size());
+            Iterator<List<String>> it = INDEX.values().iterator();
+            while (indexSize > MAX_INDEX_SIZE && it.hasNext()) {
+                indexSize -= it.next().size();
+                it.remove();
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Gets the checksum identifying the content of the JAR. The SHA-1 checksum stored next to the JAR in the local
+     * repository is used if present, otherwise the path and modification time is used.
+     *
+     * @return the checksum
+     * @throws IOException indicating IO Error
+     */
+    String getChecksum() throws IOException {
+        File sha1 = new File(file.getPath() + ".sha1");
+        if (sha1.isFile() && sha1.lastModified() >= file.lastModified()) {
+            try (BufferedReader r = Files.newBufferedReader(sha1.toPath(), StandardCharsets.US_ASCII)) {
+                String line = r.readLine();
+                if (line != null && line.trim().length() >= 40) {
+                    return "sha1:" + line.trim().substring(0, 40);
+                }
+            }
+        }
+        return "stat:" + file.getAbsolutePath() + ':' + file.lastModified();
+    }
+
+    /**
+     * Gets the number of entry names kept in the index of all JARs.
+     *
+     * @return the number of indexed entry names
+     */
+    static int getIndexSize() {
+        synchronized (INDEX) {
+            return indexSize;
+        }
+    }
+
+    /**
+     * Gets the size of an entry.
+     *
+     * @param name the entry name
+     * @return the uncompressed size or -1 if unknown
+     * @throws IOException indicating IO Error
+     */
+    long getSize(String name) throws IOException {
+        ZipEntry entry = getZipFile().getEntry(name);
+        return entry == null ? -1L : entry.getSize();
+    }
+
+    /**
+     * Open an entry for reading.
+     *
+     * @param name the entry name
+     * @return an InputStream that must be closed by the caller
+     * @throws IOException indicating IO Error
+     */
+    InputStream openStream(String name) throws IOException {
+        ZipEntry entry = getZipFile().getEntry(name);
+        if (entry == null) {
+            throw new IOException("No such entry " + name + " in " + file);
+        }
+        return getZipFile().getInputStream(entry);
+    }
+
+    /**
+     * Gets the ZipFile, opening it on first use.
+     *
+     * @return the ZipFile
+     * @throws IOException indicating IO Error
+     */
+    private synchronized ZipFile getZipFile() throws IOException {
+        if (zipFile == null) {
+            zipFile = new ZipFile(file);
+        }
+        return zipFile;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (zipFile != null) {
+            zipFile.close();
+            zipFile = null;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Records merge phases as Java Flight Recorder events. Only loaded by {@link MergeEvents} if the JFR API is available.
+ */
+final class JfrMergeRecorder implements MergeEvents.Recorder {
+
+    private static final String PREFIX = "org.polago.maven.plugins.mergeproperties.";
+
+    /**
+     * A merge execution.
+     */
+    @Name(PREFIX + "Execution")
+    @Label("Merge Execution")
+    @Category({"Maven", "Merge Properties"})
+    @Description("A merge execution, from the up to date check to the final write")
+    static final class ExecutionEvent extends Event implements MergeEvents.Span {
+
+        @Label("Output File")
+        String name;
+
+        @Label("Up To Date")
+        boolean upToDate;
+
+        @Label("Sources")
+        int count;
+
+        @Override
+        public void setUpToDate(boolean upToDate) {
+            this.upToDate = upToDate;
+        }
+
+        @Override
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void close() {
+            commit();
+        }
+    }
+
+    /**
+     * Scanning a resource directory.
+     */
+    @Name(PREFIX + "Scan")
+    @Label("Scan Resource")
+    @Category({"Maven", "Merge Properties"})
+    static final class ScanEvent extends Event implements MergeEvents.Span {
+
+        @Label("Directory")
+        String name;
+
+        @Label("Files")
+        int count;
+
+        @Override
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void close() {
+            commit();
+        }
+    }
+
+    /**
+     * Loading and filtering a source.
+     */
+    @Name(PREFIX + "Source")
+    @Label("Load Source")
+    @Category({"Maven", "Merge Properties"})
+    static final class SourceEvent extends Event implements MergeEvents.Span {
+
+        @Label("Source")
+        String name;
+
+        @Label("Filtered")
+        boolean filtered;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Keys")
+        int keys;
+
+        @Override
+        public void setFiltered(boolean filtered) {
+            this.filtered = filtered;
+        }
+
+        @Override
+        public void setBytes(long bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void setKeys(int keys) {
+            this.keys = keys;
+        }
+
+        @Override
+        public void close() {
+            commit();
+        }
+    }
+
+    /**
+     * Merging all loaded sources.
+     */
+    @Name(PREFIX + "Merge")
+    @Label("Merge Sources")
+    @Category({"Maven", "Merge Properties"})
+    static final class MergeEvent extends Event implements MergeEvents.Span {
+
+        @Label("Mode")
+        String name;
+
+        @Label("Sources")
+        int count;
+
+        @Label("Keys")
+        int keys;
+
+        @Override
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void setKeys(int keys) {
+            this.keys = keys;
+        }
+
+        @Override
+        public void close() {
+            commit();
+        }
+    }
+
+    /**
+     * Writing the merged output.
+     */
+    @Name(PREFIX + "Write")
+    @Label("Write Output")
+    @Category({"Maven", "Merge Properties"})
+    static final class WriteEvent extends Event implements MergeEvents.Span {
+
+        @Label("Output File")
+        String name;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Keys")
+        int keys;
+
+        @Override
+        public void setBytes(long bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void setKeys(int keys) {
+            this.keys = keys;
+        }
+
+        @Override
+        public void close() {
+            commit();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MergeEvents.Span begin(MergeEvents.Kind kind, String name) {
+        switch (kind) {
+            case EXECUTION:
+                ExecutionEvent execution = new ExecutionEvent();
+                if (!execution.isEnabled()) {
+                    return MergeEvents.NO_SPAN;
+                }
+                execution.name = name;
+                execution.begin();
+                return execution;
+            case SCAN:
+                ScanEvent scan = new ScanEvent();
+                if (!scan.isEnabled()) {
+                    return MergeEvents.NO_SPAN;
+                }
+                scan.name = name;
+                scan.begin();
+                return scan;
+            case SOURCE:
+                SourceEvent source = new SourceEvent();
+                if (!source.isEnabled()) {
+                    return MergeEvents.NO_SPAN;
+                }
+                source.name = name;
+                source.begin();
+                return source;
+            case MERGE:
+                MergeEvent merge = new MergeEvent();
+                if (!merge.isEnabled()) {
+                    return MergeEvents.NO_SPAN;
+                }
+                merge.name = name;
+                merge.begin();
+                return merge;
+            default:
+                WriteEvent write = new WriteEvent();
+                if (!write.isEnabled()) {
+                    return MergeEvents.NO_SPAN;
+                }
+                write.name = name;
+                write.begin();
+                return write;
+        }
+    }
+}
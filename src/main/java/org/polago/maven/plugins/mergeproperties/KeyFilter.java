@@ -0,0 +1,159 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Selects the keys to merge by include and exclude patterns.
+ * <p>
+ * A pattern that contains a <code>*</code>, matching any sequence of characters, or a <code>?</code>, matching a
+ * single character, is a glob that must match the complete key. Any other pattern is a prefix of the key. A key is
+ * selected if it matches any include pattern, or if there are no include patterns, and does not match any exclude
+ * pattern. The patterns are matched directly against the characters of the parsed key so that a key that is not
+ * selected is dropped before any String is created for it.
+ */
+public final class KeyFilter {
+
+    private final List<String> includes;
+
+    private final List<String> excludes;
+
+    /**
+     * Create a KeyFilter.
+     *
+     * @param includes the include patterns or null to include every key
+     * @param excludes the exclude patterns or null to exclude no key
+     */
+    public KeyFilter(List<String> includes, List<String> excludes) {
+        this.includes = copy(includes);
+        this.excludes = copy(excludes);
+    }
+
+    /**
+     * Create a KeyFilter unless both lists of patterns are empty.
+     *
+     * @param includes the include patterns or null
+     * @param excludes the exclude patterns or null
+     * @return a new KeyFilter or null if every key is selected
+     */
+    public static KeyFilter create(List<String> includes, List<String> excludes) {
+        if ((includes == null || includes.isEmpty()) && (excludes == null || excludes.isEmpty())) {
+            return null;
+        }
+        return new KeyFilter(includes, excludes);
+    }
+
+    private static List<String> copy(List<String> patterns) {
+        if (patterns == null) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>();
+        for (String pattern : patterns) {
+            if (pattern != null && !pattern.trim().isEmpty()) {
+                result.add(pattern.trim());
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Determine if the given key is selected.
+     *
+     * @param key the key
+     * @return true if the key is selected
+     */
+    public boolean accept(String key) {
+        return accept(key.toCharArray(), 0, key.length());
+    }
+
+    /**
+     * Determine if the key in the given characters is selected.
+     *
+     * @param buf the characters of the key
+     * @param off the start offset of the key
+     * @param len the length of the key
+     * @return true if the key is selected
+     */
+    boolean accept(char[] buf, int off, int len) {
+        return (includes.isEmpty() || matchesAny(includes, buf, off, len)) && !matchesAny(excludes, buf, off, len);
+    }
+
+    private static boolean matchesAny(List<String> patterns, char[] buf, int off, int len) {
+        for (int i = 0; i < patterns.size(); i++) {
+            if (matches(patterns.get(i), buf, off, len)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Match a prefix or glob pattern.
+     *
+     * @param pattern the pattern
+     * @param buf the characters of the key
+     * @param off the start offset of the key
+     * @param len the length of the key
+     * @return true if the pattern matches the key
+     */
+    private static boolean matches(String pattern, char[] buf, int off, int len) {
+        if (pattern.indexOf('*') < 0 && pattern.indexOf('?') < 0) {
+            if (pattern.length() > len) {
+                return false;
+            }
+            for (int i = 0; i < pattern.length(); i++) {
+                if (pattern.charAt(i) != buf[off + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        int p = 0;
+        int k = 0;
+        int star = -1;
+        int starKey = 0;
+        while (k < len) {
+            if (p < pattern.length() && (pattern.charAt(p) == '?' || pattern.charAt(p) == buf[off + k])) {
+                p++;
+                k++;
+            } else if (p < pattern.length() && pattern.charAt(p) == '*') {
+                star = p++;
+                starKey = k;
+            } else if (star >= 0) {
+                p = star + 1;
+                k = ++starKey;
+            } else {
+                return false;
+            }
+        }
+        while (p < pattern.length() && pattern.charAt(p) == '*') {
+            p++;
+        }
+        return p == pattern.length();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "includes=" + includes + ",excludes=" + excludes;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Checks the keys of a set of sources for duplicates without merging them.
+ * <p>
+ * The keys of every source are read in parallel without converting any value. The keys are then checked in merge
+ * order for keys that are defined by more than one source with the same precedence and for keys that differ only in
+ * case or whitespace.
+ */
+class KeyValidator {
+
+    private final List<String> duplicates = new ArrayList<>();
+
+    private final List<String> similarKeys = new ArrayList<>();
+
+    private final KeyFilter keyFilter;
+
+    /**
+     * The first key and source of a normalized key.
+     */
+    private static final class Origin {
+
+        private final String key;
+
+        private final MergeSource source;
+
+        Origin(String key, MergeSource source) {
+            this.key = key;
+            this.source = source;
+        }
+    }
+
+    /**
+     * Create a KeyValidator that checks every key.
+     */
+    KeyValidator() {
+        this(null);
+    }
+
+    /**
+     * Create a KeyValidator that only checks the keys selected by a KeyFilter.
+     *
+     * @param keyFilter the KeyFilter to use or null
+     */
+    KeyValidator(KeyFilter keyFilter) {
+        this.keyFilter = keyFilter;
+    }
+
+    /**
+     * Check the keys of the given sources.
+     *
+     * @param sources the sources in merge order
+     * @param encoding the source encoding
+     * @throws IOException indicating IO Error
+     */
+    void validate(List<MergeSource> sources, String encoding) throws IOException {
+        List<Set<String>> keys;
+        try {
+            keys = sources.parallelStream().map(source -> {
+                try {
+                    return new LinkedHashSet<>(loadKeys(source, encoding));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        Map<Integer, Map<String, Origin>> precedenceOrigins = new HashMap<>();
+        Map<String, Origin> normalizedOrigins = new HashMap<>();
+        Set<String> reportedSimilar = new LinkedHashSet<>();
+        for (int i = 0; i < sources.size(); i++) {
+            MergeSource source = sources.get(i);
+            Map<String, Origin> origins =
+                precedenceOrigins.computeIfAbsent(source.getPrecedence(), p -> new HashMap<>());
+            for (String key : keys.get(i)) {
+                Origin origin = new Origin(key, source);
+                Origin existing = origins.putIfAbsent(key, origin);
+                if (existing != null) {
+                    duplicates.add("Property '" + key + "' is defined in both " + existing.source + " and " + source);
+                    continue;
+                }
+                String normalized = normalize(key);
+                Origin similar = normalizedOrigins.putIfAbsent(normalized, origin);
+                if (similar != null && !similar.key.equals(key) && reportedSimilar.add(similar.key + '\u0000' + key)) {
+                    similarKeys.add("Property '" + key + "' in " + source + " differs only in case or whitespace from '"
+                        + similar.key + "' in " + similar.source);
+                }
+            }
+        }
+    }
+
+    /**
+     * Load the keys of a source.
+     *
+     * @param source the source
+     * @param encoding the source encoding or null to use the platform encoding
+     * @return the keys in file order
+     * @throws IOException indicating IO Error
+     */
+    List<String> loadKeys(MergeSource source, String encoding) throws IOException {
+        if (SourceDecoder.isSupported(source, encoding)) {
+            return SourceDecoder.loadKeys(source, encoding, keyFilter);
+        }
+        List<String> result = new ArrayList<>();
+        try (Reader r = new InputStreamReader(source.openStream(),
+            encoding == null ? Charset.defaultCharset().name() : encoding)) {
+            PropertiesParser parser = new PropertiesParser(r, keyFilter);
+            while (parser.next()) {
+                result.add(parser.getKey());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Normalize a key by removing all whitespace and converting it to lower case.
+     *
+     * @param key the key to normalize
+     * @return the normalized key
+     */
+    static String normalize(String key) {
+        StringBuilder sb = new StringBuilder(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Gets a description of every key defined by more than one source.
+     *
+     * @return the duplicates
+     */
+    List<String> getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Gets a description of every key that differs only in case or whitespace from another key.
+     *
+     * @return the similar keys
+     */
+    List<String> getSimilarKeys() {
+        return similarKeys;
+    }
+}
@@ -0,0 +1,526 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.lifecycle.internal.MojoDescriptorCreator;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.PluginParameterExpressionEvaluator;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.filtering.MavenResourcesFiltering;
+import org.codehaus.plexus.component.configurator.ComponentConfigurationException;
+import org.codehaus.plexus.component.configurator.ComponentConfigurator;
+import org.codehaus.plexus.component.configurator.expression.ExpressionEvaluationException;
+import org.codehaus.plexus.component.configurator.expression.ExpressionEvaluator;
+import org.codehaus.plexus.configuration.xml.XmlPlexusConfiguration;
+import org.codehaus.plexus.util.StringUtils;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.eclipse.aether.RepositorySystem;
+
+/**
+ * Performs the merge executions of all modules in the reactor at once.
+ * <p>
+ * The configuration of every <code>merge</code> execution in the reactor is collected and all merges are performed in
+ * parallel. Every execution is configured exactly like Maven configures the merge goal of the module, including
+ * parameter defaults and property expressions, so all merge parameters are supported. Each distinct unfiltered
+ * source file is only loaded once even if several modules merge it and keys that are merged by more than one module
+ * from different source files are reported.
+ *
+ * @since 1.3
+ */
+@Mojo(name = "merge-aggregate", defaultPhase = LifecyclePhase.PROCESS_RESOURCES, aggregator = true,
+    requiresProject = true, threadSafe = true)
+public class MergeAggregateMojo extends AbstractMojo {
+
+    private static final String MERGE_GOAL = "merge";
+
+    /**
+     * The MavenSession instance to use.
+     */
+    @Parameter(defaultValue = "${session}", required = true, readonly = true)
+    private MavenSession session;
+
+    /**
+     * The descriptor of this plugin, used to find and configure the merge executions in the reactor.
+     */
+    @Parameter(defaultValue = "${plugin}", required = true, readonly = true)
+    private PluginDescriptor plugin;
+
+    /**
+     * The configurator used to configure every merge execution.
+     */
+    @Component(role = ComponentConfigurator.class, hint = "basic")
+    private ComponentConfigurator configurator;
+
+    /**
+     * The MavenResourcesFiltering instance to use.
+     */
+    @Component(role = MavenResourcesFiltering.class, hint = "merge")
+    private MergeProperitesMavenResourcesFiltering mavenResourcesFiltering;
+
+    /**
+     * The RepositorySystem used to resolve dependency resources.
+     */
+    @Component
+    private RepositorySystem repositorySystem;
+
+    /**
+     * The user filter components to use.
+     */
+    @Component(role = MavenResourcesFiltering.class)
+    private Map<String, MavenResourcesFiltering> mavenResourcesFilteringMap;
+
+    /**
+     * The merged properties filter components to use.
+     */
+    @Component(role = MergedPropertiesFilter.class)
+    private Map<String, MergedPropertiesFilter> mergedPropertiesFilterMap;
+
+    /**
+     * The number of merges to perform in parallel. A value less than one uses the number of available processors.
+     */
+    @Parameter(property = "merge.properties.threads", defaultValue = "0")
+    private int threads;
+
+    /**
+     * Report keys that are merged by more than one module from different source files. The keys of a merge that is
+     * skipped as up to date are read without merging.
+     */
+    @Parameter(property = "merge.properties.checkCrossModuleDuplicates", defaultValue = "true")
+    private boolean checkCrossModuleDuplicates;
+
+    /**
+     * Fail the build instead of logging a warning when a key is merged by more than one module.
+     */
+    @Parameter(property = "merge.properties.failOnCrossModuleDuplicates", defaultValue = "false")
+    private boolean failOnCrossModuleDuplicates;
+
+    /**
+     * Skip the execution of the plugin if you need to.
+     */
+    @Parameter(property = "merge.properties.skip", defaultValue = "false")
+    private boolean skip;
+
+    /**
+     * The maximum size in megabytes of a cache that keeps parsed unfiltered resources in memory between builds in a
+     * long running build daemon such as the Maven Daemon. Zero disables the cache.
+     */
+    @Parameter(property = "merge.properties.daemonCacheSize", defaultValue = "0")
+    private int daemonCacheSize;
+
+    /**
+     * The module and source file a key was first merged from.
+     */
+    private static final class Origin {
+
+        private final String module;
+
+        private final File source;
+
+        Origin(String module, File source) {
+            this.module = module;
+            this.source = source;
+        }
+
+        @Override
+        public String toString() {
+            return module + " (" + source + ")";
+        }
+    }
+
+    /**
+     * A merge execution found in the reactor.
+     */
+    static final class MergeExecution {
+
+        private final MavenProject project;
+
+        private final String id;
+
+        private final Xpp3Dom configuration;
+
+        MergeExecution(MavenProject project, String id, Xpp3Dom configuration) {
+            this.project = project;
+            this.id = id;
+            this.configuration = configuration;
+        }
+
+        MavenProject getProject() {
+            return project;
+        }
+
+        String getId() {
+            return id;
+        }
+
+        Xpp3Dom getConfiguration() {
+            return configuration;
+        }
+
+        String getModule() {
+            return project.getArtifactId() + ":" + id;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void execute() throws MojoExecutionException {
+        if (skip) {
+            getLog().info("Skipping the execution.");
+            return;
+        }
+
+        List<MergeExecution> executions = findMergeExecutions(session.getProjects());
+        if (executions.isEmpty()) {
+            getLog().info("No merge executions found in the reactor");
+            return;
+        }
+
+        // Configure every execution up front since the evaluator depends on the current project of the session
+        Map<MergeExecution, MergePropertiesMojo> mojos = new LinkedHashMap<>();
+        for (MergeExecution execution : executions) {
+            mojos.put(execution, configure(execution));
+        }
+
+        SourceCache sourceCache = daemonCacheSize > 0
+            ? DaemonCache.getInstance(daemonCacheSize * 1024L * 1024L).getSourceCache() : new SourceCache();
+        ConcurrentMap<String, Origin> origins = new ConcurrentHashMap<>();
+        Map<String, String> duplicates = Collections.synchronizedMap(new TreeMap<String, String>());
+
+        int poolSize = threads < 1 ? Runtime.getRuntime().availableProcessors() : threads;
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(poolSize, executions.size()));
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Map.Entry<MergeExecution, MergePropertiesMojo> entry : mojos.entrySet()) {
+                futures.add(executor.submit(() -> {
+                    merge(entry.getKey(), entry.getValue(), sourceCache, origins, duplicates);
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                await(future);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        getLog().info("Merged " + executions.size() + " executions using " + sourceCache.size()
+            + " shared unfiltered sources");
+
+        if (!duplicates.isEmpty()) {
+            for (Map.Entry<String, String> entry : duplicates.entrySet()) {
+                getLog().warn("Property '" + entry.getKey() + "' is merged by more than one module: "
+                    + entry.getValue());
+            }
+            if (failOnCrossModuleDuplicates) {
+                throw new MojoExecutionException(duplicates.size() + " properties are merged by more than one module");
+            }
+        }
+    }
+
+    /**
+     * Wait for a merge to complete.
+     *
+     * @param future the merge to wait for
+     * @throws MojoExecutionException indicating merge failure
+     */
+    private void await(Future<Void> future) throws MojoExecutionException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while merging", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof MojoExecutionException) {
+                throw (MojoExecutionException) cause;
+            }
+            throw new MojoExecutionException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Find all merge executions of this plugin in the given projects.
+     *
+     * @param projects the projects to search
+     * @return all merge executions
+     */
+    List<MergeExecution> findMergeExecutions(List<MavenProject> projects) {
+        List<MergeExecution> result = new ArrayList<>();
+        for (MavenProject project : projects) {
+            for (Plugin buildPlugin : project.getBuildPlugins()) {
+                if (!plugin.getGroupId().equals(buildPlugin.getGroupId())
+                    || !plugin.getArtifactId().equals(buildPlugin.getArtifactId())) {
+                    continue;
+                }
+                for (PluginExecution execution : buildPlugin.getExecutions()) {
+                    if (execution.getGoals().contains(MERGE_GOAL)) {
+                        result.add(new MergeExecution(project, execution.getId(),
+                            getConfiguration(buildPlugin, execution)));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the execution configuration merged with the plugin configuration.
+     *
+     * @param buildPlugin the Plugin to use
+     * @param execution the PluginExecution to use
+     * @return the merged configuration or null if there is no configuration
+     */
+    private Xpp3Dom getConfiguration(Plugin buildPlugin, PluginExecution execution) {
+        Xpp3Dom pluginConfiguration = (Xpp3Dom) buildPlugin.getConfiguration();
+        Xpp3Dom executionConfiguration = (Xpp3Dom) execution.getConfiguration();
+        if (executionConfiguration == null) {
+            return pluginConfiguration;
+        }
+        return Xpp3Dom.mergeXpp3Dom(new Xpp3Dom(executionConfiguration), pluginConfiguration);
+    }
+
+    /**
+     * Create a merge goal configured for a merge execution the same way as Maven configures it when the module is
+     * built. Property expressions are resolved against the user and system properties of the session before the
+     * properties of the module.
+     *
+     * @param execution the MergeExecution to configure
+     * @return the configured MergePropertiesMojo
+     * @throws MojoExecutionException indicating an invalid configuration
+     */
+    MergePropertiesMojo configure(MergeExecution execution) throws MojoExecutionException {
+        String module = execution.getModule();
+        MojoDescriptor descriptor = plugin.getMojo(MERGE_GOAL);
+        Xpp3Dom configuration = getMojoConfiguration(descriptor, execution.getConfiguration());
+        MojoExecution mojoExecution = new MojoExecution(descriptor, execution.getId());
+        mojoExecution.setConfiguration(configuration);
+
+        ExpressionEvaluator evaluator;
+        MavenProject currentProject = session.getCurrentProject();
+        try {
+            session.setCurrentProject(execution.getProject());
+            evaluator = new PluginParameterExpressionEvaluator(session, mojoExecution);
+        } finally {
+            session.setCurrentProject(currentProject);
+        }
+
+        List<String> missing = getMissingParameters(descriptor, configuration, evaluator);
+        if (!missing.isEmpty()) {
+            throw new MojoExecutionException("The merge execution " + module + " requires " + missing);
+        }
+
+        MergePropertiesMojo mojo = new MergePropertiesMojo();
+        try {
+            configurator.configureComponent(mojo, new XmlPlexusConfiguration(configuration), evaluator,
+                plugin.getClassRealm());
+        } catch (ComponentConfigurationException e) {
+            throw new MojoExecutionException("Invalid configuration in " + module + ": " + e.getMessage(), e);
+        }
+        mojo.setLog(getLog());
+        mojo.setMavenResourcesFiltering(mavenResourcesFiltering);
+        mojo.setRepositorySystem(repositorySystem);
+        mojo.setMavenResourcesFilteringMap(mavenResourcesFilteringMap);
+        mojo.setMergedPropertiesFilterMap(mergedPropertiesFilterMap);
+        return mojo;
+    }
+
+    /**
+     * Gets the configuration of every parameter of a goal, falling back to the default value and expression of the
+     * parameter as declared in the plugin descriptor.
+     *
+     * @param descriptor the MojoDescriptor of the goal
+     * @param executionConfiguration the configuration of the execution or null
+     * @return the goal configuration
+     */
+    static Xpp3Dom getMojoConfiguration(MojoDescriptor descriptor, Xpp3Dom executionConfiguration) {
+        Xpp3Dom defaults = MojoDescriptorCreator.convert(descriptor);
+        Xpp3Dom result = new Xpp3Dom("configuration");
+        for (org.apache.maven.plugin.descriptor.Parameter parameter : descriptor.getParameters()) {
+            Xpp3Dom value = null;
+            if (executionConfiguration != null) {
+                value = executionConfiguration.getChild(parameter.getName());
+                if (value == null && parameter.getAlias() != null) {
+                    value = executionConfiguration.getChild(parameter.getAlias());
+                }
+            }
+            Xpp3Dom defaultValue = defaults.getChild(parameter.getName());
+            if (value != null) {
+                value = new Xpp3Dom(value, parameter.getName());
+                if (StringUtils.isEmpty(value.getAttribute("implementation"))
+                    && StringUtils.isNotEmpty(parameter.getImplementation())) {
+                    value.setAttribute("implementation", parameter.getImplementation());
+                }
+                value = Xpp3Dom.mergeXpp3Dom(value, defaultValue, Boolean.TRUE);
+            } else {
+                value = defaultValue;
+            }
+            if (value != null) {
+                result.addChild(value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the required parameters of a goal that have no value.
+     *
+     * @param descriptor the MojoDescriptor of the goal
+     * @param configuration the goal configuration
+     * @param evaluator the ExpressionEvaluator to use
+     * @return the names of the missing parameters
+     * @throws MojoExecutionException indicating an invalid expression
+     */
+    private static List<String> getMissingParameters(MojoDescriptor descriptor, Xpp3Dom configuration,
+        ExpressionEvaluator evaluator) throws MojoExecutionException {
+        List<String> result = new ArrayList<>();
+        for (org.apache.maven.plugin.descriptor.Parameter parameter : descriptor.getParameters()) {
+            if (!parameter.isRequired()) {
+                continue;
+            }
+            Xpp3Dom value = configuration.getChild(parameter.getName());
+            if (value == null || value.getChildCount() == 0 && evaluate(evaluator, value) == null) {
+                result.add(parameter.getName());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Evaluate the value of a parameter, or its default value if it has no value.
+     *
+     * @param evaluator the ExpressionEvaluator to use
+     * @param value the parameter configuration
+     * @return the evaluated value or null
+     * @throws MojoExecutionException indicating an invalid expression
+     */
+    private static Object evaluate(ExpressionEvaluator evaluator, Xpp3Dom value) throws MojoExecutionException {
+        try {
+            Object result = evaluator.evaluate(value.getValue());
+            if (result == null && value.getAttribute("default-value") != null) {
+                result = evaluator.evaluate(value.getAttribute("default-value"));
+            }
+            return result;
+        } catch (ExpressionEvaluationException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Perform a single merge execution.
+     *
+     * @param execution the MergeExecution to perform
+     * @param mojo the MergePropertiesMojo configured for the execution
+     * @param sourceCache the SourceCache shared by all merges
+     * @param origins the first origin of every merged key
+     * @param duplicates the keys merged by more than one module
+     * @throws MojoExecutionException indicating merge failure
+     */
+    private void merge(MergeExecution execution, MergePropertiesMojo mojo, SourceCache sourceCache,
+        ConcurrentMap<String, Origin> origins, Map<String, String> duplicates) throws MojoExecutionException {
+
+        String module = execution.getModule();
+        MergeListener mergeListener = null;
+        if (checkCrossModuleDuplicates) {
+            mergeListener = (key, value, source) -> {
+                Origin origin = new Origin(module, source);
+                Origin existing = origins.putIfAbsent(key, origin);
+                if (existing != null && !existing.module.equals(module) && !existing.source.equals(source)) {
+                    duplicates.put(key, existing + " and " + origin);
+                }
+            };
+        }
+
+        getLog().info("Merging " + module);
+        try {
+            mojo.execute(sourceCache, mergeListener);
+        } catch (MojoExecutionException e) {
+            throw new MojoExecutionException(module + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Sets the session property.
+     *
+     * @param session the new property value
+     */
+    public void setSession(MavenSession session) {
+        this.session = session;
+    }
+
+    /**
+     * Sets the plugin property.
+     *
+     * @param plugin the new property value
+     */
+    public void setPlugin(PluginDescriptor plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Sets the configurator property.
+     *
+     * @param configurator the new property value
+     */
+    public void setConfigurator(ComponentConfigurator configurator) {
+        this.configurator = configurator;
+    }
+
+    /**
+     * Sets the mavenResourcesFiltering property.
+     *
+     * @param mavenResourcesFiltering the new property value
+     */
+    public void setMavenResourcesFiltering(MergeProperitesMavenResourcesFiltering mavenResourcesFiltering) {
+        this.mavenResourcesFiltering = mavenResourcesFiltering;
+    }
+
+    /**
+     * Sets the mergedPropertiesFilterMap property.
+     *
+     * @param mergedPropertiesFilterMap the new property value
+     */
+    public void setMergedPropertiesFilterMap(Map<String, MergedPropertiesFilter> mergedPropertiesFilterMap) {
+        this.mergedPropertiesFilterMap = mergedPropertiesFilterMap;
+    }
+}
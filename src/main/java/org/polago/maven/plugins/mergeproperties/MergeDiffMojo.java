@@ -0,0 +1,267 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+
+/**
+ * Compares the merged output file with a baseline, such as the merged output of a previous release, and writes a
+ * report of every added, removed and changed key.
+ * <p>
+ * Both files must be sorted by key, as written by the merge goal. The files are compared by a merge-join of their key
+ * sequences so files of any size are compared in constant memory. The report is written in JSON Lines format with one
+ * change per line followed by a summary line.
+ *
+ * @since 1.3
+ */
+@Mojo(name = "diff", defaultPhase = LifecyclePhase.VERIFY, threadSafe = true)
+public class MergeDiffMojo extends AbstractMojo {
+
+    /**
+     * The RepositorySystem used to resolve the baselineArtifact.
+     */
+    @Component
+    private RepositorySystem repositorySystem;
+
+    /**
+     * The repository session used to resolve the baselineArtifact.
+     */
+    @Parameter(defaultValue = "${repositorySystemSession}", readonly = true)
+    private RepositorySystemSession repositorySession;
+
+    /**
+     * The remote repositories used to resolve the baselineArtifact.
+     */
+    @Parameter(defaultValue = "${project.remoteProjectRepositories}", readonly = true)
+    private List<RemoteRepository> remoteRepositories;
+
+    /**
+     * The output directory of the merged outputFile.
+     */
+    @Parameter(required = true)
+    private File outputDirectory;
+
+    /**
+     * The merged output filename relative to the outputDirectory. A file with the extension <code>.gz</code> or
+     * <code>.deflate</code>, as well as such a baseline, is decompressed while it is read.
+     */
+    @Parameter(required = true)
+    private String outputFile;
+
+    /**
+     * The baseline file to compare with.
+     */
+    @Parameter(property = "merge.properties.diff.baseline")
+    private File baseline;
+
+    /**
+     * The baseline artifact to compare with, in the form
+     * <code>groupId:artifactId[:extension[:classifier]]:version</code>. Used if no baseline file is set.
+     */
+    @Parameter(property = "merge.properties.diff.baselineArtifact")
+    private String baselineArtifact;
+
+    /**
+     * The entry in the baseline to compare with if the baseline is a JAR file.
+     */
+    @Parameter(property = "merge.properties.diff.baselineEntry")
+    private String baselineEntry;
+
+    /**
+     * The character encoding scheme of the compared files.
+     */
+    @Parameter(property = "merge.properties.encoding", defaultValue = "ISO-8859-1")
+    private String encoding;
+
+    /**
+     * The report file to write.
+     */
+    @Parameter(property = "merge.properties.diff.report",
+        defaultValue = "${project.build.directory}/merge-properties/diff.jsonl")
+    private File report;
+
+    /**
+     * Fail the build if the merged output differs from the baseline.
+     */
+    @Parameter(property = "merge.properties.diff.failOnChanges", defaultValue = "false")
+    private boolean failOnChanges;
+
+    /**
+     * Skip the execution of the plugin if you need to.
+     */
+    @Parameter(property = "merge.properties.skip", defaultValue = "false")
+    private boolean skip;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (skip) {
+            getLog().info("Skipping the execution.");
+            return;
+        }
+
+        File current = new File(outputFile);
+        if (!current.isAbsolute()) {
+            current = new File(outputDirectory, outputFile);
+        }
+        if (!current.isFile()) {
+            throw new MojoExecutionException("Merged output file " + current + " does not exist");
+        }
+        File baselineFile = resolveBaseline();
+
+        File parent = report.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new MojoExecutionException("Cannot create directory: " + parent);
+        }
+
+        PropertiesDiff diff = new PropertiesDiff();
+        try (JarSource jar = baselineEntry == null ? null : new JarSource(baselineFile);
+            Reader baselineReader = new InputStreamReader((jar == null ? new MergeSource(baselineFile, false)
+                : new MergeSource(jar, baselineEntry, false)).openStream(), encoding);
+            Reader currentReader = new InputStreamReader(new MergeSource(current, false).openStream(), encoding);
+            Writer reportWriter = Files.newBufferedWriter(report.toPath(), StandardCharsets.UTF_8)) {
+
+            File baselineLocation =
+                jar == null ? baselineFile : new File(baselineFile.getPath() + "!/" + baselineEntry);
+            diff.compare(new SortedStreamMerge.Head(0, baselineLocation, new PropertiesParser(baselineReader)),
+                new SortedStreamMerge.Head(1, current, new PropertiesParser(currentReader)), reportWriter);
+        } catch (IOException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        } catch (SortedStreamMerge.UnsortedSourceException e) {
+            throw new MojoExecutionException(e.getMessage() + ", the diff requires files sorted by key", e);
+        }
+
+        String summary = diff.getAdded() + " added, " + diff.getRemoved() + " removed, " + diff.getChanged()
+            + " changed and " + diff.getUnchanged() + " unchanged keys compared to " + baselineFile;
+        getLog().info(summary + ", see " + report);
+        if (failOnChanges && diff.getAdded() + diff.getRemoved() + diff.getChanged() > 0) {
+            throw new MojoFailureException("The merged output differs from the baseline: " + summary);
+        }
+    }
+
+    /**
+     * Gets the baseline file, resolving the baselineArtifact if needed.
+     *
+     * @return the baseline file
+     * @throws MojoExecutionException indicating that no baseline is available
+     */
+    private File resolveBaseline() throws MojoExecutionException {
+        if (baseline != null) {
+            if (!baseline.isFile()) {
+                throw new MojoExecutionException("Baseline file " + baseline + " does not exist");
+            }
+            return baseline;
+        }
+        if (baselineArtifact == null) {
+            throw new MojoExecutionException("Either baseline or baselineArtifact must be set");
+        }
+        try {
+            ArtifactRequest request =
+                new ArtifactRequest(new DefaultArtifact(baselineArtifact), remoteRepositories, null);
+            return repositorySystem.resolveArtifact(repositorySession, request).getArtifact().getFile();
+        } catch (IllegalArgumentException | ArtifactResolutionException e) {
+            throw new MojoExecutionException(
+                "Unable to resolve baselineArtifact " + baselineArtifact + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Sets the outputDirectory property.
+     *
+     * @param outputDirectory the new property value
+     */
+    public void setOutputDirectory(File outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
+
+    /**
+     * Sets the outputFile property.
+     *
+     * @param outputFile the new property value
+     */
+    public void setOutputFile(String outputFile) {
+        this.outputFile = outputFile;
+    }
+
+    /**
+     * Sets the baseline property.
+     *
+     * @param baseline the new property value
+     */
+    public void setBaseline(File baseline) {
+        this.baseline = baseline;
+    }
+
+    /**
+     * Sets the baselineEntry property.
+     *
+     * @param baselineEntry the new property value
+     */
+    public void setBaselineEntry(String baselineEntry) {
+        this.baselineEntry = baselineEntry;
+    }
+
+    /**
+     * Sets the encoding property.
+     *
+     * @param encoding the new property value
+     */
+    public void setEncoding(String encoding) {
+        this.encoding = encoding;
+    }
+
+    /**
+     * Sets the report property.
+     *
+     * @param report the new property value
+     */
+    public void setReport(File report) {
+        this.report = report;
+    }
+
+    /**
+     * Sets the failOnChanges property.
+     *
+     * @param failOnChanges the new property value
+     */
+    public void setFailOnChanges(boolean failOnChanges) {
+        this.failOnChanges = failOnChanges;
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+/**
+ * Records the phases of a merge as Java Flight Recorder events.
+ * <p>
+ * The JFR event classes are only loaded if the running JVM provides the <code>jdk.jfr</code> API, so the plugin still
+ * runs on a Java 8 JVM without it. When no recording is enabled for an event type {@link #begin(Kind, String)} returns
+ * a shared Span that does nothing.
+ */
+final class MergeEvents {
+
+    /**
+     * The recorded phases.
+     */
+    enum Kind {
+
+        /**
+         * A complete merge execution, from the up to date check to the final write.
+         */
+        EXECUTION,
+
+        /**
+         * Scanning a resource directory.
+         */
+        SCAN,
+
+        /**
+         * Loading and filtering a source.
+         */
+        SOURCE,
+
+        /**
+         * Merging all loaded sources.
+         */
+        MERGE,
+
+        /**
+         * Writing the merged output.
+         */
+        WRITE
+    }
+
+    /**
+     * A recorded phase that is committed when closed. Attributes that do not apply to the phase are ignored.
+     */
+    interface Span extends AutoCloseable {
+
+        /**
+         * Determine if this Span is recorded, so that attributes that are expensive to compute are needed.
+         *
+         * @return true if this Span is recorded
+         */
+        default boolean isRecording() {
+            return true;
+        }
+
+        /**
+         * Sets the upToDate attribute.
+         *
+         * @param upToDate true if the merge was skipped as up to date
+         */
+        default void setUpToDate(boolean upToDate) {
+        }
+
+        /**
+         * Sets the filtered attribute.
+         *
+         * @param filtered true if the source is filtered
+         */
+        default void setFiltered(boolean filtered) {
+        }
+
+        /**
+         * Sets the count attribute, i.e. the number of scanned files or merged sources.
+         *
+         * @param count the number of files or sources
+         */
+        default void setCount(int count) {
+        }
+
+        /**
+         * Sets the bytes attribute.
+         *
+         * @param bytes the number of bytes read or written
+         */
+        default void setBytes(long bytes) {
+        }
+
+        /**
+         * Sets the keys attribute.
+         *
+         * @param keys the number of loaded, merged or written keys
+         */
+        default void setKeys(int keys) {
+        }
+
+        /**
+         * End and commit this Span.
+         */
+        @Override
+        void close();
+    }
+
+    /**
+     * Creates Spans.
+     */
+    interface Recorder {
+
+        /**
+         * Begin a Span.
+         *
+         * @param kind the recorded phase
+         * @param name the file or directory the phase operates on
+         * @return the Span
+         */
+        Span begin(Kind kind, String name);
+    }
+
+    /**
+     * The Span used when a phase is not recorded.
+     */
+    static final Span NO_SPAN = new Span() {
+
+        @Override
+        public boolean isRecording() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    private static final Recorder RECORDER = createRecorder();
+
+    private MergeEvents() {
+    }
+
+    /**
+     * Create the JFR Recorder if the JFR API is available.
+     *
+     * @return the Recorder or null
+     */
+    private static Recorder createRecorder() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return (Recorder) Class.forName(MergeEvents.class.getPackage().getName() + ".JfrMergeRecorder")
+                .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Begin a Span for the given phase.
+     *
+     * @param kind the recorded phase
+     * @param name the file or directory the phase operates on
+     * @return the Span that must be closed when the phase ends
+     */
+    static Span begin(Kind kind, String name) {
+        return RECORDER == null ? NO_SPAN : RECORDER.begin(kind, name);
+    }
+}
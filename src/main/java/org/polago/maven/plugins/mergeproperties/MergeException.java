@@ -0,0 +1,46 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+/**
+ * Indicates that a merge failed, either because a source could not be read or because the sources conflict.
+ *
+ * @since 1.3
+ */
+public class MergeException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Create a MergeException.
+     *
+     * @param message the detail message
+     */
+    public MergeException(String message) {
+        super(message);
+    }
+
+    /**
+     * Create a MergeException.
+     *
+     * @param message the detail message
+     * @param cause the cause
+     */
+    public MergeException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.io.File;
+
+/**
+ * Receives every property that is merged into an output file.
+ */
+@FunctionalInterface
+public interface MergeListener {
+
+    /**
+     * Invoked after a property has been merged.
+     *
+     * @param key the property key
+     * @param value the property value or null if the merge was skipped as up to date and only the keys were read
+     * @param source the source file the property was read from
+     */
+    void propertyMerged(String key, String value, File source);
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+/**
+ * Receives the messages of a {@link PropertiesMergeEngine}.
+ *
+ * @since 1.3
+ */
+public interface MergeLog {
+
+    /**
+     * Log a debug message.
+     *
+     * @param message the message
+     */
+    void debug(String message);
+
+    /**
+     * Log an info message.
+     *
+     * @param message the message
+     */
+    void info(String message);
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks the merged keys needed to write the output in {@link OutputOrder#SOURCE} or {@link OutputOrder#GROUPED}
+ * order.
+ */
+class MergeOrder {
+
+    private final OutputOrder outputOrder;
+
+    private final List<String> firstMerged = new ArrayList<>();
+
+    private final Map<String, Integer> winners = new HashMap<>();
+
+    private int sourceCount;
+
+    /**
+     * Create a MergeOrder.
+     *
+     * @param outputOrder the OutputOrder to track, either SOURCE or GROUPED
+     */
+    MergeOrder(OutputOrder outputOrder) {
+        this.outputOrder = outputOrder;
+    }
+
+    /**
+     * Record a merged key.
+     *
+     * @param key the merged key
+     * @param isNew true if the key was merged for the first time
+     * @param sourceIndex the index of the source in merge order
+     */
+    void merged(String key, boolean isNew, int sourceIndex) {
+        if (outputOrder == OutputOrder.SOURCE) {
+            if (isNew) {
+                firstMerged.add(key);
+            }
+        } else {
+            winners.put(key, sourceIndex);
+            sourceCount = Math.max(sourceCount, sourceIndex + 1);
+        }
+    }
+
+    /**
+     * Gets all merged keys in output order.
+     *
+     * @return the keys
+     */
+    List<String> getKeys() {
+        if (outputOrder == OutputOrder.SOURCE) {
+            return firstMerged;
+        }
+        List<List<String>> groups = new ArrayList<>(sourceCount);
+        for (int i = 0; i < sourceCount; i++) {
+            groups.add(new ArrayList<>());
+        }
+        for (Map.Entry<String, Integer> e : winners.entrySet()) {
+            groups.get(e.getValue()).add(e.getKey());
+        }
+        List<String> result = new ArrayList<>(winners.size());
+        for (List<String> group : groups) {
+            Collections.sort(group);
+            result.addAll(group);
+        }
+        return result;
+    }
+}
@@ -36,30 +36,22 @@
 package org.polago.maven.plugins.mergeproperties;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.Properties;
-import java.util.TreeMap;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
-import org.apache.commons.configuration2.Configuration;
-import org.apache.commons.configuration2.MapConfiguration;
-import org.apache.commons.configuration2.PropertiesConfiguration;
-import org.apache.commons.configuration2.PropertiesConfigurationLayout;
-import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.maven.model.Resource;
+import org.apache.maven.project.MavenProject;
 import org.apache.maven.shared.filtering.FilterWrapper;
 import org.apache.maven.shared.filtering.MavenFileFilter;
 import org.apache.maven.shared.filtering.MavenFilteringException;
@@ -71,7 +63,7 @@ import org.apache.maven.shared.utils.StringUtils;
 import org.codehaus.plexus.logging.AbstractLogEnabled;
 import org.codehaus.plexus.personality.plexus.lifecycle.phase.Initializable;
 import org.codehaus.plexus.personality.plexus.lifecycle.phase.InitializationException;
-import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.DirectoryScanner;
 import org.codehaus.plexus.util.Scanner;
 import org.sonatype.plexus.build.incremental.BuildContext;
 
@@ -85,7 +77,9 @@ public class MergeProperitesMavenResourcesFiltering extends AbstractLogEnabled
 
     private static final String[] EMPTY_STRING_ARRAY = {};
 
-    private static final String[] DEFAULT_INCLUDES = {"**/**.properties"};
+    private static final String[] DEFAULT_INCLUDES =
+        {"**/**.properties", "**/**.properties" + Compression.GZIP.getExtension(),
+            "**/**.properties" + Compression.DEFLATE.getExtension()};
 
     private List<String> defaultNonFilteredFileExtensions;
 
@@ -97,6 +91,40 @@ public class MergeProperitesMavenResourcesFiltering extends AbstractLogEnabled
 
     private boolean overwriteProperties = false;
 
+    private File workDirectory;
+
+    private SourceCache sourceCache;
+
+    private DaemonCache daemonCache;
+
+    private File buildCacheDirectory;
+
+    private MergeListener mergeListener;
+
+    private boolean sortedSources = false;
+
+    private List<DependencyResource> dependencyResources;
+
+    private int shards = 0;
+
+    private ShardStrategy shardStrategy = ShardStrategy.HASH;
+
+    private boolean resolvePlaceholders = false;
+
+    private boolean concurrentMerge = false;
+
+    private KeyFilter keyFilter;
+
+    private MergeStrategy mergeStrategy = MergeStrategy.AUTO;
+
+    private Compression outputCompression = Compression.NONE;
+
+    private boolean outputDigest = false;
+
+    private OutputOrder outputOrder = OutputOrder.SORTED;
+
+    private List<MergedPropertiesFilter> mergedPropertiesFilters;
+
     /**
      * Public Constructor.
      *
@@ -110,6 +138,19 @@ public class MergeProperitesMavenResourcesFiltering extends AbstractLogEnabled
         this.buildContext = buildContext;
     }
 
+    /**
+     * Create a new unconfigured instance that shares the components and Logger of this instance. The new instance can
+     * be configured and used independently of this, possibly shared, instance.
+     *
+     * @return a new MergeProperitesMavenResourcesFiltering instance
+     */
+    public MergeProperitesMavenResourcesFiltering newInstance() {
+        MergeProperitesMavenResourcesFiltering result =
+            new MergeProperitesMavenResourcesFiltering(mavenFileFilter, buildContext);
+        result.enableLogging(getLogger());
+        return result;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -167,6 +208,43 @@ public class MergeProperitesMavenResourcesFiltering extends AbstractLogEnabled
             throw new MavenFilteringException("outputDirectory cannot be null");
         }
 
+        File destinationFile = resolveDestinationFile(mavenResourcesExecution.getOutputDirectory(), outputFile);
+        try (MergeEvents.Span span = MergeEvents.begin(MergeEvents.Kind.EXECUTION, destinationFile.getPath())) {
+            filterResources(mavenResourcesExecution, destinationFile, span);
+        }
+    }
+
+    /**
+     * Merge the resources of a validated MavenResourcesExecution unless the destinationFile is up to date.
+     *
+     * @param mavenResourcesExecution the MavenResourcesExecution to use
+     * @param destinationFile the merge destination file
+     * @param span the Span recording the execution
+     * @throws MavenFilteringException indicating failure
+     */
+    private void filterResources(MavenResourcesExecution mavenResourcesExecution, File destinationFile,
+        MergeEvents.Span span) throws MavenFilteringException {
+        MergeSnapshot snapshot = null;
+        boolean outdated = false;
+        if (workDirectory != null || daemonCache != null) {
+            String fingerprint =
+                MergeSnapshot.fingerprint(describeConfiguration(mavenResourcesExecution, destinationFile));
+            MergeSnapshot previous =
+                workDirectory == null ? null : MergeSnapshot.read(getSnapshotFile(destinationFile));
+            if (isUpToDate(mavenResourcesExecution, destinationFile, previous, fingerprint)) {
+                getLogger().info("Skipping merge since no files were modified");
+                span.setUpToDate(true);
+                if (mergeListener != null) {
+                    notifyMergeListener(mavenResourcesExecution);
+                }
+                return;
+            }
+            // The configuration or a source changed in a way the modification times may not show, e.g. a deleted file
+            outdated = previous != null;
+            snapshot = new MergeSnapshot(fingerprint);
+            recordFilterFiles(snapshot, mavenResourcesExecution);
+        }
+
         if (mavenResourcesExecution.isUseDefaultFilterWrappers()) {
             handleDefaultFilterWrappers(mavenResourcesExecution);
         }
@@ -178,8 +256,140 @@ public class MergeProperitesMavenResourcesFiltering extends AbstractLogEnabled
             getLogger().info("Using '" + mavenResourcesExecution.getEncoding() + "' encoding to merge properties.");
         }
 
-        Properties outputProperties = new Properties();
+        List<MergeSource> sources = new ArrayList<>();
+        List<JarSource> jars = new ArrayList<>();
+        try {
+            long lastModified = addDependencySources(mavenResourcesExecution, sources, jars, snapshot);
+            span.setUpToDate(!mergeResources(mavenResourcesExecution, destinationFile, sources, lastModified,
+                outdated, snapshot));
+            span.setCount(sources.size());
+        } finally {
+            close(jars);
+        }
+    }
+
+    /**
+     * Report the keys of every source of a merge that is skipped as up to date to the MergeListener. Only the keys are
+     * read, without filtering, so the listener receives a null value.
+     *
+     * @param execution the MavenResourcesExecution to use
+     * @throws MavenFilteringException indicating failure
+     */
+    private void notifyMergeListener(MavenResourcesExecution execution) throws MavenFilteringException {
+        List<MergeSource> sources = new ArrayList<>();
+        List<JarSource> jars = new ArrayList<>();
+        KeyValidator validator = new KeyValidator(keyFilter);
+        try {
+            addDependencySources(execution, sources, jars, null);
+            sources.addAll(scanResources(execution));
+            for (MergeSource source : sources) {
+                for (String key : validator.loadKeys(source, execution.getEncoding())) {
+                    mergeListener.propertyMerged(key, null, source.getFile());
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            throw new MavenFilteringException(e.getMessage(), e);
+        } finally {
+            close(jars);
+        }
+    }
+
+    /**
+     * Close every opened JarSource.
+     *
+     * @param jars the JarSources to close
+     */
+    private void close(List<JarSource> jars) {
+        for (JarSource jar : jars) {
+            try {
+                jar.close();
+            } catch (IOException e) {
+                getLogger().debug("Unable to close " + jar.getFile() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Select the entries of every dependency resource as merge sources. The JAR files are not extracted and the entries
+     * are only read when merged.
+     *
+     * @param execution the MavenResourcesExecution to use
+     * @param sources the list to add the selected sources to
+     * @param jars the list to add every opened JarSource to
+     * @param snapshot the snapshot to update or null
+     * @return the last modification time of the JAR files
+     * @throws MavenFilteringException indicating failure
+     */
+    private long addDependencySources(MavenResourcesExecution execution, List<MergeSource> sources,
+        List<JarSource> jars, MergeSnapshot snapshot) throws MavenFilteringException {
+
         long lastModified = 0L;
+        if (dependencyResources == null) {
+            return lastModified;
+        }
+        for (DependencyResource resource : dependencyResources) {
+            File file = resource.getFile();
+            if (file == null || !file.isFile()) {
+                throw new MavenFilteringException("Dependency resource " + resource + " is not resolved to a file");
+            }
+            if (snapshot != null) {
+                snapshot.addFile(file);
+            }
+            lastModified = Math.max(lastModified, file.lastModified());
+            JarSource jar = new JarSource(file);
+            jars.add(jar);
+
+            List<String> entries;
+            try {
+                entries = jar.select(toPatterns(resource.getIncludes(), DEFAULT_INCLUDES),
+                    toPatterns(resource.getExcludes(), EMPTY_STRING_ARRAY), execution.isAddDefaultExcludes());
+            } catch (IOException e) {
+                throw new MavenFilteringException("Unable to read " + file + ": " + e.getMessage(), e);
+            }
+            getLogger().info("Merging " + entries.size() + " resource" + (entries.size() > 1 ? "s" : "") + " from "
+                + resource);
+
+            for (String name : entries) {
+                getLogger().debug("Processing entry " + name);
+                boolean filteredExt = filteredFileExtension(name, execution.getNonFilteredFileExtensions());
+                sources.add(new MergeSource(jar, name, resource.isFiltering() && filteredExt));
+            }
+        }
+        return lastModified;
+    }
+
+    /**
+     * Convert a pattern list to an array.
+     *
+     * @param patterns the pattern list, possibly null
+     * @param defaultPatterns the patterns to use if the list is empty
+     * @return the patterns
+     */
+    private static String[] toPatterns(List<String> patterns, String[] defaultPatterns) {
+        if (patterns == null || patterns.isEmpty()) {
+            return defaultPatterns;
+        }
+        return patterns.toArray(EMPTY_STRING_ARRAY);
+    }
+
+    /**
+     * Scan all resource directories and merge the sources into the destinationFile.
+     *
+     * @param mavenResourcesExecution the MavenResourcesExecution to use
+     * @param destinationFile the merge destination file
+     * @param sources the already selected sources, that resource directory sources are appended to
+     * @param sourcesLastModified the last modification time of the already selected sources
+     * @param outdated true if the destinationFile must be written regardless of the modification times
+     * @param snapshot the snapshot to update or null
+     * @return true if the destinationFile was written
+     * @throws MavenFilteringException indicating failure
+     */
+    private boolean mergeResources(MavenResourcesExecution mavenResourcesExecution, File destinationFile,
+        List<MergeSource> sources, long sourcesLastModified, boolean outdated, MergeSnapshot snapshot)
+        throws MavenFilteringException {
+
+        long scanStart = System.nanoTime();
+        long lastModified = sourcesLastModified;
 
         for (Resource resource : mavenResourcesExecution.getResources()) {
 
@@ -199,11 +409,10 @@ public class MergeProperitesMavenResourcesFiltering extends AbstractLogEnabled
 
             String targetPath = resource.getTargetPath();
 
-            File resourceDirectory = new File(resource.getDirectory());
+            File resourceDirectory = getResourceDirectory(mavenResourcesExecution, resource);
 
-            if (!resourceDirectory.isAbsolute()) {
-                resourceDirectory =
-                    new File(mavenResourcesExecution.getResourcesBaseDirectory(), resourceDirectory.getPath());
+            if (snapshot != null) {
+                recordDirectoryTree(snapshot, resourceDirectory);
             }
 
             if (!resourceDirectory.exists()) {
@@ -222,22 +431,22 @@ public class MergeProperitesMavenResourcesFiltering extends AbstractLogEnabled
                 || buildContext.hasDelta(mavenResourcesExecution.getFileFilters())
                 || buildContext.hasDelta(getRelativeOutputDirectory(mavenResourcesExecution));
             getLogger().debug("ignoreDelta " + ignoreDelta);
-            Scanner scanner = buildContext.newScanner(resourceDirectory, ignoreDelta);
-
-            setupScanner(resource, scanner, mavenResourcesExecution.isAddDefaultExcludes());
+            List<String> includedFiles;
+            try (MergeEvents.Span span = MergeEvents.begin(MergeEvents.Kind.SCAN, resourceDirectory.getPath())) {
+                Scanner scanner = buildContext.newScanner(resourceDirectory, ignoreDelta);
+                includedFiles = scan(resource, scanner, mavenResourcesExecution.isAddDefaultExcludes());
+                if (!ignoreDelta && buildContext.isIncremental() && !includedFiles.isEmpty()) {
+                    // Perform a full scan since we need to consider all files when the file list is nonEmpty in
+                    // an incremental build
+                    getLogger().debug("Reverting to full scan");
 
-            scanner.scan();
-
-            List<String> includedFiles = Arrays.asList(scanner.getIncludedFiles());
-            if (!ignoreDelta && buildContext.isIncremental() && !includedFiles.isEmpty()) {
-                // Perform a full scan since we need to consider all files when the file list is nonEmpty in
-                // an incremental build
-                getLogger().debug("Reverting to full scan");
-
-                scanner = buildContext.newScanner(resourceDirectory, true);
-                setupScanner(resource, scanner, mavenResourcesExecution.isAddDefaultExcludes());
-                scanner.scan();
-                includedFiles = Arrays.asList(scanner.getIncludedFiles());
+                    scanner = buildContext.newScanner(resourceDirectory, true);
+                    includedFiles = scan(resource, scanner, mavenResourcesExecution.isAddDefaultExcludes());
+                } else if (!ignoreDelta && buildContext.isIncremental()) {
+                    // The delta scan did not list the unchanged files so a snapshot would be incomplete
+                    snapshot = null;
+                }
+                span.setCount(includedFiles.size());
             }
 
             getLogger().info("Merging " + includedFiles.size() + " resource" + (includedFiles.size() > 1 ? "s" : "")
@@ -247,25 +456,504 @@ public class MergeProperitesMavenResourcesFiltering extends AbstractLogEnabled
                 getLogger().debug("Processing file " + name);
                 File source = new File(resourceDirectory, name);
                 lastModified = Math.max(lastModified, source.lastModified());
+                if (snapshot != null) {
+                    snapshot.addFile(source);
+                }
 
-                boolean filteredExt =
-                    filteredFileExtension(source.getName(), mavenResourcesExecution.getNonFilteredFileExtensions());
+                boolean filteredExt = filteredFileExtension(Compression.stripExtension(source.getName()),
+                    mavenResourcesExecution.getNonFilteredFileExtensions());
 
-                mergeProperties(outputProperties, source, resource.isFiltering() && filteredExt,
-                    mavenResourcesExecution.getFilterWrappers(), mavenResourcesExecution.getEncoding(),
-                    overwriteProperties);
+                sources.add(new MergeSource(source, resource.isFiltering() && filteredExt,
+                    MergeResource.getPrecedence(resource)));
             }
 
         }
 
-        File destinationFile = getDestinationFile(mavenResourcesExecution.getOutputDirectory(), outputFile);
-        if (mavenResourcesExecution.isOverwrite() || lastModified > destinationFile.lastModified()) {
-            storeProperties(outputProperties, destinationFile);
+        long scanMillis = (System.nanoTime() - scanStart) / 1000000L;
+        createParentDirectory(destinationFile);
+        boolean modified =
+            outdated || mavenResourcesExecution.isOverwrite() || lastModified > destinationFile.lastModified();
+        // The interpolated values of a filtered source depend on the whole build, so only unfiltered merges are cached
+        BuildCache.Fingerprint fingerprint =
+            modified && buildCacheDirectory != null && sources.stream().noneMatch(MergeSource::isFiltering)
+                ? fingerprint(mavenResourcesExecution, destinationFile, sources) : null;
+        String inputFingerprint = fingerprint == null ? null : fingerprint.getValue();
+        if (inputFingerprint == null || !restoreOutputs(inputFingerprint, destinationFile)) {
+            merge(mavenResourcesExecution, destinationFile, sources, modified, snapshot, scanMillis);
+            if (inputFingerprint != null) {
+                storeOutputs(inputFingerprint, fingerprint.getInputs(), destinationFile);
+            }
+        }
+
+        // Only a written destinationFile is known to match the snapshot
+        if (modified && snapshot != null && workDirectory != null) {
+            snapshot.addFile(destinationFile);
+            if (shards > 0) {
+                for (File shard : ShardedPropertiesStore.listShardFiles(destinationFile)) {
+                    snapshot.addFile(shard);
+                }
+            } else if (outputDigest) {
+                snapshot.addFile(OutputDigest.getSidecarFile(destinationFile));
+            }
+            writeSnapshot(snapshot, destinationFile);
+        }
+        return modified;
+    }
+
+    /**
+     * Merge the sources into the destinationFile, reusing a cached result if possible.
+     *
+     * @param mavenResourcesExecution the MavenResourcesExecution to use
+     * @param destinationFile the merge destination file
+     * @param sources the sources to merge
+     * @param modified true if the destinationFile should be written
+     * @param snapshot the snapshot of the inputs or null
+     * @param scanMillis the time spent scanning the resource directories
+     * @throws MavenFilteringException indicating failure
+     */
+    private void merge(MavenResourcesExecution mavenResourcesExecution, File destinationFile, List<MergeSource> sources,
+        boolean modified, MergeSnapshot snapshot, long scanMillis) throws MavenFilteringException {
+        PropertiesMergeEngine engine = createEngine(mavenResourcesExecution, modified);
+        boolean cacheResult = modified && snapshot != null && daemonCache != null && mergeListener == null
+            && sources.stream().noneMatch(MergeSource::isFiltering);
+        DaemonCache.CachedResult cached = cacheResult ? daemonCache.getResult(destinationFile, snapshot) : null;
+        if (cached != null) {
+            getLogger().info("Reusing the merged result of a previous build");
+            storeMerged(cached.getProperties(), cached.getKeys(), destinationFile);
+            return;
+        }
+
+        MergeStats previous = workDirectory == null ? null : MergeStats.read(getStatsFile(destinationFile));
+        MergeStrategy strategy = chooseStrategy(previous);
+        engine.setParallel(strategy != MergeStrategy.SERIAL);
+        MergeStats stats = new MergeStats();
+        stats.setStrategy(strategy);
+        stats.setScanMillis(scanMillis);
+        stats.setStreamable(previous == null ? null : previous.getStreamable());
+        long start = System.nanoTime();
+        if (modified && strategy == MergeStrategy.STREAMED && shards == 0) {
+            long count = mergeSortedSources(engine, sources, destinationFile);
+            stats.setStreamable(count >= 0);
+            if (count >= 0) {
+                stats.setKeys((int) count);
+                stats.setMergeMillis((System.nanoTime() - start) / 1000000L);
+                writeStats(stats, sources, destinationFile);
+                return;
+            }
+            start = System.nanoTime();
+        }
+
+        PropertiesMergeEngine.Result result;
+        try {
+            result = engine.merge(sources);
+        } catch (MergeException e) {
+            throw new MavenFilteringException(e.getMessage(), e);
+        }
+        Properties outputProperties = result.getProperties();
+        stats.setKeys(outputProperties.size());
+        stats.setMergeMillis((System.nanoTime() - start) / 1000000L);
+
+        if (modified) {
+            start = System.nanoTime();
+            List<String> keys = shards == 0 && outputOrder != OutputOrder.SORTED ? result.getKeys() : null;
+            storeMerged(outputProperties, keys, destinationFile);
+            if (cacheResult) {
+                daemonCache.putResult(destinationFile, snapshot, outputProperties, keys);
+            }
+            stats.setWriteMillis((System.nanoTime() - start) / 1000000L);
+            writeStats(stats, sources, destinationFile);
         } else {
             getLogger().info("Skipping merge since no files were modified");
         }
     }
 
+    /**
+     * Choose the MergeStrategy of a merge. The configured mergeStrategy is used unless it is AUTO, in which case the
+     * strategy is chosen from the statistics of the previous merge.
+     *
+     * @param previous the statistics of the previous merge or null
+     * @return SERIAL, PARALLEL or STREAMED
+     */
+    private MergeStrategy chooseStrategy(MergeStats previous) {
+        MergeStrategy strategy;
+        String reason;
+        if (mergeStrategy != null && mergeStrategy != MergeStrategy.AUTO) {
+            strategy = mergeStrategy;
+            reason = "as configured";
+        } else if (sortedSources) {
+            strategy = MergeStrategy.STREAMED;
+            reason = "since the sources are sorted";
+        } else if (previous == null) {
+            strategy = MergeStrategy.PARALLEL;
+            reason = "since there are no statistics of a previous merge";
+        } else {
+            Runtime runtime = Runtime.getRuntime();
+            strategy = previous.choose(runtime.availableProcessors(), runtime.maxMemory());
+            reason = "for " + previous + " in the previous merge, " + runtime.availableProcessors()
+                + " processors and " + runtime.maxMemory() / (1024 * 1024) + " MB heap";
+        }
+        getLogger().info("Using the " + strategy + " merge strategy " + reason);
+        return strategy;
+    }
+
+    /**
+     * Store the statistics of a merge in the workDirectory, if any. Failing to store the statistics only affects the
+     * strategy chosen for the next merge.
+     *
+     * @param stats the statistics to store
+     * @param sources the merged sources
+     * @param destinationFile the merge destination file
+     */
+    private void writeStats(MergeStats stats, List<MergeSource> sources, File destinationFile) {
+        if (workDirectory == null) {
+            return;
+        }
+        File statsFile = getStatsFile(destinationFile);
+        try {
+            long bytes = 0;
+            for (MergeSource source : sources) {
+                bytes += Math.max(0L, source.getLength());
+            }
+            stats.setFiles(sources.size());
+            stats.setBytes(bytes);
+            stats.write(statsFile);
+        } catch (IOException e) {
+            getLogger().warn("Unable to store merge statistics " + statsFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Compute the content fingerprint of every input of a merge of unfiltered sources.
+     *
+     * @param execution the MavenResourcesExecution to use
+     * @param destinationFile the merge destination file
+     * @param sources the sources to merge
+     * @return the Fingerprint
+     * @throws MavenFilteringException indicating IO Error
+     */
+    private BuildCache.Fingerprint fingerprint(MavenResourcesExecution execution, File destinationFile,
+        List<MergeSource> sources) throws MavenFilteringException {
+        MavenProject project = execution.getMavenProject();
+        BuildCache.Fingerprint fingerprint = new BuildCache.Fingerprint(project == null ? null : project.getBasedir());
+        fingerprint.addText("configuration", describeConfiguration(execution, destinationFile));
+        try {
+            for (MergeSource source : sources) {
+                fingerprint.addText("source", Integer.toString(source.getPrecedence()));
+                fingerprint.addInput(source.toString(), source.openStream());
+            }
+        } catch (IOException e) {
+            throw new MavenFilteringException(e.getMessage(), e);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Restore the outputs of a previous merge with the same inputs from the build cache.
+     *
+     * @param inputFingerprint the fingerprint of the inputs
+     * @param destinationFile the merge destination file
+     * @return true if the outputs were restored
+     */
+    private boolean restoreOutputs(String inputFingerprint, File destinationFile) {
+        try {
+            List<File> restored =
+                new BuildCache(buildCacheDirectory).restore(inputFingerprint, destinationFile.getParentFile());
+            if (restored == null) {
+                getLogger().debug("No build cache entry for " + inputFingerprint);
+                return false;
+            }
+            getLogger().info("Restored " + restored.size() + " merged file" + (restored.size() > 1 ? "s" : "")
+                + " from the build cache");
+            return true;
+        } catch (IOException e) {
+            getLogger().warn("Unable to restore build cache entry " + inputFingerprint + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Store the outputs of a merge in the build cache. Failing to store the outputs only disables the build cache for
+     * the next build with the same inputs.
+     *
+     * @param inputFingerprint the fingerprint of the inputs
+     * @param inputs the inputs of the merge
+     * @param destinationFile the merge destination file
+     */
+    private void storeOutputs(String inputFingerprint, List<String> inputs, File destinationFile) {
+        if (!destinationFile.isFile()) {
+            return;
+        }
+        List<File> outputs = new ArrayList<>();
+        outputs.add(destinationFile);
+        if (shards > 0) {
+            outputs.addAll(ShardedPropertiesStore.listShardFiles(destinationFile));
+        } else if (outputDigest && OutputDigest.getSidecarFile(destinationFile).isFile()) {
+            outputs.add(OutputDigest.getSidecarFile(destinationFile));
+        }
+        try {
+            new BuildCache(buildCacheDirectory).store(inputFingerprint, inputs, outputs);
+        } catch (IOException e) {
+            getLogger().warn("Unable to store build cache entry " + inputFingerprint + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Create a PropertiesMergeEngine configured by this instance and the MavenResourcesExecution. Filtered sources are
+     * interpolated by the FilterWrappers of the execution.
+     *
+     * @param execution the MavenResourcesExecution to use
+     * @param modified true if the output is written, so that placeholders should be resolved and the
+     * MergedPropertiesFilters applied
+     * @return a new PropertiesMergeEngine
+     */
+    private PropertiesMergeEngine createEngine(MavenResourcesExecution execution, boolean modified) {
+        PropertiesMergeEngine engine = new PropertiesMergeEngine();
+        engine.setEncoding(execution.getEncoding());
+        engine.setOverwriteProperties(overwriteProperties);
+        engine.setResolvePlaceholders(modified && resolvePlaceholders);
+        engine.setConcurrent(concurrentMerge);
+        engine.setKeyFilter(keyFilter);
+        engine.setFilters(modified ? mergedPropertiesFilters : null);
+        engine.setOutputOrder(outputOrder);
+        engine.setMergeListener(mergeListener);
+        engine.setSourceCache(sourceCache != null || daemonCache == null ? sourceCache : daemonCache.getSourceCache());
+        List<FilterWrapper> filterWrappers = execution.getFilterWrappers();
+        engine.setInterpolator(reader -> {
+            Reader r = reader;
+            if (filterWrappers != null) {
+                for (FilterWrapper fw : filterWrappers) {
+                    r = fw.getReader(r);
+                }
+            }
+            return r;
+        });
+        engine.setLog(new MergeLog() {
+
+            @Override
+            public void debug(String message) {
+                getLogger().debug(message);
+            }
+
+            @Override
+            public void info(String message) {
+                getLogger().info(message);
+            }
+        });
+        return engine;
+    }
+
+    /**
+     * Store the merged properties as shards or as a single file.
+     *
+     * @param properties the merged Properties
+     * @param keys the keys in output order or null if the output is sorted
+     * @param destinationFile the merge destination file
+     * @throws MavenFilteringException indicating failure
+     */
+    private void storeMerged(Properties properties, List<String> keys, File destinationFile)
+        throws MavenFilteringException {
+        try (MergeEvents.Span span = MergeEvents.begin(MergeEvents.Kind.WRITE, destinationFile.getPath())) {
+            if (shards > 0) {
+                storeShards(properties, destinationFile);
+            } else if (keys != null) {
+                storeProperties(properties, keys, destinationFile);
+            } else {
+                storeProperties(properties, destinationFile);
+            }
+            if (span.isRecording()) {
+                span.setKeys(properties.size());
+                span.setBytes(destinationFile.length());
+            }
+        }
+    }
+
+    /**
+     * Merge sources that are sorted by key by streaming them into the destinationFile.
+     *
+     * @param engine the PropertiesMergeEngine to use
+     * @param sources the sources to merge
+     * @param destinationFile the merge destination file
+     * @return the number of merged properties, or -1 if the sources cannot be streamed
+     * @throws MavenFilteringException indicating failure
+     */
+    private long mergeSortedSources(PropertiesMergeEngine engine, List<MergeSource> sources,
+        File destinationFile) throws MavenFilteringException {
+
+        File tempFile = new File(destinationFile.getParentFile(), destinationFile.getName() + ".tmp");
+        OutputDigest digest = outputDigest ? new OutputDigest() : null;
+        try {
+            long count = engine.mergeSorted(sources, outputCompression.newWriter(tempFile, digest), digest);
+            if (count < 0) {
+                getLogger().info("Reverting to an in-memory merge");
+                return count;
+            }
+            Files.move(tempFile.toPath(), destinationFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            if (digest != null) {
+                digest.write(OutputDigest.getSidecarFile(destinationFile));
+            }
+            getLogger().debug("Streamed " + sources.size() + " sorted sources into " + destinationFile);
+            return count;
+        } catch (IOException | MergeException e) {
+            throw new MavenFilteringException(e.getMessage(), e);
+        } finally {
+            tempFile.delete();
+        }
+    }
+
+    /**
+     * Determine if a previous merge into the destinationFile is still valid, without scanning or reading any source
+     * file.
+     *
+     * @param mavenResourcesExecution the MavenResourcesExecution to use
+     * @param destinationFile the merge destination file
+     * @param previous the snapshot of the previous merge or null
+     * @param fingerprint the fingerprint of the current configuration
+     * @return true if the destinationFile is up to date
+     */
+    private boolean isUpToDate(MavenResourcesExecution mavenResourcesExecution, File destinationFile,
+        MergeSnapshot previous, String fingerprint) {
+        if (mavenResourcesExecution.isOverwrite() || !destinationFile.exists()) {
+            return false;
+        }
+        boolean upToDate = previous != null && previous.isUpToDate(fingerprint);
+        getLogger().debug("upToDate " + upToDate);
+        return upToDate;
+    }
+
+    /**
+     * Build a description of every configuration value that affects the merge result.
+     *
+     * @param execution the MavenResourcesExecution to use
+     * @param destinationFile the merge destination file
+     * @return a description suitable for fingerprinting
+     */
+    private String describeConfiguration(MavenResourcesExecution execution, File destinationFile) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("output=").append(destinationFile.getAbsolutePath()).append('\n');
+        sb.append("overwriteProperties=").append(overwriteProperties).append('\n');
+        sb.append("outputOrder=").append(outputOrder).append('\n');
+        sb.append("resolvePlaceholders=").append(resolvePlaceholders).append('\n');
+        sb.append("keyFilter=").append(keyFilter).append('\n');
+        if (mergedPropertiesFilters != null) {
+            for (MergedPropertiesFilter filter : mergedPropertiesFilters) {
+                sb.append("mergedPropertiesFilter=").append(filter.getClass().getName()).append('\n');
+            }
+        }
+        sb.append("shards=").append(shards).append(',').append(shardStrategy).append('\n');
+        sb.append("outputCompression=").append(outputCompression).append('\n');
+        sb.append("outputDigest=").append(outputDigest).append('\n');
+        sb.append("encoding=").append(execution.getEncoding()).append('\n');
+        sb.append("addDefaultExcludes=").append(execution.isAddDefaultExcludes()).append('\n');
+        sb.append("nonFilteredFileExtensions=").append(execution.getNonFilteredFileExtensions()).append('\n');
+        sb.append("filters=").append(execution.getFileFilters()).append('\n');
+        sb.append("escapeString=").append(execution.getEscapeString()).append('\n');
+        sb.append("escapeWindowsPaths=").append(execution.isEscapeWindowsPaths()).append('\n');
+        sb.append("delimiters=").append(execution.getDelimiters()).append('\n');
+        sb.append("supportMultiLineFiltering=").append(execution.isSupportMultiLineFiltering()).append('\n');
+        if (dependencyResources != null) {
+            for (DependencyResource resource : dependencyResources) {
+                sb.append("dependencyResource=").append(resource.getFile()).append(',').append(resource.isFiltering())
+                    .append(',').append(resource.getIncludes()).append(',').append(resource.getExcludes())
+                    .append('\n');
+            }
+        }
+        for (Resource resource : execution.getResources()) {
+            sb.append("resource=").append(resource.getDirectory()).append(',').append(resource.isFiltering())
+                .append(',').append(resource.getIncludes()).append(',').append(resource.getExcludes()).append(',')
+                .append(MergeResource.getPrecedence(resource)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Record all filter files in the snapshot.
+     *
+     * @param snapshot the snapshot to update
+     * @param execution the MavenResourcesExecution to use
+     */
+    private void recordFilterFiles(MergeSnapshot snapshot, MavenResourcesExecution execution) {
+        for (File filterFile : getFilterFiles(execution)) {
+            snapshot.addFile(filterFile);
+        }
+    }
+
+    /**
+     * Gets the filter files of the execution.
+     *
+     * @param execution the MavenResourcesExecution to use
+     * @return the filter files, resolved against the project base directory
+     */
+    private List<File> getFilterFiles(MavenResourcesExecution execution) {
+        List<File> result = new ArrayList<>();
+        if (execution.getFileFilters() == null) {
+            return result;
+        }
+        for (String filter : execution.getFileFilters()) {
+            File filterFile = new File(filter);
+            if (!filterFile.isAbsolute() && execution.getMavenProject() != null
+                && execution.getMavenProject().getBasedir() != null) {
+                filterFile = new File(execution.getMavenProject().getBasedir(), filter);
+            }
+            result.add(filterFile);
+        }
+        return result;
+    }
+
+    /**
+     * Record the directory tree of a resource directory in the snapshot.
+     *
+     * @param snapshot the snapshot to update
+     * @param resourceDirectory the resource directory to record
+     * @throws MavenFilteringException indicating IO Error
+     */
+    private void recordDirectoryTree(MergeSnapshot snapshot, File resourceDirectory) throws MavenFilteringException {
+        try {
+            snapshot.addDirectoryTree(resourceDirectory);
+        } catch (IOException e) {
+            throw new MavenFilteringException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Store the snapshot for the given destinationFile. Failing to store the snapshot only disables the up to date
+     * check for the next build.
+     *
+     * @param snapshot the snapshot to store
+     * @param destinationFile the merge destination file
+     */
+    private void writeSnapshot(MergeSnapshot snapshot, File destinationFile) {
+        File snapshotFile = getSnapshotFile(destinationFile);
+        try {
+            snapshot.write(snapshotFile);
+        } catch (IOException e) {
+            getLogger().warn("Unable to store merge snapshot " + snapshotFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the snapshot file for the given destinationFile.
+     *
+     * @param destinationFile the merge destination file
+     * @return the snapshot file in the workDirectory
+     */
+    private File getSnapshotFile(File destinationFile) {
+        String path = destinationFile.getAbsolutePath();
+        return new File(workDirectory,
+            destinationFile.getName() + "-" + Integer.toHexString(path.hashCode()) + ".snapshot");
+    }
+
+    /**
+     * Gets the statistics file for the given destinationFile.
+     *
+     * @param destinationFile the merge destination file
+     * @return the statistics file in the workDirectory
+     */
+    private File getStatsFile(File destinationFile) {
+        String path = destinationFile.getAbsolutePath();
+        return new File(workDirectory,
+            destinationFile.getName() + "-" + Integer.toHexString(path.hashCode()) + ".stats");
+    }
+
     /**
      * Add Default Filter Wrappers to the MavenResourcesExecution instance.
      *
@@ -289,16 +977,110 @@ public class MergeProperitesMavenResourcesFiltering extends AbstractLogEnabled
      * @param file the file path
      * @return a File representing the file
      */
-    private File getDestinationFile(File outputDirectory, String file) {
+    private File resolveDestinationFile(File outputDirectory, String file) {
         File destinationFile = new File(file);
         if (!destinationFile.isAbsolute()) {
             destinationFile = new File(outputDirectory, file);
         }
+        return destinationFile;
+    }
 
+    /**
+     * Make sure the parent directory of the given file exists.
+     *
+     * @param destinationFile the file to create the parent directory for
+     */
+    private void createParentDirectory(File destinationFile) {
         if (!destinationFile.getParentFile().exists()) {
             destinationFile.getParentFile().mkdirs();
         }
-        return destinationFile;
+    }
+
+    /**
+     * Check the keys of all resources for duplicates without filtering, merging or writing anything. The resources
+     * are always scanned in full.
+     *
+     * @param execution the MavenResourcesExecution to use
+     * @return the KeyValidator with the result
+     * @throws MavenFilteringException indicating failure
+     */
+    KeyValidator validateResources(MavenResourcesExecution execution) throws MavenFilteringException {
+        List<MergeSource> sources = scanResources(execution);
+        KeyValidator validator = new KeyValidator(keyFilter);
+        try {
+            validator.validate(sources, execution.getEncoding());
+        } catch (IOException | IllegalArgumentException e) {
+            throw new MavenFilteringException(e.getMessage(), e);
+        }
+        getLogger().info("Validated the keys of " + sources.size() + " resource" + (sources.size() > 1 ? "s" : ""));
+        return validator;
+    }
+
+    /**
+     * Select every file of the resources as an unfiltered source. The resources are always scanned in full.
+     *
+     * @param execution the MavenResourcesExecution to use
+     * @return the selected sources
+     */
+    private List<MergeSource> scanResources(MavenResourcesExecution execution) {
+        List<MergeSource> sources = new ArrayList<>();
+        if (execution.getResources() != null) {
+            for (Resource resource : execution.getResources()) {
+                File resourceDirectory = getResourceDirectory(execution, resource);
+                if (!resourceDirectory.exists()) {
+                    getLogger().debug("Skipping non-existing resourceDirectory: " + resourceDirectory.getPath());
+                    continue;
+                }
+                Scanner scanner = buildContext.newScanner(resourceDirectory, true);
+                for (String name : scan(resource, scanner, execution.isAddDefaultExcludes())) {
+                    sources.add(new MergeSource(new File(resourceDirectory, name), false,
+                        MergeResource.getPrecedence(resource)));
+                }
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * Gets the directory of a resource.
+     *
+     * @param execution the MavenResourcesExecution to use
+     * @param resource the Resource
+     * @return the resource directory, resolved against the resources base directory if relative
+     */
+    private File getResourceDirectory(MavenResourcesExecution execution, Resource resource) {
+        File resourceDirectory = new File(resource.getDirectory());
+        if (!resourceDirectory.isAbsolute()) {
+            resourceDirectory = new File(execution.getResourcesBaseDirectory(), resourceDirectory.getPath());
+        }
+        return resourceDirectory;
+    }
+
+    /**
+     * Select the files of a resource. A plain DirectoryScanner performs a full scan, which is done using a
+     * ResourceMatcher compiled once for the patterns of the resource instead. Any other Scanner, such as an
+     * incremental Scanner of the BuildContext, is used as is.
+     *
+     * @param resource the Resource to process
+     * @param scanner the Scanner provided by the BuildContext
+     * @param addDefaultExcludes if true, add default excludes to the Scanner
+     * @return the relative paths of the selected files
+     */
+    private List<String> scan(Resource resource, Scanner scanner, boolean addDefaultExcludes) {
+        if (scanner.getClass() == DirectoryScanner.class) {
+            String[] excludes = toPatterns(resource.getExcludes(), EMPTY_STRING_ARRAY);
+            String[] allExcludes = Arrays.copyOf(excludes, excludes.length + DirectoryScanner.DEFAULTEXCLUDES.length);
+            System.arraycopy(DirectoryScanner.DEFAULTEXCLUDES, 0, allExcludes, excludes.length,
+                DirectoryScanner.DEFAULTEXCLUDES.length);
+            ResourceMatcher matcher =
+                ResourceMatcher.get(toPatterns(resource.getIncludes(), DEFAULT_INCLUDES), allExcludes);
+            if (matcher != null) {
+                return matcher.scan(scanner.getBasedir());
+            }
+        }
+        setupScanner(resource, scanner, addDefaultExcludes);
+        scanner.scan();
+        return Arrays.asList(scanner.getIncludedFiles());
     }
 
     /**
@@ -353,91 +1135,59 @@ public class MergeProperitesMavenResourcesFiltering extends AbstractLogEnabled
     }
 
     /**
-     * Write the Properties to the given file using apache Commons-Configuration to avoid timestamp header.
+     * Write the Properties sorted by key to the given file using apache Commons-Configuration to avoid timestamp
+     * header.
      *
      * @param properties the Properties to use
      * @param file the file to store Properties into
      * @throws MavenFilteringException indicating File IO Error
      */
     protected void storeProperties(Properties properties, File file) throws MavenFilteringException {
-        try (FileWriter f = new FileWriter(file)) {
-            TreeMap<String, Object> sortedByKeyMap = new TreeMap<>();
-            properties.entrySet().forEach(e -> sortedByKeyMap.put((String) e.getKey(), e.getValue()));
-            final Configuration configuration = new MapConfiguration(sortedByKeyMap);
-            PropertiesConfiguration p = new PropertiesConfiguration();
-            PropertiesConfigurationLayout layout = new PropertiesConfigurationLayout();
-            layout.setGlobalSeparator("=");
-            p.setLayout(layout);
-            p.copy(configuration);
-            p.write(f);
-        } catch (ConfigurationException | IOException e) {
-            throw new MavenFilteringException(e.getMessage(), e);
-        }
+        String[] keys = properties.keySet().toArray(EMPTY_STRING_ARRAY);
+        Arrays.parallelSort(keys);
+        storeProperties(properties, Arrays.asList(keys), file);
     }
 
     /**
-     * Merge the source as a Properties file into outputProperties.
+     * Write the Properties in the given key order to the given file using apache Commons-Configuration to avoid
+     * timestamp header.
      *
-     * @param properties the Properties to merge into
-     * @param source the source file to read Properties from
-     * @param filtering true if the filterWrappers should be applied
-     * @param filterWrappers the FilterWrappers to use
-     * @param encoding the encoding to use when filtering
-     * @param overwrite true if existing properties should be overwritten. If false, duplicate properties is a build
-     * error
-     * @throws MavenFilteringException indicating failure
+     * @param properties the Properties to use
+     * @param keys the keys to write in output order
+     * @param file the file to store Properties into
+     * @throws MavenFilteringException indicating File IO Error
      */
-    private void mergeProperties(Properties properties, File source, boolean filtering,
-        List<FilterWrapper> filterWrappers, String encoding, boolean overwrite) throws MavenFilteringException {
-
-        Properties p = getFilteredProperties(source, filtering, filterWrappers, encoding);
-        for (Entry<Object, Object> entry : p.entrySet()) {
-            String key = (String) entry.getKey();
-            String value = (String) entry.getValue();
-            String existing = properties.getProperty(key);
-            if (existing != null) {
-                if (overwrite) {
-                    properties.setProperty(key, value);
-                    getLogger().info("Overwriting existing Property '" + key + "' (existing value is '" + existing
-                        + "', new value is '" + value + "') while merging source: " + source);
-                } else {
-                    throw new MavenFilteringException("Property '" + key + "' already exists (existing value is '"
-                        + existing + "', new value is '" + value + "') while merging source: " + source);
-                }
+    private void storeProperties(Properties properties, List<String> keys, File file)
+        throws MavenFilteringException {
+        PropertiesMergeEngine engine = new PropertiesMergeEngine();
+        engine.setOutputCompression(outputCompression);
+        OutputDigest digest = outputDigest ? new OutputDigest() : null;
+        try {
+            engine.write(properties, keys, file, digest);
+            if (digest != null) {
+                digest.write(OutputDigest.getSidecarFile(file));
             }
-            properties.setProperty(key, value);
+        } catch (IOException e) {
+            throw new MavenFilteringException(e.getMessage(), e);
         }
     }
 
     /**
-     * Load and filter properties.
+     * Store the Properties as shards described by a manifest that is written to the given file.
      *
-     * @param source the source file to read Properties from
-     * @param filtering true if the filterWrappers should be applied
-     * @param filterWrappers the FilterWrappers to use
-     * @param encoding the encoding to use when filtering
-     * @return filtered Properties
-     * @throws MavenFilteringException indicating failure
+     * @param properties the Properties to use
+     * @param file the manifest file
+     * @throws MavenFilteringException indicating File IO Error
      */
-    private Properties getFilteredProperties(File source, boolean filtering, List<FilterWrapper> filterWrappers,
-        String encoding) throws MavenFilteringException {
-
-        Properties p = new Properties();
-        Reader r = null;
-        try (InputStream is = new FileInputStream(source)) {
-            r = new InputStreamReader(is, encoding);
-            if (filtering) {
-                for (FilterWrapper fw : filterWrappers) {
-                    r = fw.getReader(r);
-                }
-            }
-            p.load(r);
+    private void storeShards(Properties properties, File file) throws MavenFilteringException {
+        ShardedPropertiesStore store = new ShardedPropertiesStore(shards, shardStrategy);
+        try {
+            store.store(properties, file);
         } catch (IOException e) {
             throw new MavenFilteringException(e.getMessage(), e);
-        } finally {
-            IOUtil.close(r);
         }
-        return p;
+        getLogger().info("Stored " + properties.size() + " properties in " + shards + " shards, "
+            + store.getWrittenShards() + " of them changed");
     }
 
     /**
@@ -478,6 +1228,327 @@ public class MergeProperitesMavenResourcesFiltering extends AbstractLogEnabled
         return overwriteProperties;
     }
 
+    /**
+     * Gets the workDirectory property value.
+     *
+     * @return the current value of the workDirectory property
+     */
+    public File getWorkDirectory() {
+        return workDirectory;
+    }
+
+    /**
+     * Sets the directory used to keep state between builds, such as the snapshot used to skip an up to date merge.
+     * <p>
+     * Default value is null, which disables the up to date snapshot.
+     *
+     * @param workDirectory the new property value
+     */
+    public void setWorkDirectory(File workDirectory) {
+        this.workDirectory = workDirectory;
+    }
+
+    /**
+     * Determine if the sources are sorted by key and should be merged by streaming them into the output file.
+     * <p>
+     * Default value is false. A source that turns out not to be sorted reverts the merge to the in-memory merge.
+     *
+     * @param sortedSources true if the sources are sorted by key
+     */
+    public void setSortedSources(boolean sortedSources) {
+        this.sortedSources = sortedSources;
+    }
+
+    /**
+     * Gets the sortedSources property value.
+     *
+     * @return the current value of the sortedSources property
+     */
+    public boolean isSortedSources() {
+        return sortedSources;
+    }
+
+    /**
+     * Gets the outputOrder property value.
+     *
+     * @return the current value of the outputOrder property
+     */
+    public OutputOrder getOutputOrder() {
+        return outputOrder;
+    }
+
+    /**
+     * Sets the order of the properties in the outputFile. Shards are always sorted by key.
+     * <p>
+     * Default value is {@link OutputOrder#SORTED}.
+     *
+     * @param outputOrder the new property value
+     */
+    public void setOutputOrder(OutputOrder outputOrder) {
+        this.outputOrder = outputOrder;
+    }
+
+    /**
+     * Gets the mergedPropertiesFilters property value.
+     *
+     * @return the current value of the mergedPropertiesFilters property
+     */
+    public List<MergedPropertiesFilter> getMergedPropertiesFilters() {
+        return mergedPropertiesFilters;
+    }
+
+    /**
+     * Sets the MergedPropertiesFilters that are applied in order to the merged properties before they are written.
+     *
+     * @param mergedPropertiesFilters the new property value
+     */
+    public void setMergedPropertiesFilters(List<MergedPropertiesFilter> mergedPropertiesFilters) {
+        this.mergedPropertiesFilters = mergedPropertiesFilters;
+    }
+
+    /**
+     * Gets the resolvePlaceholders property value.
+     *
+     * @return the current value of the resolvePlaceholders property
+     */
+    public boolean isResolvePlaceholders() {
+        return resolvePlaceholders;
+    }
+
+    /**
+     * Determine if <code>${key}</code> placeholders that reference other merged properties should be resolved after
+     * the merge.
+     * <p>
+     * Default value is false.
+     *
+     * @param resolvePlaceholders true if placeholders should be resolved
+     */
+    public void setResolvePlaceholders(boolean resolvePlaceholders) {
+        this.resolvePlaceholders = resolvePlaceholders;
+    }
+
+    /**
+     * Gets the concurrentMerge property value.
+     *
+     * @return the current value of the concurrentMerge property
+     */
+    public boolean isConcurrentMerge() {
+        return concurrentMerge;
+    }
+
+    /**
+     * Determine if the sources should be merged concurrently into a shared key table. The merged properties are the
+     * same as for a serial merge.
+     * <p>
+     * Default value is false.
+     *
+     * @param concurrentMerge true if the sources should be merged concurrently
+     */
+    public void setConcurrentMerge(boolean concurrentMerge) {
+        this.concurrentMerge = concurrentMerge;
+    }
+
+    /**
+     * Gets the outputCompression property value.
+     *
+     * @return the current value of the outputCompression property
+     */
+    public Compression getOutputCompression() {
+        return outputCompression;
+    }
+
+    /**
+     * Sets the Compression of the outputFile, that is compressed while it is written. Shards are never compressed.
+     * <p>
+     * Default value is NONE.
+     *
+     * @param outputCompression the new property value
+     */
+    public void setOutputCompression(Compression outputCompression) {
+        this.outputCompression = outputCompression == null ? Compression.NONE : outputCompression;
+    }
+
+    /**
+     * Gets the outputDigest property value.
+     *
+     * @return the current value of the outputDigest property
+     */
+    public boolean isOutputDigest() {
+        return outputDigest;
+    }
+
+    /**
+     * Determine if a sidecar file with the digest, the key count and the digest of every namespace of the outputFile
+     * should be written next to it. The digests are computed while the outputFile is written. Shards have no sidecar
+     * file.
+     * <p>
+     * Default value is false.
+     *
+     * @param outputDigest true if the sidecar file should be written
+     */
+    public void setOutputDigest(boolean outputDigest) {
+        this.outputDigest = outputDigest;
+    }
+
+    /**
+     * Gets the mergeStrategy property value.
+     *
+     * @return the current value of the mergeStrategy property
+     */
+    public MergeStrategy getMergeStrategy() {
+        return mergeStrategy;
+    }
+
+    /**
+     * Sets the strategy used to load and merge the sources. The strategy does not affect the merged properties.
+     * <p>
+     * Default value is AUTO.
+     *
+     * @param mergeStrategy the new property value
+     */
+    public void setMergeStrategy(MergeStrategy mergeStrategy) {
+        this.mergeStrategy = mergeStrategy;
+    }
+
+    /**
+     * Gets the keyFilter property value.
+     *
+     * @return the current value of the keyFilter property
+     */
+    public KeyFilter getKeyFilter() {
+        return keyFilter;
+    }
+
+    /**
+     * Sets the KeyFilter that selects the keys to merge. Keys that are not selected are dropped while the resources
+     * are parsed.
+     *
+     * @param keyFilter the new property value or null to merge every key
+     */
+    public void setKeyFilter(KeyFilter keyFilter) {
+        this.keyFilter = keyFilter;
+    }
+
+    /**
+     * Gets the shards property value.
+     *
+     * @return the current value of the shards property
+     */
+    public int getShards() {
+        return shards;
+    }
+
+    /**
+     * Sets the number of shard files to partition the merged properties into. The outputFile is then written as a
+     * manifest that describes the shards.
+     * <p>
+     * Default value is 0, which stores all properties in the outputFile.
+     *
+     * @param shards the new property value
+     */
+    public void setShards(int shards) {
+        this.shards = shards;
+    }
+
+    /**
+     * Gets the shardStrategy property value.
+     *
+     * @return the current value of the shardStrategy property
+     */
+    public ShardStrategy getShardStrategy() {
+        return shardStrategy;
+    }
+
+    /**
+     * Sets the strategy used to partition the merged properties into shards.
+     * <p>
+     * Default value is {@link ShardStrategy#HASH}.
+     *
+     * @param shardStrategy the new property value
+     */
+    public void setShardStrategy(ShardStrategy shardStrategy) {
+        this.shardStrategy = shardStrategy;
+    }
+
+    /**
+     * Gets the dependencyResources property value.
+     *
+     * @return the current value of the dependencyResources property
+     */
+    public List<DependencyResource> getDependencyResources() {
+        return dependencyResources;
+    }
+
+    /**
+     * Sets the resolved dependency resources to merge before the resources of the MavenResourcesExecution, so that a
+     * project resource can overwrite a property from a dependency.
+     * <p>
+     * Default value is null, which merges no dependency resources.
+     *
+     * @param dependencyResources the new property value
+     */
+    public void setDependencyResources(List<DependencyResource> dependencyResources) {
+        this.dependencyResources = dependencyResources;
+    }
+
+    /**
+     * Gets the daemonCache property value.
+     *
+     * @return the current value of the daemonCache property
+     */
+    public DaemonCache getDaemonCache() {
+        return daemonCache;
+    }
+
+    /**
+     * Sets the DaemonCache that keeps unfiltered sources and merged results between builds. A merged result is only
+     * reused when the configuration and the stat of every input are unchanged and no source is filtered.
+     *
+     * @param daemonCache the new property value or null to disable the cache
+     */
+    public void setDaemonCache(DaemonCache daemonCache) {
+        this.daemonCache = daemonCache;
+    }
+
+    /**
+     * Gets the buildCacheDirectory property value.
+     *
+     * @return the current value of the buildCacheDirectory property
+     */
+    public File getBuildCacheDirectory() {
+        return buildCacheDirectory;
+    }
+
+    /**
+     * Sets the directory where the outputs of every merge are cached by the content fingerprint of its inputs, so that
+     * a merge with the same inputs restores the outputs instead of merging.
+     *
+     * @param buildCacheDirectory the new property value or null to disable the build cache
+     */
+    public void setBuildCacheDirectory(File buildCacheDirectory) {
+        this.buildCacheDirectory = buildCacheDirectory;
+    }
+
+    /**
+     * Sets the SourceCache used to share unfiltered sources between several merges.
+     * <p>
+     * Default value is null, which loads every source for each merge.
+     *
+     * @param sourceCache the new property value
+     */
+    public void setSourceCache(SourceCache sourceCache) {
+        this.sourceCache = sourceCache;
+    }
+
+    /**
+     * Sets the MergeListener that receives every merged property.
+     *
+     * @param mergeListener the new property value
+     */
+    public void setMergeListener(MergeListener mergeListener) {
+        this.mergeListener = mergeListener;
+    }
+
     /**
      * Sets the buildContext property.
      *
@@ -45,6 +45,7 @@ import java.util.Map;
 import java.util.Properties;
 
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Dependency;
 import org.apache.maven.model.Resource;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -58,6 +59,12 @@ import org.apache.maven.shared.filtering.MavenResourcesExecution;
 import org.apache.maven.shared.filtering.MavenResourcesFiltering;
 import org.codehaus.plexus.util.ReaderFactory;
 import org.codehaus.plexus.util.StringUtils;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
 
 /**
  * Merges a set of properties files into an output file.
@@ -83,12 +90,36 @@ public class MergePropertiesMojo extends AbstractMojo {
     @Component(role = MavenResourcesFiltering.class, hint = "merge")
     private MergeProperitesMavenResourcesFiltering mavenResourcesFiltering;
 
+    /**
+     * The RepositorySystem used to resolve dependency resources.
+     */
+    @Component
+    private RepositorySystem repositorySystem;
+
+    /**
+     * The repository session used to resolve dependency resources.
+     */
+    @Parameter(defaultValue = "${repositorySystemSession}", readonly = true)
+    private RepositorySystemSession repositorySession;
+
+    /**
+     * The remote repositories used to resolve dependency resources.
+     */
+    @Parameter(defaultValue = "${project.remoteProjectRepositories}", readonly = true)
+    private List<RemoteRepository> remoteRepositories;
+
     /**
      * The user filter components to use.
      */
     @Component(role = MavenResourcesFiltering.class)
     private Map<String, MavenResourcesFiltering> mavenResourcesFilteringMap;
 
+    /**
+     * The merged properties filter components to use.
+     */
+    @Component(role = MergedPropertiesFilter.class)
+    private Map<String, MergedPropertiesFilter> mergedPropertiesFilterMap;
+
     /**
      * The output directory into which to create the outputFile.
      */
@@ -104,11 +135,41 @@ public class MergePropertiesMojo extends AbstractMojo {
     /**
      * The list of resources to merge. Please see the <a href="http://maven.apache.org/pom.html#Resources">POM
      * Reference</a> for a description of how to specify the resources element. Note that the
-     * <code>&lt;targetPath&gt;</code> element is always ignored and the default <code>&lt;include&gt;</code> pattern is
-     * <code>**&#47;*.properties</code>.
+     * <code>&lt;targetPath&gt;</code> element is always ignored and the default <code>&lt;include&gt;</code> patterns
+     * are <code>**&#47;*.properties</code>, <code>**&#47;*.properties.gz</code> and
+     * <code>**&#47;*.properties.deflate</code>.
+     * <p>
+     * Each resource may also specify a <code>&lt;precedence&gt;</code>, 0 by default. A property from a resource with a
+     * higher precedence always replaces the same property from a resource with a lower precedence, regardless of the
+     * order of the resources and of overwriteProperties, so that layered overrides such as base, region and
+     * environment are merged in a single execution.
      */
     @Parameter(required = true)
-    private List<Resource> resources;
+    private List<MergeResource> resources;
+
+    /**
+     * The list of dependency resources to merge. Each dependency resource selects entries in a JAR dependency of the
+     * project by groupId, artifactId and an optional classifier, together with includes and excludes patterns that are
+     * matched against the entry names. The entries are read directly from the JAR without extracting it and are merged
+     * before the resources, so that a project resource can overwrite a property from a dependency when
+     * overwriteProperties is set.
+     *
+     * <pre>
+     * &lt;dependencyResources&gt;
+     *   &lt;dependencyResource&gt;
+     *     &lt;groupId&gt;com.example&lt;/groupId&gt;
+     *     &lt;artifactId&gt;defaults&lt;/artifactId&gt;
+     *     &lt;includes&gt;
+     *       &lt;include&gt;config/*.properties&lt;/include&gt;
+     *     &lt;/includes&gt;
+     *   &lt;/dependencyResource&gt;
+     * &lt;/dependencyResources&gt;
+     * </pre>
+     *
+     * @since 1.3
+     */
+    @Parameter
+    private List<DependencyResource> dependencyResources;
 
     /**
      * The character encoding scheme to use. Note that Java Properties files are always encoded in ISO-8859-1.
@@ -197,16 +258,22 @@ public class MergePropertiesMojo extends AbstractMojo {
      * <p>
      * List of plexus components hints which implements {@link MavenResourcesFiltering}.
      * <p>
-     * They will be executed after the resources copying/filtering.
+     * They will be executed once after the resources copying/filtering, with the same resources as the merge. Prefer
+     * mergedPropertiesFilterHints to avoid reading every resource again.
      * </p>
      */
     @Parameter
     private List<String> mavenFilteringHints;
 
     /**
-     * The list of user filtering components to use.
+     * List of plexus component hints of components that implement {@link MergedPropertiesFilter}. Each component
+     * receives the merged properties exactly once, in the given order, after the merge and before the output file is
+     * written.
+     *
+     * @since 1.3
      */
-    private final List<MavenResourcesFiltering> mavenFilteringComponents = new ArrayList<MavenResourcesFiltering>();
+    @Parameter
+    private List<String> mergedPropertiesFilterHints;
 
     /**
      * Stop searching endToken at the end of line.
@@ -222,18 +289,200 @@ public class MergePropertiesMojo extends AbstractMojo {
     @Parameter(property = "merge.properties.skip", defaultValue = "false")
     private boolean skip;
 
+    /**
+     * Set to true if every source is sorted by key. Sorted sources are merged by streaming them directly into the
+     * outputFile instead of loading all properties into memory. If a source turns out not to be sorted the merge
+     * reverts to the in-memory merge.
+     *
+     * @since 1.3
+     */
+    @Parameter(property = "merge.properties.sortedSources", defaultValue = "false")
+    private boolean sortedSources;
+
+    /**
+     * The directory where state is kept between builds. A snapshot of all inputs is stored here after each merge so
+     * that a later build with unchanged inputs can skip the merge without scanning or reading any resource.
+     *
+     * @since 1.3
+     */
+    @Parameter(property = "merge.properties.workDirectory",
+        defaultValue = "${project.build.directory}/merge-properties")
+    private File workDirectory;
+
+    /**
+     * The order of the properties in the outputFile, either <code>SORTED</code> by key, <code>SOURCE</code> for the
+     * order in which each key is first merged, or <code>GROUPED</code> to group the keys by the source that supplied
+     * the merged value, in source merge order and sorted by key within each group.
+     *
+     * @since 1.3
+     */
+    @Parameter(property = "merge.properties.outputOrder", defaultValue = "SORTED")
+    private OutputOrder outputOrder;
+
+    /**
+     * Resolve <code>${key}</code> placeholders in the merged values that reference other merged properties, such as
+     * <code>db.url=${db.host}:${db.port}</code>. The placeholders are resolved after all resources are merged, so a
+     * value may reference a property from any resource. A placeholder cycle fails the build and placeholders that do
+     * not reference a merged property are left unchanged.
+     *
+     * @since 1.3
+     */
+    @Parameter(property = "merge.properties.resolvePlaceholders", defaultValue = "false")
+    private boolean resolvePlaceholders;
+
+    /**
+     * Merge the resources concurrently. Every resource is loaded and inserted into a shared key table by a worker
+     * thread and only keys that are defined by more than one resource are arbitrated afterwards in resource order,
+     * so the merged properties, the log messages and any duplicate key error are the same as for a serial merge.
+     *
+     * @since 1.3
+     */
+    @Parameter(property = "merge.properties.concurrentMerge", defaultValue = "false")
+    private boolean concurrentMerge;
+
+    /**
+     * The strategy used to load and merge the resources, either <code>SERIAL</code>, <code>PARALLEL</code> to load
+     * the unfiltered resources in parallel, <code>STREAMED</code> to stream resources that are sorted by key directly
+     * to the outputFile, or <code>AUTO</code> to choose a strategy from the statistics of the previous merge that are
+     * kept in the workDirectory. Small merges are performed serially and merges that would need a large part of the
+     * heap are streamed if possible. The chosen strategy is logged and does not affect the merged properties.
+     *
+     * @since 1.3
+     */
+    @Parameter(property = "merge.properties.mergeStrategy", defaultValue = "AUTO")
+    private MergeStrategy mergeStrategy;
+
+    /**
+     * The compression of the outputFile, either <code>NONE</code>, <code>GZIP</code> or <code>DEFLATE</code>. The
+     * outputFile is compressed while it is written, so the uncompressed output is never stored. Shards are never
+     * compressed. Resources with the extension <code>.gz</code> or <code>.deflate</code> are always decompressed while
+     * they are read.
+     *
+     * @since 1.3
+     */
+    @Parameter(property = "merge.properties.outputCompression", defaultValue = "NONE")
+    private Compression outputCompression;
+
+    /**
+     * Write a sidecar file, named as the outputFile with the extension <code>.digest</code> appended, with the
+     * SHA-256 digest of the outputFile, the number of keys and a digest of every key namespace, i.e. the part of the
+     * keys before the first '.'. The digests are computed while the outputFile is written, so a consumer can detect a
+     * changed output, or a changed namespace, by reading the sidecar file only. Shards have no sidecar file.
+     *
+     * @since 1.3
+     */
+    @Parameter(property = "merge.properties.outputDigest", defaultValue = "false")
+    private boolean outputDigest;
+
+    /**
+     * Patterns of the keys to merge. A pattern that contains <code>*</code> or <code>?</code> is a glob that must
+     * match the complete key, any other pattern is a key prefix such as <code>app.</code>. Every key is merged if no
+     * pattern is given. Keys that are not selected are dropped while the resources are parsed, so they are never
+     * checked for duplicates or written to the output.
+     *
+     * @since 1.3
+     */
+    @Parameter(property = "merge.properties.keyIncludes")
+    private List<String> keyIncludes;
+
+    /**
+     * Patterns of the keys to drop, in the same format as keyIncludes. A key that matches both an include and an
+     * exclude pattern is dropped.
+     *
+     * @since 1.3
+     */
+    @Parameter(property = "merge.properties.keyExcludes")
+    private List<String> keyExcludes;
+
+    /**
+     * The maximum size in megabytes of a cache that keeps parsed resources and merged results in memory between
+     * builds in a long running build daemon such as the Maven Daemon. A merged result is reused, without loading any
+     * resource, when the configuration and every resource file are unchanged and no resource is filtered. The least
+     * recently used entries are evicted when the cache is full. Zero disables the cache.
+     *
+     * @since 1.3
+     */
+    @Parameter(property = "merge.properties.daemonCacheSize", defaultValue = "0")
+    private int daemonCacheSize;
+
+    /**
+     * The directory where the outputs of every merge are cached by a fingerprint of the content of its inputs, i.e.
+     * the configuration and every resource. A merge whose inputs match a cached entry restores the cached outputs
+     * instead of merging, even in a fresh checkout. Each entry declares its fingerprint, inputs and outputs in an
+     * <code>entry.properties</code> file. A merge with a filtered resource is never cached. The build cache is
+     * disabled if not set.
+     *
+     * @since 1.3
+     */
+    @Parameter(property = "merge.properties.buildCacheDirectory")
+    private File buildCacheDirectory;
+
+    /**
+     * The number of shard files to partition the merged properties into. If greater than zero, the outputFile is
+     * written as a manifest in properties format that lists every shard file together with its key count and SHA-256
+     * content digest. The shard files are named after the outputFile with the shard index appended to the base name.
+     * Only shards whose content changed are rewritten.
+     *
+     * @since 1.3
+     */
+    @Parameter(property = "merge.properties.shards", defaultValue = "0")
+    private int shards;
+
+    /**
+     * The strategy used to partition the merged properties into shards, either <code>HASH</code> to spread the keys
+     * evenly or <code>PREFIX</code> to store every key namespace, i.e. the part of the key before the first '.', in a
+     * single shard.
+     *
+     * @since 1.3
+     */
+    @Parameter(property = "merge.properties.shardStrategy", defaultValue = "HASH")
+    private ShardStrategy shardStrategy;
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void execute() throws MojoExecutionException {
+        execute(null, null);
+    }
+
+    /**
+     * Perform the merge, sharing loaded sources with other merges.
+     *
+     * @param sourceCache the SourceCache shared with other merges or null
+     * @param mergeListener the MergeListener that receives every merged property or null
+     * @throws MojoExecutionException indicating merge failure
+     */
+    void execute(SourceCache sourceCache, MergeListener mergeListener) throws MojoExecutionException {
         if (isSkip()) {
             getLog().info("Skipping the execution.");
             return;
         }
 
-        mavenResourcesFiltering.setOutputFile(outputFile);
-        mavenResourcesFiltering.setOverwriteProperties(overwriteProperties);
+        // The filtering component is a singleton, so configure a private instance for this execution
+        MergeProperitesMavenResourcesFiltering filtering = mavenResourcesFiltering.newInstance();
+        filtering.setOutputFile(outputFile);
+        filtering.setOverwriteProperties(overwriteProperties);
+        filtering.setWorkDirectory(workDirectory);
+        filtering.setSortedSources(sortedSources);
+        filtering.setOutputOrder(outputOrder);
+        filtering.setResolvePlaceholders(resolvePlaceholders);
+        filtering.setConcurrentMerge(concurrentMerge);
+        filtering.setMergeStrategy(mergeStrategy);
+        filtering.setOutputCompression(outputCompression);
+        filtering.setOutputDigest(outputDigest);
+        filtering.setKeyFilter(KeyFilter.create(keyIncludes, keyExcludes));
+        filtering
+            .setDaemonCache(daemonCacheSize > 0 ? DaemonCache.getInstance(daemonCacheSize * 1024L * 1024L) : null);
+        filtering.setBuildCacheDirectory(buildCacheDirectory);
+        filtering.setShards(shards);
+        filtering.setShardStrategy(shardStrategy);
+        filtering.setSourceCache(sourceCache);
+        filtering.setMergeListener(mergeListener);
+        filtering.setMergedPropertiesFilters(
+            lookupComponents(mergedPropertiesFilterHints, mergedPropertiesFilterMap, "Merged properties filter"));
+        List<MavenResourcesFiltering> userFilterComponents =
+            lookupComponents(mavenFilteringHints, mavenResourcesFilteringMap, "User filter");
 
         try {
 
@@ -244,7 +493,9 @@ public class MergePropertiesMojo extends AbstractMojo {
 
             List<String> combinedFilters = getCombinedFiltersList();
 
-            MavenResourcesExecution mavenResourcesExecution = new MavenResourcesExecution(getResources(),
+            List<Resource> mergeResources = resolveDependencyResources(filtering);
+
+            MavenResourcesExecution mavenResourcesExecution = new MavenResourcesExecution(mergeResources,
                 getOutputDirectory(), project, encoding, combinedFilters, Collections.<String> emptyList(), session);
 
             mavenResourcesExecution.setEscapeWindowsPaths(escapeWindowsPaths);
@@ -260,20 +511,102 @@ public class MergePropertiesMojo extends AbstractMojo {
             mavenResourcesExecution.setSupportMultiLineFiltering(supportMultiLineFiltering);
 
             // Handle subject of MRESOURCES-99
-            Properties additionalProperties = addSeveralSpecialProperties();
+            Properties additionalProperties = addSeveralSpecialProperties(session, project);
             mavenResourcesExecution.setAdditionalProperties(additionalProperties);
 
             // if these are NOT set, just use the defaults, which are '${*}' and '@'.
             mavenResourcesExecution.setDelimiters(delimiters, useDefaultDelimiters);
 
-            mavenResourcesFiltering.filterResources(mavenResourcesExecution);
+            filtering.filterResources(mavenResourcesExecution);
 
-            executeUserFilterComponents(mavenResourcesExecution);
+            executeUserFilterComponents(userFilterComponents, mavenResourcesExecution);
         } catch (MavenFilteringException e) {
             throw new MojoExecutionException(e.getMessage(), e);
         }
     }
 
+    /**
+     * Resolve the JAR file of every dependency resource and configure the filtering component with them. A dependency
+     * that resolves to a directory, as for a module in the reactor that is not yet packaged, is merged as a resource
+     * directory instead.
+     *
+     * @param filtering the MergeProperitesMavenResourcesFiltering to configure
+     * @return the resources to merge
+     * @throws MojoExecutionException indicating that a dependency resource cannot be resolved
+     */
+    private List<Resource> resolveDependencyResources(MergeProperitesMavenResourcesFiltering filtering)
+        throws MojoExecutionException {
+        if (dependencyResources == null || dependencyResources.isEmpty()) {
+            filtering.setDependencyResources(null);
+            return getResources();
+        }
+
+        List<DependencyResource> jarResources = new ArrayList<>();
+        List<Resource> directoryResources = new ArrayList<>();
+        for (DependencyResource resource : dependencyResources) {
+            File file = resolveDependencyFile(resource);
+            getLog().debug("Resolved dependency resource " + resource + " to " + file);
+            if (file.isDirectory()) {
+                Resource r = new Resource();
+                r.setDirectory(file.getAbsolutePath());
+                r.setFiltering(resource.isFiltering());
+                r.setIncludes(resource.getIncludes());
+                r.setExcludes(resource.getExcludes());
+                directoryResources.add(r);
+            } else {
+                resource.setFile(file);
+                jarResources.add(resource);
+            }
+        }
+        filtering.setDependencyResources(jarResources);
+
+        if (directoryResources.isEmpty()) {
+            return getResources();
+        }
+        List<Resource> result = new ArrayList<>(directoryResources);
+        if (getResources() != null) {
+            result.addAll(getResources());
+        }
+        return result;
+    }
+
+    /**
+     * Resolve the file of a dependency resource using the version of the matching project dependency.
+     *
+     * @param resource the DependencyResource to resolve
+     * @return the resolved file
+     * @throws MojoExecutionException indicating that the dependency resource cannot be resolved
+     */
+    private File resolveDependencyFile(DependencyResource resource) throws MojoExecutionException {
+        Dependency dependency = null;
+        for (Dependency d : project.getDependencies()) {
+            if (d.getGroupId().equals(resource.getGroupId()) && d.getArtifactId().equals(resource.getArtifactId())
+                && StringUtils.equals(StringUtils.defaultString(d.getClassifier()),
+                    StringUtils.defaultString(resource.getClassifier()))) {
+                dependency = d;
+                break;
+            }
+        }
+        if (dependency == null) {
+            throw new MojoExecutionException(
+                "Dependency resource " + resource + " is not a dependency of project " + project.getId());
+        }
+        if (dependency.getSystemPath() != null) {
+            return new File(dependency.getSystemPath());
+        }
+
+        DefaultArtifact artifact = new DefaultArtifact(dependency.getGroupId(), dependency.getArtifactId(),
+            dependency.getClassifier(), "jar", dependency.getVersion());
+        try {
+            return repositorySystem
+                .resolveArtifact(repositorySession, new ArtifactRequest(artifact, remoteRepositories, null))
+                .getArtifact().getFile();
+        } catch (ArtifactResolutionException e) {
+            throw new MojoExecutionException("Unable to resolve dependency resource " + resource + ": "
+                + e.getMessage(), e);
+        }
+    }
+
     /**
      * This solves https://issues.apache.org/jira/browse/MRESOURCES-99.<br/>
      * BUT:<br/>
@@ -285,12 +618,17 @@ public class MergePropertiesMojo extends AbstractMojo {
      * handles usage of properties and replacements in the model, but does not the resource filtering which needed some
      * of the properties.
      *
+     * <p>
+     * The session constant properties are only computed once per session, see {@link SessionProperties}.
+     *
+     * @param session the MavenSession to use
+     * @param project the MavenProject to create the properties for
      * @return the new instance with those properties.
      */
-    private Properties addSeveralSpecialProperties() {
-        String timeStamp = new MavenBuildTimestamp().formattedTimestamp();
-        Properties additionalProperties = new Properties();
-        additionalProperties.put("maven.build.timestamp", timeStamp);
+    static Properties addSeveralSpecialProperties(MavenSession session, MavenProject project) {
+        String timestampFormat =
+            project.getProperties().getProperty(MavenBuildTimestamp.BUILD_TIMESTAMP_FORMAT_PROPERTY);
+        Properties additionalProperties = SessionProperties.get(session, timestampFormat).toProperties();
         if (project.getBasedir() != null) {
             additionalProperties.put("project.baseUri", project.getBasedir().getAbsoluteFile().toURI().toString());
         }
@@ -299,36 +637,50 @@ public class MergePropertiesMojo extends AbstractMojo {
     }
 
     /**
-     * Execute any user filters.
+     * Lookup the components with the given hints.
+     *
+     * @param <T> the component type
+     * @param hints the component hints, possibly null
+     * @param components the discovered components by hint
+     * @param description the description of the component type used in messages
+     * @return the components in hint order or null if there are no hints
+     * @throws MojoExecutionException indicating that a component is not present
+     */
+    static <T> List<T> lookupComponents(List<String> hints, Map<String, T> components, String description)
+        throws MojoExecutionException {
+        if (hints == null || hints.isEmpty()) {
+            return null;
+        }
+        List<T> result = new ArrayList<>(hints.size());
+        for (String hint : hints) {
+            T component = components == null ? null : components.get(hint);
+            if (component == null) {
+                throw new MojoExecutionException(description + " with hint `" + hint
+                    + "` requested, but not present. Discovered filters are: "
+                    + (components == null ? Collections.emptySet() : components.keySet()));
+            }
+            result.add(component);
+        }
+        return result;
+    }
+
+    /**
+     * Execute any user filters exactly once.
      *
+     * @param userFilterComponents the user filter components or null
      * @param mavenResourcesExecution the MavenResourcesExecution to use
-     * @throws MojoExecutionException indicating build error
      * @throws MavenFilteringException indicating filtering problem
      */
-    private void executeUserFilterComponents(MavenResourcesExecution mavenResourcesExecution)
-        throws MojoExecutionException, MavenFilteringException {
-
-        if (mavenFilteringHints != null) {
-            for (String hint : mavenFilteringHints) {
-                MavenResourcesFiltering userFilterComponent = mavenResourcesFilteringMap.get(hint);
-                if (userFilterComponent != null) {
-                    getLog().debug("added user filter component with hint: " + hint);
-                    mavenFilteringComponents.add(userFilterComponent);
-                } else {
-                    throw new MojoExecutionException(
-                        "User filter with hint `" + hint + "` requested, but not present. Discovered filters are: "
-                            + mavenResourcesFilteringMap.keySet());
-                }
-            }
-        } else {
+    private void executeUserFilterComponents(List<MavenResourcesFiltering> userFilterComponents,
+        MavenResourcesExecution mavenResourcesExecution) throws MavenFilteringException {
+
+        if (userFilterComponents == null) {
             getLog().debug("no user filter components");
+            return;
         }
-
-        if (mavenFilteringComponents != null && !mavenFilteringComponents.isEmpty()) {
-            getLog().debug("execute user filters");
-            for (MavenResourcesFiltering filter : mavenFilteringComponents) {
-                filter.filterResources(mavenResourcesExecution);
-            }
+        getLog().debug("execute user filters");
+        for (MavenResourcesFiltering filter : userFilterComponents) {
+            filter.filterResources(mavenResourcesExecution);
         }
     }
 
@@ -376,7 +728,7 @@ public class MergePropertiesMojo extends AbstractMojo {
      * @return a list of Resources
      */
     public List<Resource> getResources() {
-        return resources;
+        return resources == null ? null : new ArrayList<Resource>(resources);
     }
 
     /**
@@ -406,6 +758,51 @@ public class MergePropertiesMojo extends AbstractMojo {
         this.mavenResourcesFiltering = mavenResourcesFiltering;
     }
 
+    /**
+     * Sets the repositorySystem property.
+     *
+     * @param repositorySystem the new property value
+     */
+    public void setRepositorySystem(RepositorySystem repositorySystem) {
+        this.repositorySystem = repositorySystem;
+    }
+
+    /**
+     * Sets the mavenResourcesFilteringMap property.
+     *
+     * @param mavenResourcesFilteringMap the new property value
+     */
+    public void setMavenResourcesFilteringMap(Map<String, MavenResourcesFiltering> mavenResourcesFilteringMap) {
+        this.mavenResourcesFilteringMap = mavenResourcesFilteringMap;
+    }
+
+    /**
+     * Sets the mavenFilteringHints property.
+     *
+     * @param mavenFilteringHints the new property value
+     */
+    public void setMavenFilteringHints(List<String> mavenFilteringHints) {
+        this.mavenFilteringHints = mavenFilteringHints;
+    }
+
+    /**
+     * Sets the mergedPropertiesFilterMap property.
+     *
+     * @param mergedPropertiesFilterMap the new property value
+     */
+    public void setMergedPropertiesFilterMap(Map<String, MergedPropertiesFilter> mergedPropertiesFilterMap) {
+        this.mergedPropertiesFilterMap = mergedPropertiesFilterMap;
+    }
+
+    /**
+     * Sets the mergedPropertiesFilterHints property.
+     *
+     * @param mergedPropertiesFilterHints the new property value
+     */
+    public void setMergedPropertiesFilterHints(List<String> mergedPropertiesFilterHints) {
+        this.mergedPropertiesFilterHints = mergedPropertiesFilterHints;
+    }
+
     /**
      * Sets the project property.
      *
@@ -424,6 +821,15 @@ public class MergePropertiesMojo extends AbstractMojo {
         this.overwriteProperties = overwriteProperties;
     }
 
+    /**
+     * Sets the dependencyResources property.
+     *
+     * @param dependencyResources the new property value
+     */
+    public void setDependencyResources(List<DependencyResource> dependencyResources) {
+        this.dependencyResources = dependencyResources;
+    }
+
     /**
      * Gets the skip property value.
      *
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import org.apache.maven.model.Resource;
+
+/**
+ * A Resource with a merge precedence.
+ * <p>
+ * A property merged from a resource with a higher precedence always replaces the same property from a resource with a
+ * lower precedence, regardless of the order of the resources and of overwriteProperties. A property from a resource
+ * with a lower precedence is ignored if the property already exists. Properties from resources with the same
+ * precedence are merged as usual.
+ *
+ * @since 1.3
+ */
+public class MergeResource extends Resource {
+
+    private static final long serialVersionUID = 1L;
+
+    private int precedence;
+
+    /**
+     * Gets the precedence of a Resource.
+     *
+     * @param resource the Resource
+     * @return the precedence of a MergeResource or 0 for any other Resource
+     */
+    static int getPrecedence(Resource resource) {
+        return resource instanceof MergeResource ? ((MergeResource) resource).getPrecedence() : 0;
+    }
+
+    /**
+     * Gets the precedence property value.
+     *
+     * @return the current value of the precedence property
+     */
+    public int getPrecedence() {
+        return precedence;
+    }
+
+    /**
+     * Sets the precedence property.
+     *
+     * @param precedence the new property value
+     */
+    public void setPrecedence(int precedence) {
+        this.precedence = precedence;
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A stat snapshot of every input and output of a merge, used to decide if a merge is up to date without opening or
+ * scanning any source file.
+ * <p>
+ * The snapshot records the modification time of every directory below each resource directory together with the
+ * modification time and length of every merged source, filter file and the output file. Adding, removing or renaming
+ * a file changes the modification time of its parent directory, so a snapshot where every recorded entry still
+ * matches describes exactly the same set of inputs as when it was taken.
+ */
+class MergeSnapshot {
+
+    private static final char DIRECTORY = 'D';
+
+    private static final char FILE = 'F';
+
+    private final String fingerprint;
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * A single recorded file system entry.
+     */
+    private static final class Entry {
+
+        private final char type;
+
+        private final long lastModified;
+
+        private final long length;
+
+        private final String path;
+
+        Entry(char type, long lastModified, long length, String path) {
+            this.type = type;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.path = path;
+        }
+
+        boolean sameAs(Entry other) {
+            return type == other.type && lastModified == other.lastModified && length == other.length
+                && path.equals(other.path);
+        }
+
+        boolean matches() {
+            File f = new File(path);
+            if (type == DIRECTORY) {
+                return f.lastModified() == lastModified;
+            }
+            return f.lastModified() == lastModified && f.length() == length;
+        }
+    }
+
+    /**
+     * Create an empty snapshot.
+     *
+     * @param fingerprint the configuration fingerprint this snapshot is valid for
+     */
+    MergeSnapshot(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Gets the fingerprint property value.
+     *
+     * @return the current value of the fingerprint property
+     */
+    String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Record a file. A missing file is recorded with a zero modification time so that creating it invalidates the
+     * snapshot.
+     *
+     * @param file the file to record
+     */
+    void addFile(File file) {
+        entries.add(new Entry(FILE, file.lastModified(), file.length(), file.getAbsolutePath()));
+    }
+
+    /**
+     * Record a directory and every directory below it.
+     *
+     * @param root the root directory to record
+     * @throws IOException indicating IO Error
+     */
+    void addDirectoryTree(File root) throws IOException {
+        if (!root.isDirectory()) {
+            entries.add(new Entry(DIRECTORY, root.lastModified(), 0L, root.getAbsolutePath()));
+            return;
+        }
+        Files.walkFileTree(root.toPath(), new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                entries.add(new Entry(DIRECTORY, attrs.lastModifiedTime().toMillis(), 0L,
+                    dir.toAbsolutePath().toString()));
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Determine if every recorded entry is unchanged.
+     *
+     * @param expectedFingerprint the fingerprint of the current configuration
+     * @return true if the snapshot is still valid
+     */
+    boolean isUpToDate(String expectedFingerprint) {
+        if (!fingerprint.equals(expectedFingerprint)) {
+            return false;
+        }
+        for (Entry entry : entries) {
+            if (!entry.matches()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Determine if the given snapshot has the same fingerprint and recorded exactly the same entries as this snapshot.
+     *
+     * @param other the snapshot to compare with
+     * @return true if both snapshots describe the same inputs
+     */
+    boolean isSameAs(MergeSnapshot other) {
+        if (!fingerprint.equals(other.fingerprint) || entries.size() != other.entries.size()) {
+            return false;
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            if (!entries.get(i).sameAs(other.entries.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Create a copy of this snapshot that is not affected by entries added to this snapshot later on.
+     *
+     * @return a new MergeSnapshot
+     */
+    MergeSnapshot copy() {
+        MergeSnapshot result = new MergeSnapshot(fingerprint);
+        result.entries.addAll(entries);
+        return result;
+    }
+
+    /**
+     * Gets the number of recorded entries.
+     *
+     * @return the number of entries
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Write this snapshot to the given file.
+     *
+     * @param file the file to write
+     * @throws IOException indicating IO Error
+     */
+    void write(File file) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create directory: " + parent);
+        }
+        try (BufferedWriter w = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            w.write(fingerprint);
+            w.newLine();
+            for (Entry entry : entries) {
+                w.write(entry.type);
+                w.write('\t');
+                w.write(Long.toString(entry.lastModified));
+                w.write('\t');
+                w.write(Long.toString(entry.length));
+                w.write('\t');
+                w.write(entry.path);
+                w.newLine();
+            }
+        }
+    }
+
+    /**
+     * Read a snapshot from the given file.
+     *
+     * @param file the file to read
+     * @return the snapshot or null if the file is missing or unreadable
+     */
+    static MergeSnapshot read(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (BufferedReader r = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line = r.readLine();
+            if (line == null) {
+                return null;
+            }
+            MergeSnapshot snapshot = new MergeSnapshot(line);
+            while ((line = r.readLine()) != null) {
+                String[] fields = line.split("\t", 4);
+                if (fields.length != 4 || fields[0].length() != 1) {
+                    return null;
+                }
+                snapshot.entries.add(new Entry(fields[0].charAt(0), Long.parseLong(fields[1]),
+                    Long.parseLong(fields[2]), fields[3]));
+            }
+            return snapshot;
+        } catch (IOException | UncheckedIOException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Create a hex encoded SHA-256 digest of the given configuration description.
+     *
+     * @param description the configuration description
+     * @return the fingerprint
+     */
+    static String fingerprint(String description) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return toHex(md.digest(description.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Hex encode a digest.
+     *
+     * @param digest the digest to encode
+     * @return the hex encoded digest
+     */
+    static String toHex(byte[] digest) {
+        StringBuilder sb = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+}
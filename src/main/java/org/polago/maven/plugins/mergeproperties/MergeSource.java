@@ -0,0 +1,224 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * A source file, an entry in a JAR file or any other stream of properties, selected for merging.
+ *
+ * @since 1.3
+ */
+public class MergeSource {
+
+    private final File file;
+
+    private final JarSource jar;
+
+    private final String entry;
+
+    private final StreamOpener opener;
+
+    private final boolean filtering;
+
+    private final int precedence;
+
+    /**
+     * Opens the content of a source that is not a file.
+     */
+    @FunctionalInterface
+    public interface StreamOpener {
+
+        /**
+         * Open the source content.
+         *
+         * @return an InputStream that is closed by the caller
+         * @throws IOException indicating IO Error
+         */
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * Create a MergeSource.
+     *
+     * @param file the source file
+     * @param filtering true if the source should be filtered
+     */
+    public MergeSource(File file, boolean filtering) {
+        this(file, filtering, 0);
+    }
+
+    /**
+     * Create a MergeSource with a precedence.
+     *
+     * @param file the source file
+     * @param filtering true if the source should be filtered
+     * @param precedence the precedence of the resource that selected the source
+     */
+    public MergeSource(File file, boolean filtering, int precedence) {
+        this.file = file;
+        this.jar = null;
+        this.entry = null;
+        this.opener = null;
+        this.filtering = filtering;
+        this.precedence = precedence;
+    }
+
+    /**
+     * Create a MergeSource with a precedence.
+     *
+     * @param path the source file
+     * @param filtering true if the source should be filtered
+     * @param precedence the precedence of the source
+     */
+    public MergeSource(Path path, boolean filtering, int precedence) {
+        this(path.toFile(), filtering, precedence);
+    }
+
+    /**
+     * Create a MergeSource that reads the source content from a stream. Such a source is never cached.
+     *
+     * @param name the name that identifies the source in messages
+     * @param opener the StreamOpener that opens the source content
+     * @param filtering true if the source should be filtered
+     * @param precedence the precedence of the source
+     */
+    public MergeSource(String name, StreamOpener opener, boolean filtering, int precedence) {
+        this.file = new File(name);
+        this.jar = null;
+        this.entry = null;
+        this.opener = opener;
+        this.filtering = filtering;
+        this.precedence = precedence;
+    }
+
+    /**
+     * Create a MergeSource for an entry in a JAR file.
+     *
+     * @param jar the JAR file
+     * @param entry the entry name
+     * @param filtering true if the source should be filtered
+     */
+    MergeSource(JarSource jar, String entry, boolean filtering) {
+        this.file = new File(jar.getFile().getPath() + "!/" + entry);
+        this.jar = jar;
+        this.entry = entry;
+        this.opener = null;
+        this.filtering = filtering;
+        this.precedence = 0;
+    }
+
+    /**
+     * Gets the file property value. For an entry in a JAR file this is a pseudo file in the form
+     * {@code <jar>!/<entry>} and for a stream it is a pseudo file with the name of the source, that identifies the
+     * source in messages.
+     *
+     * @return the current value of the file property
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the file that is checked for modifications, which is the JAR file for an entry in a JAR file.
+     *
+     * @return the file to stat or null for a stream
+     */
+    public File getStatFile() {
+        if (opener != null) {
+            return null;
+        }
+        return jar == null ? file : jar.getFile();
+    }
+
+    /**
+     * Gets the compression of the source content, as indicated by the file name extension.
+     *
+     * @return the Compression of the source
+     */
+    public Compression getCompression() {
+        return Compression.forName(file.getName());
+    }
+
+    /**
+     * Gets the length of the stored, possibly compressed, source content.
+     *
+     * @return the length or -1 if unknown
+     * @throws IOException indicating IO Error
+     */
+    public long getLength() throws IOException {
+        if (opener != null) {
+            return -1;
+        }
+        return jar == null ? file.length() : jar.getSize(entry);
+    }
+
+    /**
+     * Gets the filtering property value.
+     *
+     * @return the current value of the filtering property
+     */
+    public boolean isFiltering() {
+        return filtering;
+    }
+
+    /**
+     * Gets the precedence property value.
+     *
+     * @return the current value of the precedence property
+     */
+    public int getPrecedence() {
+        return precedence;
+    }
+
+    /**
+     * Open the source content for reading. Compressed content is decompressed while it is read.
+     *
+     * @return an InputStream that must be closed by the caller
+     * @throws IOException indicating IO Error
+     */
+    public InputStream openStream() throws IOException {
+        InputStream is;
+        if (opener != null) {
+            is = opener.open();
+        } else {
+            is = jar == null ? new FileInputStream(file) : jar.openStream(entry);
+        }
+        Compression compression = getCompression();
+        if (compression == Compression.NONE) {
+            return is;
+        }
+        try {
+            return compression.decompress(is);
+        } catch (IOException e) {
+            is.close();
+            throw new IOException(file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return file.getPath();
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Properties;
+
+/**
+ * Statistics of a merge, stored in the work directory and used to choose the {@link MergeStrategy} of the next merge
+ * of the same output.
+ * <p>
+ * Parallel loading and streaming only pay off for large merges, so a merge is only performed in parallel if the
+ * previous merge read enough files and bytes, and only streamed if its estimated heap usage is a significant part of
+ * the maximum heap size and the sources could be streamed before.
+ */
+final class MergeStats {
+
+    /**
+     * The smallest number of files that is loaded in parallel.
+     */
+    static final int MIN_PARALLEL_FILES = 8;
+
+    /**
+     * The smallest number of bytes that is loaded in parallel.
+     */
+    static final long MIN_PARALLEL_BYTES = 256L * 1024;
+
+    /**
+     * The estimated heap usage of every source byte, since every char is two bytes and every key and value is a
+     * separate String.
+     */
+    private static final long HEAP_BYTES_PER_SOURCE_BYTE = 4;
+
+    /**
+     * The estimated heap usage of every key, for the Strings and the Properties entry.
+     */
+    private static final long HEAP_BYTES_PER_KEY = 96;
+
+    private int files;
+
+    private long bytes;
+
+    private int keys;
+
+    private long scanMillis;
+
+    private long mergeMillis;
+
+    private long writeMillis;
+
+    private MergeStrategy strategy;
+
+    private Boolean streamable;
+
+    /**
+     * Choose the strategy for a merge with about the same inputs as the merge described by these statistics.
+     *
+     * @param processors the number of available processors
+     * @param maxMemory the maximum heap size in bytes
+     * @return SERIAL, PARALLEL or STREAMED
+     */
+    MergeStrategy choose(int processors, long maxMemory) {
+        if (estimateHeapSize() > maxMemory / 4 && !Boolean.FALSE.equals(streamable)) {
+            return MergeStrategy.STREAMED;
+        }
+        if (processors < 2 || files < MIN_PARALLEL_FILES || bytes < MIN_PARALLEL_BYTES) {
+            return MergeStrategy.SERIAL;
+        }
+        return MergeStrategy.PARALLEL;
+    }
+
+    /**
+     * Estimate the heap size needed to merge in memory.
+     *
+     * @return the estimated heap size in bytes
+     */
+    long estimateHeapSize() {
+        return bytes * HEAP_BYTES_PER_SOURCE_BYTE + keys * HEAP_BYTES_PER_KEY;
+    }
+
+    /**
+     * Gets the files property value.
+     *
+     * @return the current value of the files property
+     */
+    int getFiles() {
+        return files;
+    }
+
+    /**
+     * Sets the number of merged files.
+     *
+     * @param files the new property value
+     */
+    void setFiles(int files) {
+        this.files = files;
+    }
+
+    /**
+     * Gets the bytes property value.
+     *
+     * @return the current value of the bytes property
+     */
+    long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Sets the total size of the merged files in bytes.
+     *
+     * @param bytes the new property value
+     */
+    void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Gets the keys property value.
+     *
+     * @return the current value of the keys property
+     */
+    int getKeys() {
+        return keys;
+    }
+
+    /**
+     * Sets the number of merged keys.
+     *
+     * @param keys the new property value
+     */
+    void setKeys(int keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * Gets the scanMillis property value.
+     *
+     * @return the current value of the scanMillis property
+     */
+    long getScanMillis() {
+        return scanMillis;
+    }
+
+    /**
+     * Sets the time spent scanning the resource directories.
+     *
+     * @param scanMillis the new property value
+     */
+    void setScanMillis(long scanMillis) {
+        this.scanMillis = scanMillis;
+    }
+
+    /**
+     * Gets the mergeMillis property value.
+     *
+     * @return the current value of the mergeMillis property
+     */
+    long getMergeMillis() {
+        return mergeMillis;
+    }
+
+    /**
+     * Sets the time spent loading and merging the sources.
+     *
+     * @param mergeMillis the new property value
+     */
+    void setMergeMillis(long mergeMillis) {
+        this.mergeMillis = mergeMillis;
+    }
+
+    /**
+     * Gets the writeMillis property value.
+     *
+     * @return the current value of the writeMillis property
+     */
+    long getWriteMillis() {
+        return writeMillis;
+    }
+
+    /**
+     * Sets the time spent writing the merged output.
+     *
+     * @param writeMillis the new property value
+     */
+    void setWriteMillis(long writeMillis) {
+        this.writeMillis = writeMillis;
+    }
+
+    /**
+     * Gets the strategy property value.
+     *
+     * @return the current value of the strategy property
+     */
+    MergeStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Sets the strategy used by the merge.
+     *
+     * @param strategy the new property value
+     */
+    void setStrategy(MergeStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * Gets the streamable property value.
+     *
+     * @return the current value of the streamable property
+     */
+    Boolean getStreamable() {
+        return streamable;
+    }
+
+    /**
+     * Sets whether the sources could be streamed.
+     *
+     * @param streamable the new property value or null if the sources were never streamed
+     */
+    void setStreamable(Boolean streamable) {
+        this.streamable = streamable;
+    }
+
+    /**
+     * Write these statistics to the given file.
+     *
+     * @param file the file to write
+     * @throws IOException indicating IO Error
+     */
+    void write(File file) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create directory: " + parent);
+        }
+        Properties p = new Properties();
+        p.setProperty("files", Integer.toString(files));
+        p.setProperty("bytes", Long.toString(bytes));
+        p.setProperty("keys", Integer.toString(keys));
+        p.setProperty("scanMillis", Long.toString(scanMillis));
+        p.setProperty("mergeMillis", Long.toString(mergeMillis));
+        p.setProperty("writeMillis", Long.toString(writeMillis));
+        if (strategy != null) {
+            p.setProperty("strategy", strategy.name());
+        }
+        if (streamable != null) {
+            p.setProperty("streamable", streamable.toString());
+        }
+        try (OutputStream os = Files.newOutputStream(file.toPath())) {
+            p.store(os, "Merge statistics");
+        }
+    }
+
+    /**
+     * Read statistics from the given file.
+     *
+     * @param file the file to read
+     * @return the statistics or null if the file is missing or unreadable
+     */
+    static MergeStats read(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        Properties p = new Properties();
+        try (InputStream is = Files.newInputStream(file.toPath())) {
+            p.load(is);
+            MergeStats stats = new MergeStats();
+            stats.files = Integer.parseInt(p.getProperty("files", "0"));
+            stats.bytes = Long.parseLong(p.getProperty("bytes", "0"));
+            stats.keys = Integer.parseInt(p.getProperty("keys", "0"));
+            stats.scanMillis = Long.parseLong(p.getProperty("scanMillis", "0"));
+            stats.mergeMillis = Long.parseLong(p.getProperty("mergeMillis", "0"));
+            stats.writeMillis = Long.parseLong(p.getProperty("writeMillis", "0"));
+            String strategy = p.getProperty("strategy");
+            stats.strategy = strategy == null ? null : MergeStrategy.valueOf(strategy);
+            String streamable = p.getProperty("streamable");
+            stats.streamable = streamable == null ? null : Boolean.valueOf(streamable);
+            return stats;
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return files + " file" + (files == 1 ? "" : "s") + ", " + bytes + " bytes and " + keys + " key"
+            + (keys == 1 ? "" : "s");
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+/**
+ * The strategy used to load and merge the sources.
+ */
+public enum MergeStrategy {
+
+    /**
+     * Choose SERIAL, PARALLEL or STREAMED from the statistics of the previous merge of the same output, the number of
+     * available processors and the maximum heap size.
+     */
+    AUTO,
+
+    /**
+     * Load every source in the calling thread and merge in memory.
+     */
+    SERIAL,
+
+    /**
+     * Load the unfiltered sources in parallel and merge in memory.
+     */
+    PARALLEL,
+
+    /**
+     * Stream sources that are sorted by key directly to the output file, reverting to a parallel merge in memory if
+     * the sources cannot be streamed.
+     */
+    STREAMED
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.model.Resource;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.filtering.MavenFilteringException;
+import org.apache.maven.shared.filtering.MavenResourcesExecution;
+import org.apache.maven.shared.filtering.MavenResourcesFiltering;
+
+/**
+ * Checks the resources of a merge for duplicate keys without filtering or writing anything.
+ * <p>
+ * Every key that is defined by more than one resource file fails the build unless overwriteProperties is set. Keys
+ * that differ only in case or whitespace from another key are reported as warnings, or fail the build if
+ * failOnSimilarKeys is set. Only the keys of the resource files are read, in parallel, so the check is much cheaper
+ * than the merge itself.
+ *
+ * @since 1.3
+ */
+@Mojo(name = "validate", defaultPhase = LifecyclePhase.VALIDATE, requiresProject = true, threadSafe = true)
+public class MergeValidateMojo extends AbstractMojo {
+
+    /**
+     * The Maven Project to use.
+     */
+    @Parameter(defaultValue = "${project}", required = true, readonly = true)
+    private MavenProject project;
+
+    /**
+     * The MavenResourcesFiltering instance to use.
+     */
+    @Component(role = MavenResourcesFiltering.class, hint = "merge")
+    private MergeProperitesMavenResourcesFiltering mavenResourcesFiltering;
+
+    /**
+     * The list of resources to check, in the same format as for the merge goal. A property that is defined by
+     * resources with different precedence is not a duplicate.
+     */
+    @Parameter(required = true)
+    private List<MergeResource> resources;
+
+    /**
+     * The character encoding scheme to use.
+     */
+    @Parameter(property = "merge.properties.encoding", defaultValue = "ISO-8859-1")
+    private String encoding;
+
+    /**
+     * Allow duplicate properties, as when the merge overwrites them instead of failing the build.
+     */
+    @Parameter(property = "merge.properties.overwrite", defaultValue = "false")
+    private boolean overwriteProperties;
+
+    /**
+     * Fail the build if a key differs only in case or whitespace from another key.
+     */
+    @Parameter(property = "merge.properties.failOnSimilarKeys", defaultValue = "false")
+    private boolean failOnSimilarKeys;
+
+    /**
+     * Patterns of the keys to check, in the same format as for the merge goal.
+     */
+    @Parameter(property = "merge.properties.keyIncludes")
+    private List<String> keyIncludes;
+
+    /**
+     * Patterns of the keys that are not checked, in the same format as for the merge goal.
+     */
+    @Parameter(property = "merge.properties.keyExcludes")
+    private List<String> keyExcludes;
+
+    /**
+     * Skip the execution of the plugin if you need to.
+     */
+    @Parameter(property = "merge.properties.skip", defaultValue = "false")
+    private boolean skip;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (skip) {
+            getLog().info("Skipping the execution.");
+            return;
+        }
+
+        MavenResourcesExecution execution = new MavenResourcesExecution();
+        execution.setResources(new ArrayList<Resource>(resources));
+        execution.setMavenProject(project);
+        execution.setResourcesBaseDirectory(project.getBasedir());
+        execution.setEncoding(encoding);
+
+        MergeProperitesMavenResourcesFiltering filtering = mavenResourcesFiltering.newInstance();
+        filtering.setKeyFilter(KeyFilter.create(keyIncludes, keyExcludes));
+        KeyValidator validator;
+        try {
+            validator = filtering.validateResources(execution);
+        } catch (MavenFilteringException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+
+        for (String duplicate : validator.getDuplicates()) {
+            if (overwriteProperties) {
+                getLog().info(duplicate);
+            } else {
+                getLog().error(duplicate);
+            }
+        }
+        for (String similar : validator.getSimilarKeys()) {
+            if (failOnSimilarKeys) {
+                getLog().error(similar);
+            } else {
+                getLog().warn(similar);
+            }
+        }
+
+        int problems = (overwriteProperties ? 0 : validator.getDuplicates().size())
+            + (failOnSimilarKeys ? validator.getSimilarKeys().size() : 0);
+        if (problems > 0) {
+            throw new MojoFailureException("Found " + validator.getDuplicates().size() + " duplicate and "
+                + validator.getSimilarKeys().size() + " similar properties");
+        }
+    }
+
+    /**
+     * Sets the project property.
+     *
+     * @param project the new property value
+     */
+    public void setProject(MavenProject project) {
+        this.project = project;
+    }
+
+    /**
+     * Sets the mavenResourcesFiltering property.
+     *
+     * @param mavenResourcesFiltering the new property value
+     */
+    public void setMavenResourcesFiltering(MergeProperitesMavenResourcesFiltering mavenResourcesFiltering) {
+        this.mavenResourcesFiltering = mavenResourcesFiltering;
+    }
+
+    /**
+     * Sets the resources property.
+     *
+     * @param resources the new property value
+     */
+    public void setResources(List<MergeResource> resources) {
+        this.resources = resources;
+    }
+
+    /**
+     * Sets the encoding property.
+     *
+     * @param encoding the new property value
+     */
+    public void setEncoding(String encoding) {
+        this.encoding = encoding;
+    }
+
+    /**
+     * Sets the overwriteProperties property.
+     *
+     * @param overwriteProperties the new property value
+     */
+    public void setOverwriteProperties(boolean overwriteProperties) {
+        this.overwriteProperties = overwriteProperties;
+    }
+
+    /**
+     * Sets the failOnSimilarKeys property.
+     *
+     * @param failOnSimilarKeys the new property value
+     */
+    public void setFailOnSimilarKeys(boolean failOnSimilarKeys) {
+        this.failOnSimilarKeys = failOnSimilarKeys;
+    }
+
+    /**
+     * Sets the keyIncludes property.
+     *
+     * @param keyIncludes the new property value
+     */
+    public void setKeyIncludes(List<String> keyIncludes) {
+        this.keyIncludes = keyIncludes;
+    }
+
+    /**
+     * Sets the keyExcludes property.
+     *
+     * @param keyExcludes the new property value
+     */
+    public void setKeyExcludes(List<String> keyExcludes) {
+        this.keyExcludes = keyExcludes;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.util.Properties;
+
+/**
+ * Post-merge stage that receives the merged properties exactly once, before they are written.
+ * <p>
+ * Unlike a user {@link org.apache.maven.shared.filtering.MavenResourcesFiltering} component, a MergedPropertiesFilter
+ * never reads the merged resources again. Filters that are used by the merge-aggregate goal must be thread safe since
+ * the modules are merged in parallel.
+ *
+ * @since 1.3
+ */
+@FunctionalInterface
+public interface MergedPropertiesFilter {
+
+    /**
+     * Filter the merged properties. Keys may be added, changed or removed.
+     *
+     * @param properties the merged properties
+     * @throws MergeException indicating failure
+     */
+    void filter(Properties properties) throws MergeException;
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+import org.apache.commons.configuration2.PropertiesConfiguration;
+import org.apache.commons.configuration2.convert.DisabledListDelimiterHandler;
+
+/**
+ * Writes merged properties one at a time using the apache Commons-Configuration format without a timestamp header.
+ * <p>
+ * The caller is responsible for the order of the written properties.
+ */
+class MergedPropertiesWriter implements Closeable {
+
+    private final PropertiesConfiguration.PropertiesWriter writer;
+
+    private final OutputDigest digest;
+
+    private long count;
+
+    /**
+     * Create a writer that writes to the given Writer.
+     *
+     * @param out the Writer to write to
+     */
+    MergedPropertiesWriter(Writer out) {
+        this(out, null);
+    }
+
+    /**
+     * Create a writer that writes to the given Writer and adds every written property to an OutputDigest.
+     *
+     * @param out the Writer to write to
+     * @param digest the OutputDigest to update or null
+     */
+    MergedPropertiesWriter(Writer out, OutputDigest digest) {
+        writer = new PropertiesConfiguration.PropertiesWriter(out, DisabledListDelimiterHandler.INSTANCE);
+        writer.setGlobalSeparator("=");
+        this.digest = digest;
+    }
+
+    /**
+     * Write a single property.
+     *
+     * @param key the property key
+     * @param value the property value
+     * @throws IOException indicating IO Error
+     */
+    void write(String key, String value) throws IOException {
+        writer.writeProperty(key, value);
+        if (digest != null) {
+            digest.add(key, value);
+        }
+        count++;
+    }
+
+    /**
+     * Gets the number of written properties.
+     *
+     * @return the number of written properties
+     */
+    long getCount() {
+        return count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Digests of a merged output file, computed while the file is written and stored in a sidecar file next to it, so
+ * that a consumer can detect changes by comparing a few bytes instead of reading the output.
+ * <p>
+ * The content digest is the SHA-256 digest of the bytes of the output file as written. Every namespace, i.e. the part
+ * of the keys before the first '.', also gets a digest that only changes if a property of the namespace is added,
+ * removed or changed: the sum modulo 2<sup>256</sup> of the SHA-256 digests of its properties. The sum does not depend
+ * on the order of the properties, so chunks of properties that are encoded in parallel are digested by their own
+ * partial OutputDigest and combined afterwards.
+ */
+final class OutputDigest {
+
+    /**
+     * The digest algorithm.
+     */
+    static final String ALGORITHM = "SHA-256";
+
+    /**
+     * The extension appended to the output file name to get the sidecar file name.
+     */
+    static final String SIDECAR_EXTENSION = ".digest";
+
+    private static final int DIGEST_LENGTH = 32;
+
+    private final MessageDigest content;
+
+    private final MessageDigest entry = newDigest();
+
+    private final byte[] entryDigest = new byte[DIGEST_LENGTH];
+
+    private final Map<String, byte[]> namespaces = new HashMap<>();
+
+    private byte[] buffer = new byte[256];
+
+    private String namespace;
+
+    private byte[] namespaceSum;
+
+    private long count;
+
+    /**
+     * Create an OutputDigest for a complete output file.
+     */
+    OutputDigest() {
+        this(newDigest());
+    }
+
+    private OutputDigest(MessageDigest content) {
+        this.content = content;
+    }
+
+    /**
+     * Create a partial OutputDigest for a chunk of properties, that has no content digest.
+     *
+     * @return a new OutputDigest to {@link #merge(OutputDigest)} into this instance when done
+     */
+    OutputDigest newPartial() {
+        return new OutputDigest(null);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Gets the sidecar file of the given output file.
+     *
+     * @param outputFile the output file
+     * @return the sidecar file
+     */
+    static File getSidecarFile(File outputFile) {
+        return new File(outputFile.getParentFile(), outputFile.getName() + SIDECAR_EXTENSION);
+    }
+
+    /**
+     * Gets the MessageDigest that must be updated with every byte written to the output file.
+     *
+     * @return the content MessageDigest
+     */
+    MessageDigest getContentDigest() {
+        return content;
+    }
+
+    /**
+     * Update the content digest with the remaining bytes of a buffer that is written to the output file, without
+     * changing the position of the buffer.
+     *
+     * @param bytes the buffer
+     */
+    void update(ByteBuffer bytes) {
+        content.update(bytes.duplicate());
+    }
+
+    /**
+     * Add a written property.
+     *
+     * @param key the property key
+     * @param value the property value
+     */
+    void add(String key, String value) {
+        count++;
+        int length = (key.length() + 1 + value.length()) * 2;
+        if (buffer.length < length) {
+            buffer = new byte[Math.max(length, buffer.length * 2)];
+        }
+        int pos = putChars(key, 0);
+        buffer[pos++] = 0;
+        buffer[pos++] = 0;
+        putChars(value, pos);
+        entry.update(buffer, 0, length);
+        try {
+            entry.digest(entryDigest, 0, DIGEST_LENGTH);
+        } catch (DigestException e) {
+            throw new IllegalStateException(e);
+        }
+        addTo(getNamespaceSum(key), entryDigest);
+    }
+
+    /**
+     * Encode a String as UTF-16BE into the buffer.
+     *
+     * @param s the String
+     * @param pos the buffer position
+     * @return the buffer position after the encoded String
+     */
+    private int putChars(String s, int pos) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            buffer[pos++] = (byte) (c >> 8);
+            buffer[pos++] = (byte) c;
+        }
+        return pos;
+    }
+
+    /**
+     * Gets the sum of the namespace of a key. Consecutive keys usually share the namespace, so the previous namespace
+     * is checked before the key is split.
+     *
+     * @param key the key
+     * @return the sum to add the digest of the property to
+     */
+    private byte[] getNamespaceSum(String key) {
+        if (namespace != null && key.startsWith(namespace)
+            && (key.length() == namespace.length() || key.charAt(namespace.length()) == '.')) {
+            return namespaceSum;
+        }
+        namespace = ShardedPropertiesStore.getNamespace(key);
+        namespaceSum = namespaces.computeIfAbsent(namespace, n -> new byte[DIGEST_LENGTH]);
+        return namespaceSum;
+    }
+
+    /**
+     * Add a digest to a sum modulo 2<sup>256</sup>, both in big-endian order.
+     *
+     * @param sum the sum to update
+     * @param digest the digest to add
+     */
+    private static void addTo(byte[] sum, byte[] digest) {
+        int carry = 0;
+        for (int i = DIGEST_LENGTH - 1; i >= 0; i--) {
+            int s = (sum[i] & 0xff) + (digest[i] & 0xff) + carry;
+            sum[i] = (byte) s;
+            carry = s >> 8;
+        }
+    }
+
+    /**
+     * Merge a partial OutputDigest into this instance.
+     *
+     * @param partial the partial OutputDigest
+     */
+    void merge(OutputDigest partial) {
+        count += partial.count;
+        for (Map.Entry<String, byte[]> e : partial.namespaces.entrySet()) {
+            addTo(namespaces.computeIfAbsent(e.getKey(), n -> new byte[DIGEST_LENGTH]), e.getValue());
+        }
+    }
+
+    /**
+     * Gets the number of added properties.
+     *
+     * @return the number of properties
+     */
+    long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the hex encoded digest of every namespace.
+     *
+     * @return the namespace digests sorted by namespace
+     */
+    Map<String, String> getNamespaceDigests() {
+        Map<String, String> result = new TreeMap<>();
+        for (Map.Entry<String, byte[]> e : namespaces.entrySet()) {
+            result.put(e.getKey(), MergeSnapshot.toHex(e.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * Complete the content digest and write all digests to the given sidecar file, replacing it atomically so that
+     * a consumer never reads a partial sidecar.
+     *
+     * @param sidecar the sidecar file
+     * @throws IOException indicating IO Error
+     */
+    void write(File sidecar) throws IOException {
+        File tempFile = new File(sidecar.getParentFile(), sidecar.getName() + ".tmp");
+        try {
+            try (Writer w = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.ISO_8859_1);
+                MergedPropertiesWriter writer = new MergedPropertiesWriter(w)) {
+                writer.write("algorithm", ALGORITHM);
+                writer.write("digest", MergeSnapshot.toHex(content.digest()));
+                writer.write("keys", Long.toString(count));
+                for (Map.Entry<String, String> e : getNamespaceDigests().entrySet()) {
+                    writer.write("namespace." + e.getKey(), e.getValue());
+                }
+            }
+            Files.move(tempFile.toPath(), sidecar.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            tempFile.delete();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+/**
+ * The order of the properties in the merged output file.
+ */
+public enum OutputOrder {
+
+    /**
+     * Sorted by key.
+     */
+    SORTED,
+
+    /**
+     * In the order each key is first merged, i.e. in source merge order and in file order within a source.
+     */
+    SOURCE,
+
+    /**
+     * Grouped by the source that supplied the merged value, with the groups in source merge order and the keys of each
+     * group sorted.
+     */
+    GROUPED
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.IntStream;
+
+/**
+ * Writes a large number of properties by encoding chunks of keys in parallel.
+ * <p>
+ * Each chunk of keys is escaped and encoded into its own buffer by a {@link MergedPropertiesWriter} on the common
+ * ForkJoinPool and the buffers are then written in key order with a single gathering write. A MergedPropertiesWriter
+ * keeps no state between properties, so the output is byte for byte identical to writing all keys with a single
+ * MergedPropertiesWriter using the same Charset.
+ */
+final class ParallelPropertiesWriter {
+
+    /**
+     * The default number of keys per chunk.
+     */
+    static final int DEFAULT_CHUNK_SIZE = 16384;
+
+    private ParallelPropertiesWriter() {
+    }
+
+    /**
+     * Write the properties in the given key order.
+     *
+     * @param properties the Properties to write
+     * @param keys the keys to write in output order
+     * @param file the file to write
+     * @param charset the Charset to encode the output with
+     * @param chunkSize the number of keys per chunk
+     * @throws IOException indicating IO Error
+     */
+    static void write(Properties properties, List<String> keys, Path file, Charset charset, int chunkSize)
+        throws IOException {
+        write(properties, keys, file, charset, chunkSize, null);
+    }
+
+    /**
+     * Write the properties in the given key order and update an OutputDigest. The properties of every chunk are
+     * digested in parallel and the content digest is updated with every buffer before it is written.
+     *
+     * @param properties the Properties to write
+     * @param keys the keys to write in output order
+     * @param file the file to write
+     * @param charset the Charset to encode the output with
+     * @param chunkSize the number of keys per chunk
+     * @param digest the OutputDigest to update or null
+     * @throws IOException indicating IO Error
+     */
+    static void write(Properties properties, List<String> keys, Path file, Charset charset, int chunkSize,
+        OutputDigest digest) throws IOException {
+        int chunks = (keys.size() + chunkSize - 1) / chunkSize;
+        ByteBuffer[] buffers = new ByteBuffer[chunks];
+        OutputDigest[] partials = new OutputDigest[chunks];
+        try {
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                partials[c] = digest == null ? null : digest.newPartial();
+                buffers[c] = encode(properties, keys.subList(c * chunkSize, Math.min(keys.size(),
+                    (c + 1) * chunkSize)), charset, partials[c]);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (digest != null) {
+            for (int c = 0; c < chunks; c++) {
+                digest.update(buffers[c]);
+                digest.merge(partials[c]);
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            int first = 0;
+            while (first < buffers.length) {
+                channel.write(buffers, first, buffers.length - first);
+                while (first < buffers.length && !buffers[first].hasRemaining()) {
+                    first++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Escape and encode a chunk of keys.
+     *
+     * @param properties the Properties to write
+     * @param keys the keys of the chunk
+     * @param charset the Charset to encode the output with
+     * @param digest the partial OutputDigest to update or null
+     * @return a buffer with the encoded chunk
+     */
+    private static ByteBuffer encode(Properties properties, List<String> keys, Charset charset,
+        OutputDigest digest) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(keys.size() * 32);
+        try (MergedPropertiesWriter writer =
+            new MergedPropertiesWriter(new OutputStreamWriter(out, charset), digest)) {
+            for (String key : keys) {
+                writer.write(key, properties.getProperty(key));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+}
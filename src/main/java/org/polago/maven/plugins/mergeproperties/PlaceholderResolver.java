@@ -0,0 +1,297 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Resolves <code>${key}</code> placeholders that reference other keys of the merged properties.
+ * <p>
+ * The placeholders form a dependency graph between keys. The graph is split into independent subgraphs that are
+ * resolved in parallel. Each subgraph is ordered by Tarjan's strongly connected components algorithm, which also
+ * detects cycles, so that every key is resolved exactly once after the keys it depends on. Placeholders that do not
+ * reference a merged key are left unchanged.
+ */
+class PlaceholderResolver {
+
+    private static final String PREFIX = "${";
+
+    private static final String SUFFIX = "}";
+
+    private final String[] keys;
+
+    private final String[] values;
+
+    /**
+     * For every key, the alternating literal text and referenced key indexes of its value, or null if the value has
+     * no placeholder that references a merged key.
+     */
+    private final Object[][] parts;
+
+    private final int[][] dependencies;
+
+    private final String[] resolved;
+
+    private final int[] order;
+
+    private final int[] lowlink;
+
+    private final boolean[] onStack;
+
+    /**
+     * Thrown when the placeholders of a subgraph form a cycle.
+     */
+    private static final class CycleException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        CycleException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Create a PlaceholderResolver for the given properties.
+     *
+     * @param properties the merged Properties
+     */
+    PlaceholderResolver(Properties properties) {
+        int n = properties.size();
+        keys = new String[n];
+        values = new String[n];
+        Map<String, Integer> indexes = new HashMap<>(n * 2);
+        int i = 0;
+        for (Map.Entry<Object, Object> e : properties.entrySet()) {
+            keys[i] = (String) e.getKey();
+            values[i] = (String) e.getValue();
+            indexes.put(keys[i], i);
+            i++;
+        }
+        parts = new Object[n][];
+        dependencies = new int[n][];
+        resolved = new String[n];
+        order = new int[n];
+        lowlink = new int[n];
+        onStack = new boolean[n];
+        for (i = 0; i < n; i++) {
+            parse(i, indexes);
+        }
+    }
+
+    /**
+     * Split the value of a key into literal text and references to merged keys.
+     *
+     * @param i the key index
+     * @param indexes the index of every key
+     */
+    private void parse(int i, Map<String, Integer> indexes) {
+        String value = values[i];
+        int start = value.indexOf(PREFIX);
+        if (start < 0) {
+            dependencies[i] = new int[0];
+            return;
+        }
+        List<Object> result = new ArrayList<>();
+        List<Integer> refs = new ArrayList<>();
+        int pos = 0;
+        while (start >= 0) {
+            int end = value.indexOf(SUFFIX, start + PREFIX.length());
+            if (end < 0) {
+                break;
+            }
+            Integer ref = indexes.get(value.substring(start + PREFIX.length(), end));
+            if (ref != null) {
+                result.add(value.substring(pos, start));
+                result.add(ref);
+                refs.add(ref);
+                pos = end + SUFFIX.length();
+            }
+            start = value.indexOf(PREFIX, ref != null ? pos : start + PREFIX.length());
+        }
+        dependencies[i] = refs.stream().mapToInt(Integer::intValue).toArray();
+        if (!refs.isEmpty()) {
+            result.add(value.substring(pos));
+            parts[i] = result.toArray();
+        }
+    }
+
+    /**
+     * Resolve all placeholders and update the properties.
+     *
+     * @param properties the Properties to update, the same instance as given to the constructor
+     * @return the number of keys whose value changed
+     * @throws MergeException if the placeholders form a cycle
+     */
+    int resolve(Properties properties) throws MergeException {
+        try {
+            findSubgraphs().parallelStream().forEach(this::resolveSubgraph);
+        } catch (CycleException e) {
+            throw new MergeException(e.getMessage(), e);
+        }
+        int changed = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (parts[i] != null) {
+                properties.setProperty(keys[i], resolved[i]);
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Split the keys that have placeholders into independent subgraphs using union-find.
+     *
+     * @return the keys of every subgraph
+     */
+    private List<int[]> findSubgraphs() {
+        int[] parent = new int[keys.length];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            for (int d : dependencies[i]) {
+                int a = find(parent, i);
+                int b = find(parent, d);
+                if (a != b) {
+                    parent[a] = b;
+                }
+            }
+        }
+        Map<Integer, List<Integer>> roots = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            if (parts[i] != null) {
+                roots.computeIfAbsent(find(parent, i), r -> new ArrayList<>()).add(i);
+            }
+        }
+        List<int[]> result = new ArrayList<>(roots.size());
+        for (List<Integer> subgraph : roots.values()) {
+            result.add(subgraph.stream().mapToInt(Integer::intValue).toArray());
+        }
+        return result;
+    }
+
+    private static int find(int[] parent, int i) {
+        int root = i;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        while (parent[i] != root) {
+            int next = parent[i];
+            parent[i] = root;
+            i = next;
+        }
+        return root;
+    }
+
+    /**
+     * Resolve a subgraph using an iterative version of Tarjan's algorithm. A strongly connected component is complete
+     * only after every component it depends on, so each key is resolved as soon as its component is complete. The
+     * subgraphs are disjoint so concurrent calls never touch the same array elements.
+     *
+     * @param roots the keys with placeholders in the subgraph
+     */
+    private void resolveSubgraph(int[] roots) {
+        int counter = 0;
+        int[] stack = new int[16];
+        int stackSize = 0;
+        // each call frame is the key and the position of its next dependency
+        int[] frames = new int[32];
+        for (int root : roots) {
+            if (order[root] != 0) {
+                continue;
+            }
+            int frameSize = 0;
+            frames[frameSize++] = root;
+            frames[frameSize++] = 0;
+            order[root] = ++counter;
+            lowlink[root] = counter;
+            onStack[root] = true;
+            stack[stackSize++] = root;
+            while (frameSize > 0) {
+                int v = frames[frameSize - 2];
+                int next = frames[frameSize - 1];
+                if (next < dependencies[v].length) {
+                    frames[frameSize - 1]++;
+                    int w = dependencies[v][next];
+                    if (order[w] == 0) {
+                        order[w] = ++counter;
+                        lowlink[w] = counter;
+                        onStack[w] = true;
+                        if (stackSize == stack.length) {
+                            stack = Arrays.copyOf(stack, stackSize * 2);
+                        }
+                        stack[stackSize++] = w;
+                        if (frameSize == frames.length) {
+                            frames = Arrays.copyOf(frames, frameSize * 2);
+                        }
+                        frames[frameSize++] = w;
+                        frames[frameSize++] = 0;
+                    } else if (onStack[w]) {
+                        lowlink[v] = Math.min(lowlink[v], order[w]);
+                    }
+                    continue;
+                }
+                frameSize -= 2;
+                if (frameSize > 0) {
+                    int parent = frames[frameSize - 2];
+                    lowlink[parent] = Math.min(lowlink[parent], lowlink[v]);
+                }
+                if (lowlink[v] == order[v]) {
+                    int w = stack[--stackSize];
+                    onStack[w] = false;
+                    if (w != v) {
+                        throw new CycleException("Placeholder cycle between merged properties '" + keys[v]
+                            + "' and '" + keys[w] + "'");
+                    }
+                    for (int d : dependencies[v]) {
+                        if (d == v) {
+                            throw new CycleException("Merged property '" + keys[v] + "' references itself");
+                        }
+                    }
+                    resolved[v] = substitute(v);
+                }
+            }
+        }
+    }
+
+    /**
+     * Build the resolved value of a key whose dependencies are all resolved.
+     *
+     * @param i the key index
+     * @return the resolved value
+     */
+    private String substitute(int i) {
+        if (parts[i] == null) {
+            return values[i];
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Object part : parts[i]) {
+            if (part instanceof Integer) {
+                int ref = (Integer) part;
+                sb.append(resolved[ref]);
+            } else {
+                sb.append((String) part);
+            }
+        }
+        return sb.toString();
+    }
+}
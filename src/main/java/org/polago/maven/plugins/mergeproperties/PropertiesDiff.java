@@ -0,0 +1,187 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Compares two sources whose keys are sorted in natural String order by a merge-join of their key sequences.
+ * <p>
+ * Only the current entry of each source is kept in memory, so sources of any size are compared in constant memory.
+ * Every added, removed and changed key is written to a report in JSON Lines format, i.e. one JSON object per line,
+ * followed by a summary object.
+ */
+class PropertiesDiff {
+
+    private long added;
+
+    private long removed;
+
+    private long changed;
+
+    private long unchanged;
+
+    /**
+     * Compare the baseline with the current source and write the differences to the report.
+     *
+     * @param baseline the baseline source
+     * @param current the current source
+     * @param report the Writer to write the report to
+     * @throws IOException indicating IO Error
+     * @throws SortedStreamMerge.UnsortedSourceException if a source is not sorted
+     */
+    void compare(SortedStreamMerge.Head baseline, SortedStreamMerge.Head current, Writer report)
+        throws IOException, SortedStreamMerge.UnsortedSourceException {
+
+        boolean hasBaseline = baseline.advance();
+        boolean hasCurrent = current.advance();
+        while (hasBaseline || hasCurrent) {
+            int c;
+            if (!hasBaseline) {
+                c = 1;
+            } else if (!hasCurrent) {
+                c = -1;
+            } else {
+                c = baseline.getKey().compareTo(current.getKey());
+            }
+
+            if (c < 0) {
+                removed++;
+                writeChange(report, "removed", baseline.getKey(), baseline.getValue(), null);
+                hasBaseline = baseline.advance();
+            } else if (c > 0) {
+                added++;
+                writeChange(report, "added", current.getKey(), null, current.getValue());
+                hasCurrent = current.advance();
+            } else {
+                if (baseline.getValue().equals(current.getValue())) {
+                    unchanged++;
+                } else {
+                    changed++;
+                    writeChange(report, "changed", current.getKey(), baseline.getValue(), current.getValue());
+                }
+                hasBaseline = baseline.advance();
+                hasCurrent = current.advance();
+            }
+        }
+
+        report.write("{\"type\":\"summary\",\"added\":" + added + ",\"removed\":" + removed + ",\"changed\":" + changed
+            + ",\"unchanged\":" + unchanged + "}\n");
+    }
+
+    /**
+     * Write a single change to the report.
+     *
+     * @param report the Writer to write to
+     * @param type the change type
+     * @param key the changed key
+     * @param oldValue the baseline value or null
+     * @param newValue the current value or null
+     * @throws IOException indicating IO Error
+     */
+    private static void writeChange(Writer report, String type, String key, String oldValue, String newValue)
+        throws IOException {
+        report.write("{\"type\":\"");
+        report.write(type);
+        report.write("\",\"key\":");
+        writeString(report, key);
+        if (oldValue != null) {
+            report.write(",\"oldValue\":");
+            writeString(report, oldValue);
+        }
+        if (newValue != null) {
+            report.write(",\"value\":");
+            writeString(report, newValue);
+        }
+        report.write("}\n");
+    }
+
+    /**
+     * Write a JSON string.
+     *
+     * @param out the Writer to write to
+     * @param s the String to write
+     * @throws IOException indicating IO Error
+     */
+    static void writeString(Writer out, String s) throws IOException {
+        out.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+        out.write('"');
+    }
+
+    /**
+     * Gets the number of added keys.
+     *
+     * @return the number of added keys
+     */
+    long getAdded() {
+        return added;
+    }
+
+    /**
+     * Gets the number of removed keys.
+     *
+     * @return the number of removed keys
+     */
+    long getRemoved() {
+        return removed;
+    }
+
+    /**
+     * Gets the number of changed keys.
+     *
+     * @return the number of changed keys
+     */
+    long getChanged() {
+        return changed;
+    }
+
+    /**
+     * Gets the number of unchanged keys.
+     *
+     * @return the number of unchanged keys
+     */
+    long getUnchanged() {
+        return unchanged;
+    }
+}
@@ -0,0 +1,848 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Merges properties sources into a single set of properties without using the Maven API.
+ * <p>
+ * Apart from the JDK the engine requires Apache Commons Configuration, used by {@code MergedPropertiesWriter} to
+ * write the output, and Plexus Utils, used by {@code JarSource} to select the entries of a JAR.
+ * <p>
+ * An engine is configured using its setters and may then be shared by concurrent merges, since a merge never modifies
+ * the engine. Unfiltered sources are loaded in parallel before they are merged in order. Filtered sources are
+ * interpolated in merge order, since an {@link Interpolator} is not required to be thread safe. Sources that are
+ * sorted by key can also be streamed directly to the output without keeping the merged properties in memory.
+ *
+ * @since 1.3
+ */
+public class PropertiesMergeEngine {
+
+    /**
+     * The number of keys from which the output is encoded in parallel.
+     */
+    static final int PARALLEL_WRITE_THRESHOLD = 4 * ParallelPropertiesWriter.DEFAULT_CHUNK_SIZE;
+
+    private static final String[] EMPTY_STRING_ARRAY = {};
+
+    private static final MergeLog NO_LOG = new MergeLog() {
+
+        @Override
+        public void debug(String message) {
+        }
+
+        @Override
+        public void info(String message) {
+        }
+    };
+
+    private String encoding = "ISO-8859-1";
+
+    private boolean overwriteProperties = false;
+
+    private boolean resolvePlaceholders = false;
+
+    private OutputOrder outputOrder = OutputOrder.SORTED;
+
+    private boolean parallel = true;
+
+    private boolean concurrent = false;
+
+    private KeyFilter keyFilter;
+
+    private Compression outputCompression = Compression.NONE;
+
+    private Interpolator interpolator;
+
+    private MergeListener mergeListener;
+
+    private List<MergedPropertiesFilter> filters;
+
+    private SourceCache sourceCache;
+
+    private MergeLog log = NO_LOG;
+
+    /**
+     * The result of an in-memory merge.
+     */
+    public static final class Result {
+
+        private final Properties properties;
+
+        private final MergeOrder order;
+
+        private final boolean filtered;
+
+        private List<String> keys;
+
+        Result(Properties properties, MergeOrder order, boolean filtered) {
+            this.properties = properties;
+            this.order = order;
+            this.filtered = filtered;
+        }
+
+        /**
+         * Gets the merged properties.
+         *
+         * @return the merged properties
+         */
+        public Properties getProperties() {
+            return properties;
+        }
+
+        /**
+         * Gets the merged keys in output order.
+         *
+         * @return the keys
+         */
+        public synchronized List<String> getKeys() {
+            if (keys == null) {
+                if (order == null) {
+                    String[] sorted = properties.keySet().toArray(EMPTY_STRING_ARRAY);
+                    Arrays.parallelSort(sorted);
+                    keys = Arrays.asList(sorted);
+                } else if (filtered) {
+                    keys = reconcile(order.getKeys());
+                } else {
+                    keys = order.getKeys();
+                }
+            }
+            return keys;
+        }
+
+        /**
+         * Reconcile the merged keys with the keys of the filtered properties. Removed keys are dropped and added keys
+         * are appended in sorted order.
+         *
+         * @param merged the merged keys in output order
+         * @return the keys of the properties in output order
+         */
+        private List<String> reconcile(List<String> merged) {
+            List<String> result = new ArrayList<>(properties.size());
+            Set<String> seen = new HashSet<>();
+            for (String key : merged) {
+                if (properties.containsKey(key) && seen.add(key)) {
+                    result.add(key);
+                }
+            }
+            List<String> added = new ArrayList<>();
+            for (String key : properties.stringPropertyNames()) {
+                if (!seen.contains(key)) {
+                    added.add(key);
+                }
+            }
+            Collections.sort(added);
+            result.addAll(added);
+            return result;
+        }
+    }
+
+    /**
+     * Wraps a MergeException thrown while loading sources in parallel.
+     */
+    private static final class LoadException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        LoadException(MergeException cause) {
+            super(cause);
+        }
+    }
+
+    /**
+     * Merge the sources in memory.
+     *
+     * @param sources the sources in merge order
+     * @return the merge Result
+     * @throws MergeException if a source cannot be loaded or if the sources conflict
+     */
+    public Result merge(List<MergeSource> sources) throws MergeException {
+        MergeOrder order = outputOrder == OutputOrder.SORTED ? null : new MergeOrder(outputOrder);
+        Properties output;
+        boolean mergeConcurrently = concurrent && mergeListener == null;
+        try (MergeEvents.Span span =
+            MergeEvents.begin(MergeEvents.Kind.MERGE, mergeConcurrently ? "concurrent" : "serial")) {
+            span.setCount(sources.size());
+            if (mergeConcurrently) {
+                output = mergeConcurrent(sources, order);
+            } else {
+                Properties[] loaded = preload(sources);
+                output = new Properties();
+                Map<String, Integer> precedences = isLayered(sources) ? new HashMap<>() : null;
+                for (int i = 0; i < sources.size(); i++) {
+                    MergeSource source = sources.get(i);
+                    Properties p = loaded[i] != null ? loaded[i] : load(source);
+                    mergeProperties(output, precedences, p, source, i, order);
+                }
+            }
+            span.setKeys(output.size());
+        }
+
+        if (resolvePlaceholders) {
+            int resolved = new PlaceholderResolver(output).resolve(output);
+            log.debug("Resolved placeholders in " + resolved + " merged properties");
+        }
+
+        boolean filtered = filters != null && !filters.isEmpty();
+        if (filtered) {
+            for (MergedPropertiesFilter filter : filters) {
+                filter.filter(output);
+            }
+            log.debug("Applied " + filters.size() + " merged properties filters");
+        }
+        return new Result(output, order, filtered);
+    }
+
+    /**
+     * Merge the sources concurrently into a ConcurrentMergeTable. Filtered sources are interpolated in merge order
+     * first, then every source is inserted by a worker thread.
+     *
+     * @param sources the sources in merge order
+     * @param order the MergeOrder to update or null
+     * @return the merged Properties
+     * @throws MergeException the first error that a serial merge would throw
+     */
+    private Properties mergeConcurrent(List<MergeSource> sources, MergeOrder order) throws MergeException {
+        ConcurrentMergeTable table = new ConcurrentMergeTable();
+        Properties[] loaded = new Properties[sources.size()];
+        for (int i = 0; i < sources.size(); i++) {
+            if (sources.get(i).isFiltering()) {
+                try {
+                    loaded[i] = load(sources.get(i));
+                } catch (MergeException e) {
+                    table.fail(i, e);
+                    break;
+                }
+            }
+        }
+        IntStream.range(0, sources.size()).parallel().forEach(i -> {
+            MergeSource source = sources.get(i);
+            try {
+                Properties p = source.isFiltering() ? loaded[i] : load(source);
+                if (p != null) {
+                    table.insert(i, source.getPrecedence(), p);
+                }
+            } catch (MergeException e) {
+                table.fail(i, e);
+            }
+        });
+        table.replay(sources, overwriteProperties, log);
+
+        Properties output = table.toProperties();
+        if (order != null) {
+            table.fill(order, outputOrder);
+        }
+        log.debug("Merged " + sources.size() + " sources concurrently");
+        return output;
+    }
+
+    /**
+     * Merge sources that are sorted by key by streaming them into the writer. Only sources with the same precedence
+     * can be streamed and the output must be sorted without resolving placeholders or applying filters.
+     *
+     * @param sources the sources in merge order
+     * @param writer the Writer to write the merged properties to, that is closed when done
+     * @return the number of merged properties written, or -1 if the sources cannot be streamed, in which case the
+     * writer may contain partial output
+     * @throws IOException indicating IO Error
+     * @throws MergeException if the sources conflict
+     */
+    public long mergeSorted(List<MergeSource> sources, Writer writer) throws IOException, MergeException {
+        return mergeSorted(sources, writer, null);
+    }
+
+    /**
+     * Merge sources that are sorted by key by streaming them into the writer and add every written property to an
+     * OutputDigest.
+     *
+     * @param sources the sources in merge order
+     * @param writer the Writer to write the merged properties to, that is closed when done
+     * @param digest the OutputDigest to update or null
+     * @return the number of merged properties written, or -1 if the sources cannot be streamed
+     * @throws IOException indicating IO Error
+     * @throws MergeException if the sources conflict
+     */
+    long mergeSorted(List<MergeSource> sources, Writer writer, OutputDigest digest)
+        throws IOException, MergeException {
+        if (isLayered(sources) || resolvePlaceholders || outputOrder != OutputOrder.SORTED
+            || (filters != null && !filters.isEmpty())) {
+            writer.close();
+            return -1;
+        }
+        List<Reader> readers = new ArrayList<>();
+        try (MergeEvents.Span span = MergeEvents.begin(MergeEvents.Kind.MERGE, "streamed")) {
+            span.setCount(sources.size());
+            List<SortedStreamMerge.Head> heads = new ArrayList<>();
+            for (int i = 0; i < sources.size(); i++) {
+                MergeSource source = sources.get(i);
+                Reader r = openReader(source);
+                readers.add(r);
+                heads.add(new SortedStreamMerge.Head(i, source.getFile(), new PropertiesParser(r, keyFilter)));
+            }
+            long count;
+            try (MergedPropertiesWriter w = new MergedPropertiesWriter(writer, digest)) {
+                new SortedStreamMerge(log, overwriteProperties, mergeListener).merge(heads, w);
+                count = w.getCount();
+            }
+            log.debug("Streamed " + sources.size() + " sorted sources");
+            return count;
+        } catch (SortedStreamMerge.UnsortedSourceException e) {
+            log.info(e.getMessage());
+            return -1;
+        } finally {
+            writer.close();
+            for (Reader r : readers) {
+                try {
+                    r.close();
+                } catch (IOException e) {
+                    log.debug("Unable to close a source: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Write properties in the given key order to a file, compressed by the outputCompression. Large uncompressed
+     * outputs are encoded in parallel.
+     *
+     * @param properties the Properties to write
+     * @param keys the keys to write in output order
+     * @param file the file to write, using the default Charset
+     * @throws IOException indicating IO Error
+     */
+    public void write(Properties properties, List<String> keys, File file) throws IOException {
+        write(properties, keys, file, null);
+    }
+
+    /**
+     * Write properties in the given key order to a file and add every written property and the content of the file
+     * to an OutputDigest.
+     *
+     * @param properties the Properties to write
+     * @param keys the keys to write in output order
+     * @param file the file to write, using the default Charset
+     * @param digest the OutputDigest to update or null
+     * @throws IOException indicating IO Error
+     */
+    void write(Properties properties, List<String> keys, File file, OutputDigest digest) throws IOException {
+        if (outputCompression == Compression.NONE && keys.size() >= PARALLEL_WRITE_THRESHOLD) {
+            // Compression.newWriter uses the default Charset, as a FileWriter
+            ParallelPropertiesWriter.write(properties, keys, file.toPath(), Charset.defaultCharset(),
+                ParallelPropertiesWriter.DEFAULT_CHUNK_SIZE, digest);
+            return;
+        }
+        write(properties, keys, outputCompression.newWriter(file, digest), digest);
+    }
+
+    /**
+     * Write properties in the given key order to a Writer.
+     *
+     * @param properties the Properties to write
+     * @param keys the keys to write in output order
+     * @param writer the Writer to write to, that is closed when done
+     * @throws IOException indicating IO Error
+     */
+    public void write(Properties properties, List<String> keys, Writer writer) throws IOException {
+        write(properties, keys, writer, null);
+    }
+
+    /**
+     * Write properties in the given key order to a Writer and add every written property to an OutputDigest.
+     *
+     * @param properties the Properties to write
+     * @param keys the keys to write in output order
+     * @param writer the Writer to write to, that is closed when done
+     * @param digest the OutputDigest to update or null
+     * @throws IOException indicating IO Error
+     */
+    void write(Properties properties, List<String> keys, Writer writer, OutputDigest digest) throws IOException {
+        try (MergedPropertiesWriter w = new MergedPropertiesWriter(writer, digest)) {
+            for (String key : keys) {
+                w.write(key, properties.getProperty(key));
+            }
+        }
+    }
+
+    /**
+     * Determine if the sources have different precedences.
+     *
+     * @param sources the sources
+     * @return true if a property may be overridden by precedence
+     */
+    private static boolean isLayered(List<MergeSource> sources) {
+        for (MergeSource source : sources) {
+            if (source.getPrecedence() != sources.get(0).getPrecedence()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Load the unfiltered sources in parallel.
+     *
+     * @param sources the sources
+     * @return the loaded Properties by source index, null for a source that is not loaded
+     * @throws MergeException if a source cannot be loaded
+     */
+    private Properties[] preload(List<MergeSource> sources) throws MergeException {
+        Properties[] result = new Properties[sources.size()];
+        if (!parallel || sources.size() < 2) {
+            return result;
+        }
+        try {
+            IntStream.range(0, sources.size()).parallel().filter(i -> !sources.get(i).isFiltering()).forEach(i -> {
+                try {
+                    result[i] = load(sources.get(i));
+                } catch (MergeException e) {
+                    throw new LoadException(e);
+                }
+            });
+        } catch (LoadException e) {
+            throw (MergeException) e.getCause();
+        }
+        return result;
+    }
+
+    /**
+     * Merge the Properties of a source into the output.
+     *
+     * @param properties the Properties to merge into
+     * @param precedences the precedence of the source of every merged key or null if all sources have the same
+     * precedence
+     * @param p the Properties of the source
+     * @param source the source
+     * @param sourceIndex the index of the source in merge order
+     * @param order the MergeOrder to update or null
+     * @throws MergeException if a duplicate key is found and overwriteProperties is false
+     */
+    private void mergeProperties(Properties properties, Map<String, Integer> precedences, Properties p,
+        MergeSource source, int sourceIndex, MergeOrder order) throws MergeException {
+
+        Iterable<String> keys =
+            p instanceof SourceProperties ? ((SourceProperties) p).getKeyOrder() : p.stringPropertyNames();
+        int precedence = source.getPrecedence();
+        for (String key : keys) {
+            String value = p.getProperty(key);
+            String existing = properties.getProperty(key);
+            if (existing != null) {
+                int existingPrecedence = precedences == null ? precedence : precedences.get(key);
+                if (existingPrecedence > precedence) {
+                    log.debug(ignoringMessage(key, source));
+                    continue;
+                } else if (existingPrecedence < precedence) {
+                    log.info(overridingMessage(key, existing, value, source));
+                } else if (overwriteProperties) {
+                    log.info(overwritingMessage(key, existing, value, source));
+                } else {
+                    throw new MergeException(conflictMessage(key, existing, value, source));
+                }
+            }
+            properties.setProperty(key, value);
+            if (precedences != null) {
+                precedences.put(key, precedence);
+            }
+            if (order != null) {
+                order.merged(key, existing == null, sourceIndex);
+            }
+            if (mergeListener != null) {
+                mergeListener.propertyMerged(key, value, source.getFile());
+            }
+        }
+    }
+
+    /**
+     * Describe a property that is ignored since it already exists with a higher precedence.
+     *
+     * @param key the property key
+     * @param source the source of the ignored property
+     * @return the message
+     */
+    static String ignoringMessage(String key, MergeSource source) {
+        return "Ignoring Property '" + key + "' from a lower precedence source: " + source;
+    }
+
+    /**
+     * Describe a property that overrides an existing property with a lower precedence.
+     *
+     * @param key the property key
+     * @param existing the existing value
+     * @param value the new value
+     * @param source the source of the new value
+     * @return the message
+     */
+    static String overridingMessage(String key, String existing, String value, MergeSource source) {
+        return "Overriding Property '" + key + "' with a higher precedence (existing value is '" + existing
+            + "', new value is '" + value + "') while merging source: " + source;
+    }
+
+    /**
+     * Describe a property that overwrites an existing property with the same precedence.
+     *
+     * @param key the property key
+     * @param existing the existing value
+     * @param value the new value
+     * @param source the source of the new value
+     * @return the message
+     */
+    static String overwritingMessage(String key, String existing, String value, MergeSource source) {
+        return "Overwriting existing Property '" + key + "' (existing value is '" + existing + "', new value is '"
+            + value + "') while merging source: " + source;
+    }
+
+    /**
+     * Describe a property that conflicts with an existing property with the same precedence.
+     *
+     * @param key the property key
+     * @param existing the existing value
+     * @param value the new value
+     * @param source the source of the new value
+     * @return the message
+     */
+    static String conflictMessage(String key, String existing, String value, MergeSource source) {
+        return "Property '" + key + "' already exists (existing value is '" + existing + "', new value is '" + value
+            + "') while merging source: " + source;
+    }
+
+    /**
+     * Load the Properties of a source, using the SourceCache for an unfiltered file.
+     *
+     * @param source the source
+     * @return the loaded Properties
+     * @throws MergeException if the source cannot be loaded
+     */
+    private Properties load(MergeSource source) throws MergeException {
+        if (!source.isFiltering() && sourceCache != null && source.getStatFile() != null) {
+            String options = keyFilter == null ? encoding : encoding + '|' + keyFilter;
+            return sourceCache.get(source.getFile(), source.getStatFile(), options, () -> read(source));
+        }
+        return read(source);
+    }
+
+    /**
+     * Read and optionally interpolate the Properties of a source.
+     *
+     * @param source the source
+     * @return the loaded Properties
+     * @throws MergeException if the source cannot be loaded
+     */
+    private Properties read(MergeSource source) throws MergeException {
+        try (MergeEvents.Span span = MergeEvents.begin(MergeEvents.Kind.SOURCE, source.toString())) {
+            if (span.isRecording()) {
+                span.setFiltered(source.isFiltering());
+                span.setBytes(source.getLength());
+            }
+            Properties p;
+            if (!source.isFiltering() && SourceDecoder.isSupported(source, encoding)) {
+                p = SourceDecoder.load(source, encoding, keyFilter);
+            } else {
+                p = new SourceProperties();
+                try (Reader r = openReader(source)) {
+                    if (keyFilter == null) {
+                        p.load(r);
+                    } else {
+                        PropertiesParser parser = new PropertiesParser(r, keyFilter);
+                        while (parser.next()) {
+                            p.put(parser.getKey(), parser.getValue());
+                        }
+                    }
+                }
+            }
+            span.setKeys(p.size());
+            return p;
+        } catch (IOException e) {
+            throw new MergeException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Open a Reader for the source that interpolates the content of a filtered source.
+     *
+     * @param source the source to read
+     * @return a Reader that must be closed by the caller
+     * @throws IOException indicating IO Error
+     */
+    private Reader openReader(MergeSource source) throws IOException {
+        InputStream is = source.openStream();
+        Reader r;
+        try {
+            r = new InputStreamReader(is, encoding == null ? Charset.defaultCharset().name() : encoding);
+        } catch (IOException | RuntimeException e) {
+            is.close();
+            throw e;
+        }
+        if (source.isFiltering() && interpolator != null) {
+            r = interpolator.interpolate(r);
+        }
+        return r;
+    }
+
+    /**
+     * Gets the encoding property value.
+     *
+     * @return the current value of the encoding property
+     */
+    public String getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Sets the encoding of the sources, ISO-8859-1 by default. A null encoding is the platform encoding.
+     *
+     * @param encoding the new property value
+     */
+    public void setEncoding(String encoding) {
+        this.encoding = encoding;
+    }
+
+    /**
+     * Gets the overwriteProperties property value.
+     *
+     * @return the current value of the overwriteProperties property
+     */
+    public boolean isOverwriteProperties() {
+        return overwriteProperties;
+    }
+
+    /**
+     * Sets the overwriteProperties property. If false, a property that is defined by more than one source with the
+     * same precedence fails the merge.
+     *
+     * @param overwriteProperties the new property value
+     */
+    public void setOverwriteProperties(boolean overwriteProperties) {
+        this.overwriteProperties = overwriteProperties;
+    }
+
+    /**
+     * Gets the resolvePlaceholders property value.
+     *
+     * @return the current value of the resolvePlaceholders property
+     */
+    public boolean isResolvePlaceholders() {
+        return resolvePlaceholders;
+    }
+
+    /**
+     * Sets the resolvePlaceholders property.
+     *
+     * @param resolvePlaceholders the new property value
+     */
+    public void setResolvePlaceholders(boolean resolvePlaceholders) {
+        this.resolvePlaceholders = resolvePlaceholders;
+    }
+
+    /**
+     * Gets the outputOrder property value.
+     *
+     * @return the current value of the outputOrder property
+     */
+    public OutputOrder getOutputOrder() {
+        return outputOrder;
+    }
+
+    /**
+     * Sets the outputOrder property.
+     *
+     * @param outputOrder the new property value
+     */
+    public void setOutputOrder(OutputOrder outputOrder) {
+        this.outputOrder = outputOrder;
+    }
+
+    /**
+     * Gets the parallel property value.
+     *
+     * @return the current value of the parallel property
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Sets the parallel property. If true, the default, unfiltered sources are loaded in parallel.
+     *
+     * @param parallel the new property value
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Gets the outputCompression property value.
+     *
+     * @return the current value of the outputCompression property
+     */
+    public Compression getOutputCompression() {
+        return outputCompression;
+    }
+
+    /**
+     * Sets the Compression of the files written by this engine.
+     *
+     * @param outputCompression the new property value
+     */
+    public void setOutputCompression(Compression outputCompression) {
+        this.outputCompression = outputCompression == null ? Compression.NONE : outputCompression;
+    }
+
+    /**
+     * Gets the keyFilter property value.
+     *
+     * @return the current value of the keyFilter property
+     */
+    public KeyFilter getKeyFilter() {
+        return keyFilter;
+    }
+
+    /**
+     * Sets the KeyFilter that selects the keys to merge. Keys that are not selected are dropped by the parser, so they
+     * are never interpolated, checked for duplicates or written.
+     *
+     * @param keyFilter the new property value or null to merge every key
+     */
+    public void setKeyFilter(KeyFilter keyFilter) {
+        this.keyFilter = keyFilter;
+    }
+
+    /**
+     * Gets the concurrent property value.
+     *
+     * @return the current value of the concurrent property
+     */
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+
+    /**
+     * Sets the concurrent property. If true, worker threads merge the sources directly into a concurrent key table
+     * instead of a single thread merging every source in order. The result, messages and errors are the same as for
+     * a serial merge. A merge with a MergeListener is always serial since the listener expects merge order.
+     *
+     * @param concurrent the new property value
+     */
+    public void setConcurrent(boolean concurrent) {
+        this.concurrent = concurrent;
+    }
+
+    /**
+     * Gets the interpolator property value.
+     *
+     * @return the current value of the interpolator property
+     */
+    public Interpolator getInterpolator() {
+        return interpolator;
+    }
+
+    /**
+     * Sets the Interpolator used for filtered sources. Filtered sources are merged as is if no Interpolator is set.
+     *
+     * @param interpolator the new property value
+     */
+    public void setInterpolator(Interpolator interpolator) {
+        this.interpolator = interpolator;
+    }
+
+    /**
+     * Gets the mergeListener property value.
+     *
+     * @return the current value of the mergeListener property
+     */
+    public MergeListener getMergeListener() {
+        return mergeListener;
+    }
+
+    /**
+     * Sets the mergeListener property.
+     *
+     * @param mergeListener the new property value
+     */
+    public void setMergeListener(MergeListener mergeListener) {
+        this.mergeListener = mergeListener;
+    }
+
+    /**
+     * Gets the filters property value.
+     *
+     * @return the current value of the filters property
+     */
+    public List<MergedPropertiesFilter> getFilters() {
+        return filters;
+    }
+
+    /**
+     * Sets the MergedPropertiesFilters that are applied in order to the merged properties of every in-memory merge.
+     *
+     * @param filters the new property value
+     */
+    public void setFilters(List<MergedPropertiesFilter> filters) {
+        this.filters = filters;
+    }
+
+    /**
+     * Gets the sourceCache property value.
+     *
+     * @return the current value of the sourceCache property
+     */
+    public SourceCache getSourceCache() {
+        return sourceCache;
+    }
+
+    /**
+     * Sets the SourceCache used for unfiltered source files.
+     *
+     * @param sourceCache the new property value
+     */
+    public void setSourceCache(SourceCache sourceCache) {
+        this.sourceCache = sourceCache;
+    }
+
+    /**
+     * Gets the log property value.
+     *
+     * @return the current value of the log property
+     */
+    public MergeLog getLog() {
+        return log;
+    }
+
+    /**
+     * Sets the MergeLog that receives the messages of the engine.
+     *
+     * @param log the new property value
+     */
+    public void setLog(MergeLog log) {
+        this.log = log == null ? NO_LOG : log;
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Incremental parser for the Java Properties file format.
+ * <p>
+ * The parser follows the rules of {@link java.util.Properties#load(Reader)} exactly but returns one entry at a time in
+ * file order instead of loading all entries into a Hashtable. Duplicate keys within a file are returned as separate
+ * entries.
+ */
+class PropertiesParser {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+
+    private final KeyFilter keyFilter;
+
+    private char[] in;
+
+    private int inOff;
+
+    private int inLimit;
+
+    private char[] lineBuf = new char[1024];
+
+    private char[] convBuf = new char[1024];
+
+    private String key;
+
+    private String value;
+
+    private int valueStart;
+
+    private int valueLength;
+
+    /**
+     * Create a parser reading from the given Reader.
+     *
+     * @param reader the Reader to parse
+     */
+    PropertiesParser(Reader reader) {
+        this(reader, null);
+    }
+
+    /**
+     * Create a parser reading from the given Reader that skips keys not selected by the KeyFilter.
+     *
+     * @param reader the Reader to parse
+     * @param keyFilter the KeyFilter to use or null
+     */
+    PropertiesParser(Reader reader, KeyFilter keyFilter) {
+        this.reader = reader;
+        this.keyFilter = keyFilter;
+        this.in = new char[BUFFER_SIZE];
+    }
+
+    /**
+     * Create a parser for the given characters.
+     *
+     * @param chars the characters to parse
+     * @param length the number of characters to parse
+     */
+    PropertiesParser(char[] chars, int length) {
+        this(chars, length, null);
+    }
+
+    /**
+     * Create a parser for the given characters that skips keys not selected by the KeyFilter.
+     *
+     * @param chars the characters to parse
+     * @param length the number of characters to parse
+     * @param keyFilter the KeyFilter to use or null
+     */
+    PropertiesParser(char[] chars, int length, KeyFilter keyFilter) {
+        this.reader = null;
+        this.keyFilter = keyFilter;
+        this.in = chars;
+        this.inLimit = length;
+    }
+
+    /**
+     * Advance to the next entry. Entries whose key is not selected by the KeyFilter are skipped without converting
+     * their key or value.
+     *
+     * @return true if there is a current entry, false at end of input
+     * @throws IOException indicating IO Error
+     * @throws IllegalArgumentException if the input contains a malformed \\uxxxx encoding
+     */
+    boolean next() throws IOException {
+        int limit;
+        int keyLen;
+        int valueStart;
+        boolean hasSep;
+        String convertedKey;
+        do {
+            limit = readLine();
+            if (limit < 0) {
+                key = null;
+                value = null;
+                return false;
+            }
+            keyLen = 0;
+            valueStart = limit;
+            hasSep = false;
+            boolean escaped = false;
+            boolean precedingBackslash = false;
+            while (keyLen < limit) {
+                char c = lineBuf[keyLen];
+                if ((c == '=' || c == ':') && !precedingBackslash) {
+                    valueStart = keyLen + 1;
+                    hasSep = true;
+                    break;
+                } else if ((c == ' ' || c == '\t' || c == '\f') && !precedingBackslash) {
+                    valueStart = keyLen + 1;
+                    break;
+                }
+                if (c == '\\') {
+                    precedingBackslash = !precedingBackslash;
+                    escaped = true;
+                } else {
+                    precedingBackslash = false;
+                }
+                keyLen++;
+            }
+            // an escaped key must be converted before it can be matched
+            convertedKey = escaped ? loadConvert(lineBuf, 0, keyLen) : null;
+        } while (keyFilter != null && !(convertedKey == null ? keyFilter.accept(lineBuf, 0, keyLen)
+            : keyFilter.accept(convertedKey)));
+        while (valueStart < limit) {
+            char c = lineBuf[valueStart];
+            if (c != ' ' && c != '\t' && c != '\f') {
+                if (!hasSep && (c == '=' || c == ':')) {
+                    hasSep = true;
+                } else {
+                    break;
+                }
+            }
+            valueStart++;
+        }
+        key = convertedKey != null ? convertedKey : loadConvert(lineBuf, 0, keyLen);
+        // the value is converted on demand so that callers that only need the keys never convert any value
+        value = null;
+        this.valueStart = valueStart;
+        this.valueLength = limit - valueStart;
+        return true;
+    }
+
+    /**
+     * Gets the key of the current entry.
+     *
+     * @return the current key
+     */
+    String getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the value of the current entry.
+     *
+     * @return the current value
+     * @throws IllegalArgumentException if the value contains a malformed \\uxxxx encoding
+     */
+    String getValue() {
+        if (value == null && key != null) {
+            value = loadConvert(lineBuf, valueStart, valueLength);
+        }
+        return value;
+    }
+
+    /**
+     * Read the next character.
+     *
+     * @return the next character or -1 at end of input
+     * @throws IOException indicating IO Error
+     */
+    private int read() throws IOException {
+        if (inOff >= inLimit) {
+            if (reader == null) {
+                return -1;
+            }
+            inLimit = reader.read(in);
+            inOff = 0;
+            if (inLimit <= 0) {
+                return -1;
+            }
+        }
+        return in[inOff++];
+    }
+
+    /**
+     * Read the next logical line into lineBuf, skipping comments and blank lines and joining continuation lines.
+     *
+     * @return the length of the logical line or -1 at end of input
+     * @throws IOException indicating IO Error
+     */
+    private int readLine() throws IOException {
+        int len = 0;
+        boolean skipWhiteSpace = true;
+        boolean isCommentLine = false;
+        boolean isNewLine = true;
+        boolean appendedLineBegin = false;
+        boolean precedingBackslash = false;
+        boolean skipLF = false;
+
+        while (true) {
+            int r = read();
+            if (r < 0) {
+                if (len == 0 || isCommentLine) {
+                    return -1;
+                }
+                if (precedingBackslash) {
+                    len--;
+                }
+                return len;
+            }
+            char c = (char) r;
+            if (skipLF) {
+                skipLF = false;
+                if (c == '\n') {
+                    continue;
+                }
+            }
+            if (skipWhiteSpace) {
+                if (c == ' ' || c == '\t' || c == '\f') {
+                    continue;
+                }
+                if (!appendedLineBegin && (c == '\r' || c == '\n')) {
+                    continue;
+                }
+                skipWhiteSpace = false;
+                appendedLineBegin = false;
+            }
+            if (isNewLine) {
+                isNewLine = false;
+                if (c == '#' || c == '!') {
+                    isCommentLine = true;
+                    continue;
+                }
+            }
+
+            if (c != '\n' && c != '\r') {
+                if (len == lineBuf.length) {
+                    char[] buf = new char[lineBuf.length * 2];
+                    System.arraycopy(lineBuf, 0, buf, 0, len);
+                    lineBuf = buf;
+                }
+                lineBuf[len++] = c;
+                if (c == '\\') {
+                    precedingBackslash = !precedingBackslash;
+                } else {
+                    precedingBackslash = false;
+                }
+            } else {
+                if (isCommentLine || len == 0) {
+                    isCommentLine = false;
+                    isNewLine = true;
+                    skipWhiteSpace = true;
+                    len = 0;
+                    continue;
+                }
+                if (precedingBackslash) {
+                    len -= 1;
+                    skipWhiteSpace = true;
+                    appendedLineBegin = true;
+                    precedingBackslash = false;
+                    if (c == '\r') {
+                        skipLF = true;
+                    }
+                } else {
+                    return len;
+                }
+            }
+        }
+    }
+
+    /**
+     * Convert escaped characters to their unescaped form.
+     *
+     * @param buf the characters to convert
+     * @param off the start offset
+     * @param len the number of characters to convert
+     * @return the converted String
+     */
+    private String loadConvert(char[] buf, int off, int len) {
+        if (len > convBuf.length) {
+            convBuf = new char[Math.max(len, convBuf.length * 2)];
+        }
+        char[] out = convBuf;
+        int outLen = 0;
+        int end = off + len;
+
+        while (off < end) {
+            char c = buf[off++];
+            if (c == '\\') {
+                c = buf[off++];
+                if (c == 'u') {
+                    int v = 0;
+                    for (int i = 0; i < 4; i++) {
+                        if (off >= end) {
+                            throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                        }
+                        c = buf[off++];
+                        v = (v << 4) + hexDigit(c);
+                    }
+                    out[outLen++] = (char) v;
+                } else {
+                    if (c == 't') {
+                        c = '\t';
+                    } else if (c == 'r') {
+                        c = '\r';
+                    } else if (c == 'n') {
+                        c = '\n';
+                    } else if (c == 'f') {
+                        c = '\f';
+                    }
+                    out[outLen++] = c;
+                }
+            } else {
+                out[outLen++] = c;
+            }
+        }
+        return new String(out, 0, outLen);
+    }
+
+    /**
+     * Gets the value of a hexadecimal digit.
+     *
+     * @param c the digit
+     * @return the digit value
+     * @throws IllegalArgumentException if c is not a hexadecimal digit
+     */
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        } else if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        } else if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+    }
+}
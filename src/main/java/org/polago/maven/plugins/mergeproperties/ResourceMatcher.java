@@ -0,0 +1,248 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.codehaus.plexus.util.SelectorUtils;
+
+/**
+ * Include and exclude patterns compiled once into an automaton that selects files while walking a directory tree.
+ * <p>
+ * Every Ant pattern is split into path segments and all patterns share a single set of states, so each directory
+ * name is matched once per live pattern segment instead of matching the full relative path of every file against
+ * every pattern. A directory is not visited if no include pattern can match below it, or if an exclude pattern
+ * excludes everything below it. The selected files are the same, and in the same order, as for a plexus
+ * DirectoryScanner with the same patterns.
+ */
+final class ResourceMatcher {
+
+    private static final ConcurrentMap<List<String>, ResourceMatcher> CACHE = new ConcurrentHashMap<>();
+
+    private static final String DOUBLE_STAR = "**";
+
+    private final Automaton includes;
+
+    private final Automaton excludes;
+
+    /**
+     * The states of all patterns in a pattern set. Each pattern is stored as its segments followed by an accept state.
+     */
+    private static final class Automaton {
+
+        private final String[] segments;
+
+        private final boolean[] wildcard;
+
+        private final boolean[] matchesAllBelow;
+
+        private final BitSet initial = new BitSet();
+
+        Automaton(String[] patterns) {
+            List<String> all = new ArrayList<>();
+            for (String pattern : patterns) {
+                String p = pattern.trim().replace('\\', '/');
+                if (p.endsWith("/")) {
+                    p += DOUBLE_STAR;
+                }
+                StringTokenizer st = new StringTokenizer(p, "/");
+                if (p.startsWith("/") || !st.hasMoreTokens()) {
+                    // a relative path never matches an absolute pattern
+                    continue;
+                }
+                initial.set(all.size());
+                while (st.hasMoreTokens()) {
+                    all.add(st.nextToken());
+                }
+                all.add(null);
+            }
+            segments = all.toArray(new String[0]);
+            wildcard = new boolean[segments.length];
+            matchesAllBelow = new boolean[segments.length];
+            boolean allStars = false;
+            for (int i = segments.length - 1; i >= 0; i--) {
+                String s = segments[i];
+                if (s == null) {
+                    allStars = true;
+                } else {
+                    wildcard[i] = s.indexOf('*') >= 0 || s.indexOf('?') >= 0;
+                    allStars &= DOUBLE_STAR.equals(s);
+                    matchesAllBelow[i] = allStars;
+                }
+            }
+            closure(initial);
+        }
+
+        /**
+         * Add the states that a "**" segment can skip to.
+         *
+         * @param states the states to update
+         */
+        private void closure(BitSet states) {
+            for (int i = states.nextSetBit(0); i >= 0; i = states.nextSetBit(i + 1)) {
+                if (DOUBLE_STAR.equals(segments[i])) {
+                    states.set(i + 1);
+                }
+            }
+        }
+
+        /**
+         * Gets the states after matching a path segment.
+         *
+         * @param states the current states
+         * @param name the path segment
+         * @return the new states
+         */
+        BitSet step(BitSet states, String name) {
+            BitSet result = new BitSet(segments.length);
+            for (int i = states.nextSetBit(0); i >= 0; i = states.nextSetBit(i + 1)) {
+                String s = segments[i];
+                if (s == null) {
+                    continue;
+                }
+                if (DOUBLE_STAR.equals(s)) {
+                    result.set(i);
+                } else if (wildcard[i] ? SelectorUtils.match(s, name, true) : s.equals(name)) {
+                    result.set(i + 1);
+                }
+            }
+            closure(result);
+            return result;
+        }
+
+        boolean accepts(BitSet states) {
+            for (int i = states.nextSetBit(0); i >= 0; i = states.nextSetBit(i + 1)) {
+                if (segments[i] == null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean isLive(BitSet states) {
+            for (int i = states.nextSetBit(0); i >= 0; i = states.nextSetBit(i + 1)) {
+                if (segments[i] != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean matchesAllBelow(BitSet states) {
+            for (int i = states.nextSetBit(0); i >= 0; i = states.nextSetBit(i + 1)) {
+                if (matchesAllBelow[i]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Create a ResourceMatcher.
+     *
+     * @param includes the include patterns
+     * @param excludes the exclude patterns
+     */
+    private ResourceMatcher(String[] includes, String[] excludes) {
+        this.includes = new Automaton(includes);
+        this.excludes = new Automaton(excludes);
+    }
+
+    /**
+     * Gets a, possibly cached, ResourceMatcher for the given patterns.
+     *
+     * @param includes the include patterns
+     * @param excludes the exclude patterns, including any default excludes
+     * @return the ResourceMatcher or null if a pattern uses a syntax that is not supported, such as %regex[]
+     */
+    static ResourceMatcher get(String[] includes, String[] excludes) {
+        if (!isSupported(includes) || !isSupported(excludes)) {
+            return null;
+        }
+        List<String> key = new ArrayList<>(includes.length + excludes.length + 1);
+        key.addAll(Arrays.asList(includes));
+        key.add(null);
+        key.addAll(Arrays.asList(excludes));
+        return CACHE.computeIfAbsent(key, k -> new ResourceMatcher(includes, excludes));
+    }
+
+    /**
+     * Determine if all patterns are plain Ant patterns.
+     *
+     * @param patterns the patterns to check
+     * @return true if all patterns are supported
+     */
+    private static boolean isSupported(String[] patterns) {
+        for (String pattern : patterns) {
+            String p = pattern.trim();
+            if (p.startsWith(SelectorUtils.REGEX_HANDLER_PREFIX) || p.startsWith(SelectorUtils.ANT_HANDLER_PREFIX)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Select all matching files below the given directory.
+     *
+     * @param basedir the directory to scan
+     * @return the relative paths of the selected files, using the platform file separator
+     */
+    List<String> scan(File basedir) {
+        List<String> result = new ArrayList<>();
+        if (includes.isLive(includes.initial)) {
+            scan(basedir, "", includes.initial, excludes.initial, result);
+        }
+        return result;
+    }
+
+    /**
+     * Select all matching files in a directory and recurse into every directory that can hold a selected file.
+     *
+     * @param dir the directory to scan
+     * @param prefix the relative path of dir including a trailing separator, or the empty string for the basedir
+     * @param includeStates the include states for dir
+     * @param excludeStates the exclude states for dir
+     * @param result the list to add selected files to
+     */
+    private void scan(File dir, String prefix, BitSet includeStates, BitSet excludeStates, List<String> result) {
+        String[] names = dir.list();
+        if (names == null) {
+            return;
+        }
+        for (String name : names) {
+            File file = new File(dir, name);
+            BitSet include = includes.step(includeStates, name);
+            BitSet exclude = excludes.step(excludeStates, name);
+            if (file.isDirectory()) {
+                if (includes.isLive(include) && !excludes.matchesAllBelow(exclude)) {
+                    scan(file, prefix + name + File.separator, include, exclude, result);
+                }
+            } else if (includes.accepts(include) && !excludes.accepts(exclude)) {
+                result.add(prefix + name);
+            }
+        }
+    }
+}
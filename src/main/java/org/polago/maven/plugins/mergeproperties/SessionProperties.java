@@ -0,0 +1,136 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.WeakHashMap;
+
+import org.apache.maven.execution.MavenSession;
+
+/**
+ * Immutable snapshot of the special interpolation properties that are constant during a MavenSession.
+ * <p>
+ * The build timestamp is based on the session start time so every execution in a session, regardless of module,
+ * gets the same <code>maven.build.timestamp</code>. Instances are created once per session and timestamp format and
+ * implement equals and hashCode so they can be used as part of a cache key.
+ */
+public final class SessionProperties {
+
+    /**
+     * The build timestamp property name.
+     */
+    public static final String BUILD_TIMESTAMP_PROPERTY = "maven.build.timestamp";
+
+    private static final Map<MavenSession, Map<String, SessionProperties>> CACHE =
+        Collections.synchronizedMap(new WeakHashMap<MavenSession, Map<String, SessionProperties>>());
+
+    private final long startTime;
+
+    private final String timestampFormat;
+
+    private final String formattedTimestamp;
+
+    /**
+     * Create an instance.
+     *
+     * @param startTime the session start time
+     * @param timestampFormat the timestamp format or null to use the default format
+     */
+    SessionProperties(Date startTime, String timestampFormat) {
+        this.startTime = startTime.getTime();
+        this.timestampFormat = timestampFormat;
+        this.formattedTimestamp = new MavenBuildTimestamp(startTime, timestampFormat).formattedTimestamp();
+    }
+
+    /**
+     * Gets the SessionProperties for the given session and timestamp format, creating it on first use.
+     *
+     * @param session the MavenSession to use, may be null in which case the current time is used
+     * @param timestampFormat the timestamp format or null to use the default format
+     * @return the SessionProperties instance
+     */
+    public static SessionProperties get(MavenSession session, String timestampFormat) {
+        if (session == null || session.getStartTime() == null) {
+            return new SessionProperties(new Date(), timestampFormat);
+        }
+        Map<String, SessionProperties> formats;
+        synchronized (CACHE) {
+            formats = CACHE.computeIfAbsent(session, s -> new HashMap<String, SessionProperties>());
+        }
+        synchronized (formats) {
+            return formats.computeIfAbsent(String.valueOf(timestampFormat),
+                f -> new SessionProperties(session.getStartTime(), timestampFormat));
+        }
+    }
+
+    /**
+     * Gets the formatted build timestamp.
+     *
+     * @return the formatted build timestamp
+     */
+    public String getFormattedTimestamp() {
+        return formattedTimestamp;
+    }
+
+    /**
+     * Gets the timestamp format.
+     *
+     * @return the timestamp format or null if the default format is used
+     */
+    public String getTimestampFormat() {
+        return timestampFormat;
+    }
+
+    /**
+     * Create a new Properties instance containing the session properties.
+     *
+     * @return a new Properties instance that may be modified by the caller
+     */
+    public Properties toProperties() {
+        Properties result = new Properties();
+        result.put(BUILD_TIMESTAMP_PROPERTY, formattedTimestamp);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof SessionProperties)) {
+            return false;
+        }
+        SessionProperties other = (SessionProperties) obj;
+        return startTime == other.startTime && Objects.equals(timestampFormat, other.timestampFormat);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(startTime, timestampFormat);
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+/**
+ * The strategy used to partition merged properties into shard files.
+ */
+public enum ShardStrategy {
+
+    /**
+     * Partition by the hash code of the key, which spreads the keys evenly over all shards.
+     */
+    HASH,
+
+    /**
+     * Partition by key namespace, i.e. the part of the key before the first '.', so that every namespace is stored in
+     * a single shard and the shards cover consecutive ranges of sorted namespaces.
+     */
+    PREFIX
+}
@@ -0,0 +1,364 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Stores merged properties as a number of shard files described by a manifest.
+ * <p>
+ * The manifest is itself a properties file that is written to the output file and lists the file name, key count and
+ * SHA-256 content digest of every shard. For the {@link ShardStrategy#PREFIX} strategy the manifest also lists the
+ * first and last namespace of each shard. The shards are written in parallel and a shard is only rewritten if its
+ * content digest differs from the digest recorded in the previous manifest.
+ */
+class ShardedPropertiesStore {
+
+    static final String SHARDS_KEY = "shards";
+
+    static final String STRATEGY_KEY = "strategy";
+
+    private static final String SHARD_PREFIX = "shard.";
+
+    private static final OutputStream NULL_OUTPUT = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private final int shardCount;
+
+    private final ShardStrategy strategy;
+
+    private int writtenShards;
+
+    /**
+     * A single shard to store.
+     */
+    private static final class Shard {
+
+        private final TreeMap<String, String> properties = new TreeMap<>();
+
+        private String firstNamespace;
+
+        private String lastNamespace;
+
+        private File file;
+
+        private String digest;
+    }
+
+    /**
+     * Create a ShardedPropertiesStore.
+     *
+     * @param shardCount the number of shards
+     * @param strategy the ShardStrategy to use
+     */
+    ShardedPropertiesStore(int shardCount, ShardStrategy strategy) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shardCount must be positive: " + shardCount);
+        }
+        this.shardCount = shardCount;
+        this.strategy = strategy;
+    }
+
+    /**
+     * Store the properties as shards next to the manifestFile and write the manifest.
+     *
+     * @param properties the Properties to store
+     * @param manifestFile the manifest file
+     * @throws IOException indicating IO Error
+     */
+    void store(Properties properties, File manifestFile) throws IOException {
+        List<Shard> shards = partition(properties);
+        Properties previous = readManifest(manifestFile);
+        AtomicInteger written = new AtomicInteger();
+        try {
+            IntStream.range(0, shards.size()).parallel().forEach(i -> {
+                Shard shard = shards.get(i);
+                shard.file = getShardFile(manifestFile, i);
+                try {
+                    if (storeShard(shard, i, previous)) {
+                        written.incrementAndGet();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writtenShards = written.get();
+
+        deleteStaleShards(manifestFile, previous);
+        writeManifest(shards, manifestFile);
+    }
+
+    /**
+     * Gets the number of shards that were written by the last store, as opposed to being unchanged.
+     *
+     * @return the number of written shards
+     */
+    int getWrittenShards() {
+        return writtenShards;
+    }
+
+    /**
+     * Partition the properties into shards.
+     *
+     * @param properties the Properties to partition
+     * @return the shards
+     */
+    private List<Shard> partition(Properties properties) {
+        List<Shard> shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new Shard());
+        }
+        if (strategy == ShardStrategy.PREFIX) {
+            TreeMap<String, Map<String, String>> namespaces = new TreeMap<>();
+            for (Entry<Object, Object> e : properties.entrySet()) {
+                String key = (String) e.getKey();
+                namespaces.computeIfAbsent(getNamespace(key), n -> new TreeMap<>()).put(key, (String) e.getValue());
+            }
+            long total = properties.size();
+            long before = 0;
+            for (Entry<String, Map<String, String>> e : namespaces.entrySet()) {
+                Shard shard = shards.get((int) Math.min(shardCount - 1, before * shardCount / total));
+                shard.properties.putAll(e.getValue());
+                if (shard.firstNamespace == null) {
+                    shard.firstNamespace = e.getKey();
+                }
+                shard.lastNamespace = e.getKey();
+                before += e.getValue().size();
+            }
+        } else {
+            for (Entry<Object, Object> e : properties.entrySet()) {
+                String key = (String) e.getKey();
+                shards.get(Math.floorMod(key.hashCode(), shardCount)).properties.put(key, (String) e.getValue());
+            }
+        }
+        return shards;
+    }
+
+    /**
+     * Gets the namespace of a key, i.e. the part before the first '.'.
+     *
+     * @param key the key
+     * @return the namespace
+     */
+    static String getNamespace(String key) {
+        int i = key.indexOf('.');
+        return i < 0 ? key : key.substring(0, i);
+    }
+
+    /**
+     * Store a shard unless the previous manifest shows that the existing shard file has the same content.
+     *
+     * @param shard the Shard to store
+     * @param index the shard index
+     * @param previous the previous manifest
+     * @return true if the shard file was written
+     * @throws IOException indicating IO Error
+     */
+    private boolean storeShard(Shard shard, int index, Properties previous) throws IOException {
+        MessageDigest md = newDigest();
+        write(shard.properties, new DigestOutputStream(NULL_OUTPUT, md));
+        shard.digest = MergeSnapshot.toHex(md.digest());
+
+        String prefix = SHARD_PREFIX + index + '.';
+        if (shard.digest.equals(previous.getProperty(prefix + "sha256"))
+            && shard.file.getName().equals(previous.getProperty(prefix + "file")) && shard.file.isFile()
+            && Long.toString(shard.file.length()).equals(previous.getProperty(prefix + "length"))) {
+            return false;
+        }
+        File tempFile = new File(shard.file.getParentFile(), shard.file.getName() + ".tmp");
+        try {
+            write(shard.properties, new FileOutputStream(tempFile));
+            Files.move(tempFile.toPath(), shard.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            tempFile.delete();
+        }
+        return true;
+    }
+
+    /**
+     * Write sorted properties.
+     *
+     * @param properties the properties to write
+     * @param out the OutputStream to write to, closed by this method
+     * @throws IOException indicating IO Error
+     */
+    private static void write(TreeMap<String, String> properties, OutputStream out) throws IOException {
+        try (MergedPropertiesWriter writer = new MergedPropertiesWriter(
+            new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.ISO_8859_1)))) {
+            for (Entry<String, String> e : properties.entrySet()) {
+                writer.write(e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    /**
+     * Delete the shards of the previous manifest that are not part of the current shards.
+     *
+     * @param manifestFile the manifest file
+     * @param previous the previous manifest
+     */
+    private void deleteStaleShards(File manifestFile, Properties previous) {
+        for (File file : listShardFiles(manifestFile, previous)) {
+            boolean current = false;
+            for (int i = 0; i < shardCount; i++) {
+                current |= getShardFile(manifestFile, i).equals(file);
+            }
+            if (!current) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Write the manifest.
+     *
+     * @param shards the stored shards
+     * @param manifestFile the manifest file
+     * @throws IOException indicating IO Error
+     */
+    private void writeManifest(List<Shard> shards, File manifestFile) throws IOException {
+        TreeMap<String, String> manifest = new TreeMap<>();
+        manifest.put(SHARDS_KEY, Integer.toString(shards.size()));
+        manifest.put(STRATEGY_KEY, strategy.name());
+        for (int i = 0; i < shards.size(); i++) {
+            Shard shard = shards.get(i);
+            String prefix = SHARD_PREFIX + i + '.';
+            manifest.put(prefix + "file", shard.file.getName());
+            manifest.put(prefix + "keys", Integer.toString(shard.properties.size()));
+            manifest.put(prefix + "length", Long.toString(shard.file.length()));
+            manifest.put(prefix + "sha256", shard.digest);
+            if (shard.firstNamespace != null) {
+                manifest.put(prefix + "firstNamespace", shard.firstNamespace);
+                manifest.put(prefix + "lastNamespace", shard.lastNamespace);
+            }
+        }
+        write(manifest, new FileOutputStream(manifestFile));
+    }
+
+    /**
+     * Gets the shard files listed in the manifest.
+     *
+     * @param manifestFile the manifest file
+     * @return the shard files, or an empty list if there is no readable manifest
+     */
+    static List<File> listShardFiles(File manifestFile) {
+        return listShardFiles(manifestFile, readManifest(manifestFile));
+    }
+
+    /**
+     * Gets the shard files listed in the given manifest.
+     *
+     * @param manifestFile the manifest file
+     * @param manifest the manifest content
+     * @return the shard files
+     */
+    private static List<File> listShardFiles(File manifestFile, Properties manifest) {
+        List<File> result = new ArrayList<>();
+        int count;
+        try {
+            count = Integer.parseInt(manifest.getProperty(SHARDS_KEY, "0"));
+        } catch (NumberFormatException e) {
+            return result;
+        }
+        for (int i = 0; i < count; i++) {
+            String name = manifest.getProperty(SHARD_PREFIX + i + ".file");
+            if (name != null && name.indexOf('/') < 0 && name.indexOf('\\') < 0) {
+                result.add(new File(manifestFile.getParentFile(), name));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Read a manifest.
+     *
+     * @param manifestFile the manifest file
+     * @return the manifest content, or empty Properties if the file is missing or unreadable
+     */
+    private static Properties readManifest(File manifestFile) {
+        Properties p = new Properties();
+        if (manifestFile.isFile()) {
+            try (InputStream is = new FileInputStream(manifestFile)) {
+                p.load(is);
+            } catch (IOException | IllegalArgumentException e) {
+                p.clear();
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Gets the file of a shard, which is named after the manifest file with the shard index appended to the base name.
+     *
+     * @param manifestFile the manifest file
+     * @param index the shard index
+     * @return the shard file
+     */
+    File getShardFile(File manifestFile, int index) {
+        String name = manifestFile.getName();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        int width = Integer.toString(shardCount - 1).length();
+        return new File(manifestFile.getParentFile(), String.format("%s-%0" + width + "d%s", base, index, extension));
+    }
+
+    /**
+     * Create a SHA-256 MessageDigest.
+     *
+     * @return a new MessageDigest
+     */
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * N-way merge of sources whose keys are sorted in natural String order.
+ * <p>
+ * Only the current entry of each source is kept in memory and the merged properties are written in sorted order
+ * directly to a {@link MergedPropertiesWriter}. Duplicate keys are detected when the same key is at the head of more
+ * than one source. Within a single source the last entry of a repeated key wins, just as when loading Properties.
+ */
+class SortedStreamMerge {
+
+    private final MergeLog log;
+
+    private final boolean overwrite;
+
+    private final MergeListener mergeListener;
+
+    /**
+     * Thrown when a source turns out not to be sorted.
+     */
+    static class UnsortedSourceException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Create an instance.
+         *
+         * @param message the detail message
+         */
+        UnsortedSourceException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * The current entry of a single source.
+     */
+    static final class Head {
+
+        private final int index;
+
+        private final File file;
+
+        private final PropertiesParser parser;
+
+        private String key;
+
+        private String value;
+
+        private boolean pending;
+
+        /**
+         * Create a Head for a source.
+         *
+         * @param index the index of the source in merge order
+         * @param file the source file
+         * @param parser the parser reading the source
+         */
+        Head(int index, File file, PropertiesParser parser) {
+            this.index = index;
+            this.file = file;
+            this.parser = parser;
+        }
+
+        /**
+         * Advance to the next distinct key.
+         *
+         * @return true if there is a current entry
+         * @throws IOException indicating IO Error
+         * @throws UnsortedSourceException if the source is not sorted
+         */
+        boolean advance() throws IOException, UnsortedSourceException {
+            String previous = key;
+            if (!pending && !parser.next()) {
+                return false;
+            }
+            key = parser.getKey();
+            value = parser.getValue();
+            pending = false;
+            if (previous != null && key.compareTo(previous) < 0) {
+                throw new UnsortedSourceException(
+                    "Source " + file + " is not sorted: '" + key + "' follows '" + previous + "'");
+            }
+            while (parser.next()) {
+                if (!parser.getKey().equals(key)) {
+                    pending = true;
+                    break;
+                }
+                value = parser.getValue();
+            }
+            return true;
+        }
+
+        /**
+         * Gets the key of the current entry.
+         *
+         * @return the current key
+         */
+        String getKey() {
+            return key;
+        }
+
+        /**
+         * Gets the value of the current entry.
+         *
+         * @return the current value
+         */
+        String getValue() {
+            return value;
+        }
+
+        private int compareTo(Head other) {
+            int result = key.compareTo(other.key);
+            return result != 0 ? result : Integer.compare(index, other.index);
+        }
+    }
+
+    /**
+     * Create an instance.
+     *
+     * @param log the MergeLog to use
+     * @param overwrite true if duplicate properties should be overwritten, if false a duplicate is a build error
+     * @param mergeListener the MergeListener to notify, may be null
+     */
+    SortedStreamMerge(MergeLog log, boolean overwrite, MergeListener mergeListener) {
+        this.log = log;
+        this.overwrite = overwrite;
+        this.mergeListener = mergeListener;
+    }
+
+    /**
+     * Merge all sources into the writer.
+     *
+     * @param heads the sources to merge in merge order
+     * @param writer the writer to write the merged properties to
+     * @throws IOException indicating IO Error
+     * @throws UnsortedSourceException if a source is not sorted
+     * @throws MergeException if a duplicate key is found and overwrite is false
+     */
+    void merge(List<Head> heads, MergedPropertiesWriter writer)
+        throws IOException, UnsortedSourceException, MergeException {
+
+        PriorityQueue<Head> queue = new PriorityQueue<>(Math.max(1, heads.size()), Head::compareTo);
+        for (Head head : heads) {
+            if (head.advance()) {
+                queue.add(head);
+            }
+        }
+
+        List<Head> current = new ArrayList<>();
+        while (!queue.isEmpty()) {
+            current.clear();
+            Head first = queue.poll();
+            current.add(first);
+            while (!queue.isEmpty() && queue.peek().key.equals(first.key)) {
+                current.add(queue.poll());
+            }
+
+            String key = first.key;
+            String value = first.value;
+            Head winner = first;
+            for (int i = 1; i < current.size(); i++) {
+                Head head = current.get(i);
+                if (overwrite) {
+                    log.info("Overwriting existing Property '" + key + "' (existing value is '" + value
+                        + "', new value is '" + head.value + "') while merging source: " + head.file);
+                    value = head.value;
+                    winner = head;
+                } else {
+                    throw new MergeException("Property '" + key + "' already exists (existing value is '"
+                        + value + "', new value is '" + head.value + "') while merging source: " + head.file);
+                }
+            }
+
+            writer.write(key, value);
+            if (mergeListener != null) {
+                mergeListener.propertyMerged(key, value, winner.file);
+            }
+
+            for (Head head : current) {
+                if (head.advance()) {
+                    queue.add(head);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Thread safe cache of unfiltered source Properties shared between several merges.
+ * <p>
+ * A cached entry is only reused while the modification time and length of the source file are unchanged. The cached
+ * Properties instances are shared and must never be modified by the caller.
+ * <p>
+ * A bounded cache evicts the least recently used sources once the estimated size of the loaded Properties exceeds the
+ * maximum size.
+ */
+public class SourceCache {
+
+    private final Map<String, CachedSource> sources = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long maxSize;
+
+    private long size;
+
+    /**
+     * Create an unbounded SourceCache.
+     */
+    public SourceCache() {
+        this(Long.MAX_VALUE);
+    }
+
+    /**
+     * Create a SourceCache that evicts the least recently used sources when the estimated size of the loaded
+     * Properties exceeds the given maximum.
+     *
+     * @param maxSize the maximum estimated size in bytes
+     */
+    public SourceCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Loads the Properties of a source file.
+     */
+    @FunctionalInterface
+    public interface Loader {
+
+        /**
+         * Load the Properties.
+         *
+         * @return the loaded Properties
+         * @throws MergeException indicating failure
+         */
+        Properties load() throws MergeException;
+    }
+
+    /**
+     * A source that is loaded, or being loaded, together with the file stat it was loaded from.
+     */
+    private static final class CachedSource {
+
+        private final long lastModified;
+
+        private final long length;
+
+        private final FutureTask<Properties> task;
+
+        private long size;
+
+        CachedSource(long lastModified, long length, Loader loader) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.task = new FutureTask<>(loader::load);
+        }
+
+        boolean isValid(long lastModified, long length) {
+            return this.lastModified == lastModified && this.length == length;
+        }
+    }
+
+    /**
+     * Gets the Properties of the given source, loading it if needed. Concurrent requests for the same source wait for
+     * a single load.
+     *
+     * @param source the source file
+     * @param encoding the encoding used when loading the source
+     * @param loader the Loader to use if the source is not cached
+     * @return the Properties of the source
+     * @throws MergeException indicating failure
+     */
+    public Properties get(File source, String encoding, Loader loader) throws MergeException {
+        return get(source, source, encoding, loader);
+    }
+
+    /**
+     * Gets the Properties of the given source, that is part of the statFile, loading it if needed. A source that is an
+     * entry in a JAR file is reused as long as the JAR file is unchanged.
+     *
+     * @param source the source file, or pseudo file identifying an entry in the statFile
+     * @param statFile the file checked for modifications
+     * @param encoding the encoding, and any other option that affects the result, used when loading the source
+     * @param loader the Loader to use if the source is not cached
+     * @return the Properties of the source
+     * @throws MergeException indicating failure
+     */
+    public Properties get(File source, File statFile, String encoding, Loader loader) throws MergeException {
+        String key = source.getAbsolutePath() + '|' + encoding;
+        long lastModified = statFile.lastModified();
+        long length = statFile.length();
+        CachedSource cached;
+        CachedSource loading = null;
+        synchronized (this) {
+            cached = sources.get(key);
+            if (cached == null || !cached.isValid(lastModified, length)) {
+                loading = new CachedSource(lastModified, length, loader);
+                remove(key, cached);
+                sources.put(key, loading);
+            }
+        }
+        if (loading == null) {
+            return await(key, cached);
+        }
+        loading.task.run();
+        Properties result = await(key, loading);
+        if (isBounded()) {
+            long estimate = estimateSize(result);
+            synchronized (this) {
+                if (sources.get(key) == loading) {
+                    loading.size = estimate;
+                    size += estimate;
+                    evict();
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Determine if this cache evicts sources.
+     *
+     * @return true if the cache has a maximum size
+     */
+    private synchronized boolean isBounded() {
+        return maxSize != Long.MAX_VALUE;
+    }
+
+    /**
+     * Grow the maximum size of a bounded cache if the given size is larger.
+     *
+     * @param maxSize the requested maximum estimated size in bytes
+     */
+    synchronized void grow(long maxSize) {
+        if (isBounded() && maxSize > this.maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    /**
+     * Evict the least recently used loaded sources until the cache is within its maximum size.
+     */
+    private void evict() {
+        Iterator<CachedSource> it = sources.values().iterator();
+        while (size > maxSize && it.hasNext()) {
+            CachedSource cached = it.next();
+            if (cached.task.isDone()) {
+                size -= cached.size;
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Remove a cached source if it is still mapped to the given key.
+     *
+     * @param key the cache key
+     * @param cached the source to remove or null
+     */
+    private synchronized void remove(String key, CachedSource cached) {
+        if (cached != null && sources.get(key) == cached) {
+            size -= cached.size;
+            sources.remove(key);
+        }
+    }
+
+    /**
+     * Estimate the number of bytes retained by the given Properties.
+     *
+     * @param properties the Properties to estimate
+     * @return the estimated size in bytes
+     */
+    static long estimateSize(Properties properties) {
+        long estimate = 64;
+        for (Map.Entry<Object, Object> e : properties.entrySet()) {
+            estimate += 112 + 2L * (e.getKey().toString().length() + e.getValue().toString().length());
+        }
+        return estimate;
+    }
+
+    /**
+     * Wait for a source to be loaded.
+     *
+     * @param key the cache key
+     * @param cached the source to wait for
+     * @return the loaded Properties
+     * @throws MergeException indicating failure
+     */
+    private Properties await(String key, CachedSource cached) throws MergeException {
+        try {
+            return cached.task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MergeException("Interrupted while loading " + key, e);
+        } catch (ExecutionException e) {
+            remove(key, cached);
+            Throwable cause = e.getCause();
+            if (cause instanceof MergeException) {
+                throw (MergeException) cause;
+            }
+            throw new MergeException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Gets the number of cached sources.
+     *
+     * @return the number of cached sources
+     */
+    public synchronized int size() {
+        return sources.size();
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Loads unfiltered Properties by decoding the complete source file in a single call.
+ * <p>
+ * The file is read into a byte buffer, decoded into a char buffer using a cached {@link CharsetDecoder} and parsed
+ * directly from the char array. Buffers and decoders are kept per thread and reused for every file loaded by that
+ * thread. Malformed and unmappable input is replaced just as by an {@link java.io.InputStreamReader}.
+ */
+final class SourceDecoder {
+
+    /**
+     * Files larger than this are not decoded in bulk to avoid keeping huge buffers alive per thread.
+     */
+    static final long MAX_BULK_SIZE = 16L * 1024 * 1024;
+
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    /**
+     * Buffers grown beyond this size for a large source are released after the source is loaded.
+     */
+    static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<SourceDecoder> DECODERS = ThreadLocal.withInitial(SourceDecoder::new);
+
+    private final Map<Charset, CharsetDecoder> decoders = new HashMap<>();
+
+    private byte[] bytes = new byte[INITIAL_BUFFER_SIZE];
+
+    private char[] chars = new char[INITIAL_BUFFER_SIZE];
+
+    private SourceDecoder() {
+    }
+
+    /**
+     * Determine if the given source, that may be an entry in a JAR file, can be loaded in bulk. A compressed source is
+     * not, since its uncompressed size is unknown.
+     *
+     * @param source the source
+     * @param encoding the source encoding
+     * @return true if {@link #load(MergeSource, String, KeyFilter)} can be used
+     * @throws IOException indicating IO Error
+     */
+    static boolean isSupported(MergeSource source, String encoding) throws IOException {
+        long length = source.getLength();
+        return encoding != null && Charset.isSupported(encoding) && length >= 0 && length <= MAX_BULK_SIZE
+            && source.getCompression() == Compression.NONE;
+    }
+
+    /**
+     * Load the Properties selected by a KeyFilter from the given source, that may be an entry in a JAR file, using the
+     * buffers of the current thread.
+     *
+     * @param source the source
+     * @param encoding the source encoding
+     * @param keyFilter the KeyFilter to use or null
+     * @return the loaded Properties
+     * @throws IOException indicating IO Error
+     */
+    static Properties load(MergeSource source, String encoding, KeyFilter keyFilter) throws IOException {
+        return DECODERS.get().decodeAndLoad(source, Charset.forName(encoding), keyFilter);
+    }
+
+    /**
+     * Load the keys selected by a KeyFilter from the given source in file order without converting any value, using
+     * the buffers of the current thread.
+     *
+     * @param source the source
+     * @param encoding the source encoding
+     * @param keyFilter the KeyFilter to use or null
+     * @return the keys, including any repeated key
+     * @throws IOException indicating IO Error
+     */
+    static List<String> loadKeys(MergeSource source, String encoding, KeyFilter keyFilter) throws IOException {
+        return DECODERS.get().decodeAndLoadKeys(source, Charset.forName(encoding), keyFilter);
+    }
+
+    /**
+     * Gets the size of the buffers retained by the current thread.
+     *
+     * @return the buffer size in bytes
+     */
+    static long getRetainedSize() {
+        SourceDecoder decoder = DECODERS.get();
+        return decoder.bytes.length + 2L * decoder.chars.length;
+    }
+
+    /**
+     * Read, decode and parse the source.
+     *
+     * @param source the source
+     * @param charset the source Charset
+     * @param keyFilter the KeyFilter to use or null
+     * @return the loaded Properties
+     * @throws IOException indicating IO Error
+     */
+    private Properties decodeAndLoad(MergeSource source, Charset charset, KeyFilter keyFilter) throws IOException {
+        try {
+            int length = decode(source, charset);
+            PropertiesParser parser = new PropertiesParser(chars, length, keyFilter);
+            Properties p = new SourceProperties();
+            while (parser.next()) {
+                p.put(parser.getKey(), parser.getValue());
+            }
+            return p;
+        } finally {
+            releaseBuffers();
+        }
+    }
+
+    /**
+     * Read and decode the source and parse its keys.
+     *
+     * @param source the source
+     * @param charset the source Charset
+     * @param keyFilter the KeyFilter to use or null
+     * @return the keys, including any repeated key
+     * @throws IOException indicating IO Error
+     */
+    private List<String> decodeAndLoadKeys(MergeSource source, Charset charset, KeyFilter keyFilter)
+        throws IOException {
+        try {
+            int length = decode(source, charset);
+            PropertiesParser parser = new PropertiesParser(chars, length, keyFilter);
+            List<String> keys = new ArrayList<>();
+            while (parser.next()) {
+                keys.add(parser.getKey());
+            }
+            return keys;
+        } finally {
+            releaseBuffers();
+        }
+    }
+
+    /**
+     * Release buffers that have grown beyond {@link #MAX_RETAINED_BUFFER_SIZE} so that a single large source does not
+     * keep megabytes alive for the lifetime of the thread.
+     */
+    private void releaseBuffers() {
+        if (bytes.length > MAX_RETAINED_BUFFER_SIZE) {
+            bytes = new byte[INITIAL_BUFFER_SIZE];
+        }
+        if (chars.length > MAX_RETAINED_BUFFER_SIZE) {
+            chars = new char[INITIAL_BUFFER_SIZE];
+        }
+    }
+
+    /**
+     * Read and decode the source into the char buffer.
+     *
+     * @param source the source
+     * @param charset the source Charset
+     * @return the number of decoded chars
+     * @throws IOException indicating IO Error
+     */
+    private int decode(MergeSource source, Charset charset) throws IOException {
+        int length = read(source);
+
+        CharsetDecoder decoder = decoders.computeIfAbsent(charset, c -> c.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE));
+        decoder.reset();
+
+        int maxChars = (int) Math.ceil(length * (double) decoder.maxCharsPerByte()) + 1;
+        if (chars.length < maxChars) {
+            chars = new char[maxChars];
+        }
+        ByteBuffer in = ByteBuffer.wrap(bytes, 0, length);
+        CharBuffer out = CharBuffer.wrap(chars);
+        CoderResult result = decoder.decode(in, out, true);
+        if (!result.isUnderflow()) {
+            result.throwException();
+        }
+        result = decoder.flush(out);
+        if (!result.isUnderflow()) {
+            throw new CharacterCodingException();
+        }
+        return out.position();
+    }
+
+    /**
+     * Read the complete source into the byte buffer, that is sized from the source length so that a large source is
+     * read without growing the buffer.
+     *
+     * @param source the source
+     * @return the number of bytes read
+     * @throws IOException indicating IO Error
+     */
+    private int read(MergeSource source) throws IOException {
+        // One extra byte lets the final read detect the end of the source without growing a full buffer
+        long expected = source.getLength() + 1;
+        if (expected > bytes.length && expected <= MAX_BULK_SIZE + 1) {
+            bytes = new byte[(int) expected];
+        }
+        try (InputStream is = source.openStream()) {
+            int length = 0;
+            while (true) {
+                if (length == bytes.length) {
+                    byte[] buf = new byte[bytes.length * 2];
+                    System.arraycopy(bytes, 0, buf, 0, length);
+                    bytes = buf;
+                }
+                int n = is.read(bytes, length, bytes.length - length);
+                if (n < 0) {
+                    return length;
+                }
+                length += n;
+            }
+        }
+    }
+}
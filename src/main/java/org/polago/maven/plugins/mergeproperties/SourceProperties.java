@@ -0,0 +1,74 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Properties loaded from a source that remember the order in which the keys appear in the source.
+ */
+class SourceProperties extends Properties {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<String> keyOrder = new ArrayList<>();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized Object put(Object key, Object value) {
+        Object previous = super.put(key, value);
+        if (previous == null) {
+            keyOrder.add((String) key);
+        }
+        return previous;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized Object remove(Object key) {
+        Object previous = super.remove(key);
+        if (previous != null) {
+            keyOrder.remove(key);
+        }
+        return previous;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void clear() {
+        super.clear();
+        keyOrder.clear();
+    }
+
+    /**
+     * Gets the keys in source order.
+     *
+     * @return an unmodifiable list of the keys
+     */
+    synchronized List<String> getKeyOrder() {
+        return Collections.unmodifiableList(keyOrder);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the {@link JarSource} class.
+ */
+public class JarSourceTest {
+
+    private static File jar(Path dir, String name, String... entries) throws IOException {
+        File jar = dir.resolve(name).toFile();
+        try (ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(jar)))) {
+            out.putNextEntry(new ZipEntry("META-INF/"));
+            out.closeEntry();
+            for (String entry : entries) {
+                out.putNextEntry(new ZipEntry(entry));
+                out.write("a=1\n".getBytes(StandardCharsets.ISO_8859_1));
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    private static List<String> entries(File file) throws IOException {
+        try (JarSource jar = new JarSource(file)) {
+            return jar.getEntries();
+        }
+    }
+
+    @Test
+    public void testIndexIsReused(@TempDir Path tempDir) throws Exception {
+        File file = jar(tempDir, "a.jar", "b.properties", "a.properties");
+
+        List<String> first = entries(file);
+        List<String> second = entries(file);
+
+        assertEquals(Arrays.asList("a.properties", "b.properties"), first);
+        assertSame(first, second);
+    }
+
+    @Test
+    public void testChangedJarIsIndexed(@TempDir Path tempDir) throws Exception {
+        File file = jar(tempDir, "a.jar", "a.properties");
+        Files.write(new File(file.getPath() + ".sha1").toPath(),
+            "da39a3ee5e6b4b0d3255bfef95601890afd80709".getBytes(StandardCharsets.US_ASCII));
+        List<String> first = entries(file);
+
+        jar(tempDir, "a.jar", "a.properties", "b.properties");
+        List<String> second = entries(file);
+
+        assertNotSame(first, second);
+        assertEquals(Arrays.asList("a.properties", "b.properties"), second);
+    }
+
+    @Test
+    public void testIndexIsBounded(@TempDir Path tempDir) throws Exception {
+        String[] names = new String[JarSource.MAX_INDEX_SIZE / 2 + 1];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "e" + i;
+        }
+        for (int i = 0; i < 3; i++) {
+            assertEquals(names.length, entries(jar(tempDir, i + ".jar", names)).size());
+            assertTrue(JarSource.getIndexSize() <= JarSource.MAX_INDEX_SIZE);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.model.Resource;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.plugin.descriptor.PluginDescriptorBuilder;
+import org.apache.maven.plugin.testing.SilentLog;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.classworlds.ClassWorld;
+import org.codehaus.plexus.component.configurator.BasicComponentConfigurator;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link MergeAggregateMojo} class.
+ */
+public class MergeAggregateMojoTest {
+
+    private MergeAggregateMojo mojo;
+
+    private MavenExecutionRequest request;
+
+    @BeforeEach
+    @SuppressWarnings("deprecation")
+    public void setUp() throws Exception {
+        PluginDescriptor descriptor;
+        try (Reader reader = new InputStreamReader(
+            new FileInputStream("target/classes/META-INF/maven/plugin.xml"), StandardCharsets.UTF_8)) {
+            descriptor = new PluginDescriptorBuilder().build(reader);
+        }
+        descriptor.setClassRealm(new ClassWorld("test", getClass().getClassLoader()).getClassRealm("test"));
+
+        request = new DefaultMavenExecutionRequest();
+
+        mojo = new MergeAggregateMojo();
+        mojo.setPlugin(descriptor);
+        mojo.setSession(new MavenSession(null, null, request, new DefaultMavenExecutionResult()));
+        mojo.setConfigurator(new BasicComponentConfigurator());
+        mojo.setLog(new SilentLog());
+    }
+
+    private static Xpp3Dom element(String name, String value) {
+        Xpp3Dom dom = new Xpp3Dom(name);
+        dom.setValue(value);
+        return dom;
+    }
+
+    private static MavenProject createProject(String artifactId, String goal, String outputFile) {
+        Model model = new Model();
+        model.setArtifactId(artifactId);
+        MavenProject project = new MavenProject(model);
+        project.setFile(new File("target/" + artifactId + "/pom.xml").getAbsoluteFile());
+
+        Xpp3Dom pluginConfiguration = new Xpp3Dom("configuration");
+        pluginConfiguration.addChild(element("outputDirectory", "target/merged"));
+        pluginConfiguration.addChild(element("encoding", "UTF-8"));
+
+        Xpp3Dom resource = new Xpp3Dom("resource");
+        resource.addChild(element("directory", "src/main/properties"));
+        resource.addChild(element("filtering", "true"));
+        resource.addChild(element("precedence", "2"));
+        Xpp3Dom includes = new Xpp3Dom("includes");
+        includes.addChild(element("include", "**/*_en.properties"));
+        resource.addChild(includes);
+        Xpp3Dom resources = new Xpp3Dom("resources");
+        resources.addChild(resource);
+        Xpp3Dom executionConfiguration = new Xpp3Dom("configuration");
+        if (outputFile != null) {
+            executionConfiguration.addChild(element("outputFile", outputFile));
+        }
+        executionConfiguration.addChild(resources);
+
+        PluginExecution execution = new PluginExecution();
+        execution.setId("default");
+        execution.setGoals(Collections.singletonList(goal));
+        execution.setConfiguration(executionConfiguration);
+
+        Plugin plugin = new Plugin();
+        plugin.setGroupId("org.polago.maven.plugins");
+        plugin.setArtifactId("merge-properties-maven-plugin");
+        plugin.setConfiguration(pluginConfiguration);
+        plugin.addExecution(execution);
+        model.setBuild(new Build());
+        model.getBuild().addPlugin(plugin);
+        return project;
+    }
+
+    @Test
+    public void testFindMergeExecutions() {
+        List<MergeAggregateMojo.MergeExecution> executions = mojo.findMergeExecutions(Arrays.asList(
+            createProject("a", "merge", "out.properties"), createProject("b", "merge", "out.properties"),
+            createProject("c", "other", "out.properties")));
+
+        assertEquals(2, executions.size());
+        MergeAggregateMojo.MergeExecution execution = executions.get(0);
+        assertEquals("a:default", execution.getModule());
+        assertEquals("out.properties", execution.getConfiguration().getChild("outputFile").getValue());
+        assertEquals("UTF-8", execution.getConfiguration().getChild("encoding").getValue());
+    }
+
+    @Test
+    public void testConfigure() throws Exception {
+        MergeAggregateMojo.MergeExecution execution = mojo
+            .findMergeExecutions(Collections.singletonList(createProject("a", "merge", "out.properties"))).get(0);
+
+        MergePropertiesMojo merge = mojo.configure(execution);
+
+        assertEquals(new File("target/a/target/merged").getAbsoluteFile(), merge.getOutputDirectory());
+        assertFalse(merge.isSkip());
+        List<Resource> resources = merge.getResources();
+        assertEquals(1, resources.size());
+        assertEquals("src/main/properties", resources.get(0).getDirectory());
+        assertTrue(resources.get(0).isFiltering());
+        assertEquals(2, MergeResource.getPrecedence(resources.get(0)));
+        assertEquals(Collections.singletonList("**/*_en.properties"), resources.get(0).getIncludes());
+    }
+
+    @Test
+    public void testConfigureUserPropertyBeforeProjectProperty() throws Exception {
+        MavenProject project = createProject("a", "merge", "out.properties");
+        project.getProperties().setProperty("merge.properties.skip", "false");
+        request.getUserProperties().setProperty("merge.properties.skip", "true");
+        MergeAggregateMojo.MergeExecution execution =
+            mojo.findMergeExecutions(Collections.singletonList(project)).get(0);
+
+        assertTrue(mojo.configure(execution).isSkip());
+    }
+
+    @Test
+    public void testConfigureMissingParameter() {
+        MergeAggregateMojo.MergeExecution execution =
+            mojo.findMergeExecutions(Collections.singletonList(createProject("a", "merge", null))).get(0);
+
+        MojoExecutionException e = assertThrows(MojoExecutionException.class, () -> mojo.configure(execution));
+        assertTrue(e.getMessage().contains("outputFile"), e.getMessage());
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.testing.SilentLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the {@link MergeDiffMojo} class.
+ */
+public class MergeDiffMojoTest {
+
+    @TempDir
+    Path tempDir;
+
+    private MergeDiffMojo mojo;
+
+    private File report;
+
+    private File write(String name, String content) throws IOException {
+        File file = tempDir.resolve(name).toFile();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.ISO_8859_1));
+        return file;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        report = tempDir.resolve("report/diff.jsonl").toFile();
+        mojo = new MergeDiffMojo();
+        mojo.setLog(new SilentLog());
+        mojo.setOutputDirectory(tempDir.toFile());
+        mojo.setOutputFile("out.properties");
+        mojo.setEncoding("ISO-8859-1");
+        mojo.setReport(report);
+    }
+
+    @Test
+    public void testDiff() throws Exception {
+        mojo.setBaseline(write("baseline.properties", "a=1\nb=2\nc=3\nd=4\n"));
+        write("out.properties", "a=1\nb=two\\n\"2\"\nd=4\ne=5\n");
+
+        mojo.execute();
+
+        List<String> lines = Files.readAllLines(report.toPath(), StandardCharsets.UTF_8);
+        assertEquals(4, lines.size());
+        assertEquals("{\"type\":\"changed\",\"key\":\"b\",\"oldValue\":\"2\",\"value\":\"two\\n\\\"2\\\"\"}",
+            lines.get(0));
+        assertEquals("{\"type\":\"removed\",\"key\":\"c\",\"oldValue\":\"3\"}", lines.get(1));
+        assertEquals("{\"type\":\"added\",\"key\":\"e\",\"value\":\"5\"}", lines.get(2));
+        assertEquals("{\"type\":\"summary\",\"added\":1,\"removed\":1,\"changed\":1,\"unchanged\":2}", lines.get(3));
+    }
+
+    @Test
+    public void testFailOnChanges() throws Exception {
+        mojo.setBaseline(write("baseline.properties", "a=1\n"));
+        write("out.properties", "a=2\n");
+        mojo.setFailOnChanges(true);
+
+        assertThrows(MojoFailureException.class, () -> mojo.execute());
+    }
+
+    @Test
+    public void testBaselineEntryInJar() throws Exception {
+        File jar = tempDir.resolve("baseline.jar").toFile();
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+            out.putNextEntry(new ZipEntry("out.properties"));
+            out.write("a=1\nb=2\n".getBytes(StandardCharsets.ISO_8859_1));
+            out.closeEntry();
+        }
+        mojo.setBaseline(jar);
+        mojo.setBaselineEntry("out.properties");
+        mojo.setFailOnChanges(true);
+        write("out.properties", "a=1\nb=2\n");
+
+        mojo.execute();
+
+        assertEquals("{\"type\":\"summary\",\"added\":0,\"removed\":0,\"changed\":0,\"unchanged\":2}",
+            Files.readAllLines(report.toPath(), StandardCharsets.UTF_8).get(0));
+    }
+
+    @Test
+    public void testUnsorted() throws Exception {
+        mojo.setBaseline(write("baseline.properties", "b=1\na=1\n"));
+        write("out.properties", "a=1\n");
+
+        MojoExecutionException e = assertThrows(MojoExecutionException.class, () -> mojo.execute());
+        assertTrue(e.getMessage().contains("is not sorted"));
+    }
+}
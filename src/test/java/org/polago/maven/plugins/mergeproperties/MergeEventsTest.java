@@ -0,0 +1,83 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the {@link MergeEvents} class.
+ */
+public class MergeEventsTest {
+
+    private static final String PREFIX = "org.polago.maven.plugins.mergeproperties.";
+
+    @Test
+    public void testNotRecording() {
+        try (MergeEvents.Span span = MergeEvents.begin(MergeEvents.Kind.SOURCE, "a.properties")) {
+            assertFalse(span.isRecording());
+        }
+    }
+
+    @Test
+    public void testRecording(@TempDir Path tempDir) throws Exception {
+        List<MergeSource> sources = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Path file = tempDir.resolve(i + ".properties");
+            Files.write(file, ("a" + i + "=1\nb" + i + "=2\n").getBytes(StandardCharsets.ISO_8859_1));
+            sources.add(new MergeSource(file, false, 0));
+        }
+        Path dump = tempDir.resolve("merge.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(PREFIX + "Source");
+            recording.enable(PREFIX + "Merge");
+            recording.start();
+            new PropertiesMergeEngine().merge(sources);
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> loaded = new ArrayList<>();
+        List<RecordedEvent> merged = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+            if (event.getEventType().getName().equals(PREFIX + "Source")) {
+                loaded.add(event);
+            } else if (event.getEventType().getName().equals(PREFIX + "Merge")) {
+                merged.add(event);
+            }
+        }
+        assertEquals(2, loaded.size());
+        assertEquals(2, loaded.get(0).getInt("keys"));
+        assertEquals(10L, loaded.get(0).getLong("bytes"));
+        assertEquals(1, merged.size());
+        assertEquals(2, merged.get(0).getInt("count"));
+        assertEquals(4, merged.get(0).getInt("keys"));
+    }
+}
@@ -20,26 +20,52 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
-
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.configuration2.MapConfiguration;
+import org.apache.commons.configuration2.PropertiesConfiguration;
+import org.apache.commons.configuration2.PropertiesConfigurationLayout;
+import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.apache.maven.model.Resource;
 import org.apache.maven.plugin.testing.SilentLog;
+import org.apache.maven.project.MavenProject;
 import org.apache.maven.shared.filtering.DefaultMavenFileFilter;
 import org.apache.maven.shared.filtering.FilterWrapper;
 import org.apache.maven.shared.filtering.MavenFileFilter;
 import org.apache.maven.shared.filtering.MavenFilteringException;
 import org.apache.maven.shared.filtering.MavenResourcesExecution;
+import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.Scanner;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.sonatype.plexus.build.incremental.BuildContext;
 import org.sonatype.plexus.build.incremental.DefaultBuildContext;
 
@@ -54,6 +80,8 @@ public class MergeProperitesMavenResourcesFilteringTest {
 
         File storedFile = null;
 
+        boolean writeOutput = false;
+
         public TestMergeProperitesMavenResourcesFiltering(MavenFileFilter mavenFileFilter, BuildContext buildContext) {
             super(mavenFileFilter, buildContext);
         }
@@ -65,6 +93,13 @@ public class MergeProperitesMavenResourcesFilteringTest {
         protected void storeProperties(Properties properties, File file) throws MavenFilteringException {
             storedProperties = properties;
             storedFile = file;
+            if (writeOutput) {
+                try {
+                    Files.write(file.toPath(), new byte[0]);
+                } catch (IOException e) {
+                    throw new MavenFilteringException(e.getMessage(), e);
+                }
+            }
         }
 
     };
@@ -121,6 +156,11 @@ public class MergeProperitesMavenResourcesFilteringTest {
         }
     }
 
+    /**
+     * The merged output of the sorted sources test cases.
+     */
+    private static final String SORTED_OUTPUT = "a=1\nb=2\nc=3\nd=4\nd\\:x=\\u00E5\ne=5 and more\n";
+
     private TestMergeProperitesMavenResourcesFiltering filtering;
 
     private final String outputFile = "out.properties";
@@ -288,4 +328,598 @@ public class MergeProperitesMavenResourcesFilteringTest {
         assertTrue(filterWrapper.called);
     }
 
+    @Test
+    public void testUpToDateSkipsReadingResources(@TempDir Path tempDir) throws MavenFilteringException, IOException {
+        File resourceDirectory = tempDir.resolve("resources").toFile();
+        resourceDirectory.mkdirs();
+        Files.copy(new File(sourceDirectory, "test1.properties").toPath(),
+            new File(resourceDirectory, "test1.properties").toPath());
+
+        List<Resource> resources = new ArrayList<Resource>();
+        Resource resource = new Resource();
+        resource.setDirectory(resourceDirectory.getPath());
+        resource.setFiltering(true);
+        resources.add(resource);
+
+        MavenResourcesExecution execution = new MavenResourcesExecution();
+        execution.setResources(resources);
+        execution.setOutputDirectory(tempDir.resolve("out").toFile());
+        execution.setEncoding("UTF-8");
+        execution.setFilterWrappers(filterWrappers);
+
+        filtering.setWorkDirectory(tempDir.resolve("work").toFile());
+        filtering.writeOutput = true;
+
+        filtering.filterResources(execution);
+        assertTrue(filterWrapper.called);
+
+        filterWrapper.called = false;
+        filtering.filterResources(execution);
+        assertFalse(filterWrapper.called);
+
+        File source = new File(resourceDirectory, "test1.properties");
+        source.setLastModified(source.lastModified() + 2000L);
+        filtering.filterResources(execution);
+        assertTrue(filterWrapper.called);
+
+        filterWrapper.called = false;
+        Files.copy(new File(sourceDirectory, "test2.properties").toPath(),
+            new File(resourceDirectory, "test2.properties").toPath());
+        new File(resourceDirectory, "test2.properties").setLastModified(source.lastModified());
+        resourceDirectory.setLastModified(resourceDirectory.lastModified() + 2000L);
+        filtering.filterResources(execution);
+        assertTrue(filterWrapper.called);
+    }
+
+    @Test
+    public void testConfigurationChangeRewritesOutput(@TempDir Path tempDir)
+        throws MavenFilteringException, IOException {
+        MavenResourcesExecution execution = createSortedExecution(tempDir, "a=1\nb=2\n", "c=3\n");
+        filtering.setWorkDirectory(tempDir.resolve("work").toFile());
+        filtering.writeOutput = true;
+        filtering.filterResources(execution);
+
+        filtering.storedProperties = null;
+        filtering.setResolvePlaceholders(true);
+        filtering.filterResources(execution);
+        assertNotNull(filtering.storedProperties);
+        assertEquals(3, filtering.storedProperties.size());
+
+        filtering.storedProperties = null;
+        filtering.filterResources(execution);
+        assertNull(filtering.storedProperties);
+    }
+
+    @Test
+    public void testDeletedSourceRewritesOutput(@TempDir Path tempDir) throws MavenFilteringException, IOException {
+        MavenResourcesExecution execution = createSortedExecution(tempDir, "a=1\nb=2\n", "c=3\n");
+        filtering.setWorkDirectory(tempDir.resolve("work").toFile());
+        filtering.writeOutput = true;
+        filtering.filterResources(execution);
+
+        filtering.storedProperties = null;
+        File resourceDirectory = tempDir.resolve("sorted").toFile();
+        long directoryModified = resourceDirectory.lastModified();
+        Files.delete(new File(resourceDirectory, "file1.properties").toPath());
+        resourceDirectory.setLastModified(directoryModified);
+        filtering.filterResources(execution);
+        assertNotNull(filtering.storedProperties);
+        assertEquals(2, filtering.storedProperties.size());
+        assertNull(filtering.storedProperties.getProperty("c"));
+
+        filtering.storedProperties = null;
+        filtering.filterResources(execution);
+        assertNull(filtering.storedProperties);
+    }
+
+    @Test
+    public void testUpToDateNotifiesMergeListener(@TempDir Path tempDir) throws MavenFilteringException, IOException {
+        MavenResourcesExecution execution = createSortedExecution(tempDir, "a=1\nb=2\n", "c=3\n");
+        filtering.setWorkDirectory(tempDir.resolve("work").toFile());
+        filtering.writeOutput = true;
+        filtering.filterResources(execution);
+
+        List<String> merged = new ArrayList<>();
+        filtering.setMergeListener((key, value, source) -> merged.add(key + "=" + value + " " + source.getName()));
+        filtering.filterResources(execution);
+
+        Collections.sort(merged);
+        assertEquals(Arrays.asList("a=null file0.properties", "b=null file0.properties", "c=null file1.properties"),
+            merged);
+    }
+
+    private MavenResourcesExecution createSortedExecution(Path tempDir, String... files) throws IOException {
+        File resourceDirectory = tempDir.resolve("sorted").toFile();
+        resourceDirectory.mkdirs();
+        for (int i = 0; i < files.length; i++) {
+            Files.write(new File(resourceDirectory, "file" + i + ".properties").toPath(),
+                files[i].getBytes(StandardCharsets.ISO_8859_1));
+        }
+
+        List<Resource> resources = new ArrayList<Resource>();
+        Resource resource = new Resource();
+        resource.setDirectory(resourceDirectory.getPath());
+        resources.add(resource);
+
+        MavenResourcesExecution execution = new MavenResourcesExecution();
+        execution.setResources(resources);
+        execution.setOutputDirectory(tempDir.resolve("out").toFile());
+        execution.setEncoding("ISO-8859-1");
+        execution.setFilterWrappers(filterWrappers);
+        return execution;
+    }
+
+    @Test
+    public void testSortedSourcesAreStreamed(@TempDir Path tempDir) throws MavenFilteringException, IOException {
+        MavenResourcesExecution execution =
+            createSortedExecution(tempDir, "a=1\nc=3\ne=5 and more\n", "b=2\nd=old\nd=4\nd\\:x=\\u00e5\n");
+        filtering.setSortedSources(true);
+
+        filtering.filterResources(execution);
+
+        assertNull(filtering.storedProperties);
+        String streamed = readOutput(tempDir);
+        assertEquals(SORTED_OUTPUT, streamed.replace("\r", ""));
+        assertEquals(baselineOutput(SORTED_OUTPUT), streamed);
+    }
+
+    @Test
+    public void testUnsortedSourcesFallbackOutput(@TempDir Path tempDir) throws MavenFilteringException, IOException {
+        MavenResourcesExecution execution =
+            createSortedExecution(tempDir, "e=5 and more\na=1\nc=3\n", "b=2\nd=old\nd=4\nd\\:x=\\u00e5\n");
+        MergeProperitesMavenResourcesFiltering inMemory =
+            new MergeProperitesMavenResourcesFiltering(null, buildContext);
+        inMemory.enableLogging(new SilentLog());
+        inMemory.setOutputFile(outputFile);
+        inMemory.setOverwriteProperties(true);
+        inMemory.setSortedSources(true);
+
+        inMemory.filterResources(execution);
+
+        String merged = readOutput(tempDir);
+        assertEquals(SORTED_OUTPUT, merged.replace("\r", ""));
+        assertEquals(baselineOutput(SORTED_OUTPUT), merged);
+    }
+
+    private String readOutput(Path tempDir) throws IOException {
+        return new String(Files.readAllBytes(tempDir.resolve("out").resolve(outputFile)), Charset.defaultCharset());
+    }
+
+    /**
+     * Write the properties the way the plugin did before the merged output was streamed, i.e. by copying the sorted
+     * properties into an apache Commons-Configuration PropertiesConfiguration.
+     */
+    private String baselineOutput(String properties) throws IOException {
+        Properties expected = new Properties();
+        expected.load(new StringReader(properties));
+        TreeMap<String, Object> sortedByKeyMap = new TreeMap<>();
+        expected.forEach((key, value) -> sortedByKeyMap.put((String) key, value));
+        PropertiesConfiguration p = new PropertiesConfiguration();
+        PropertiesConfigurationLayout layout = new PropertiesConfigurationLayout();
+        layout.setGlobalSeparator("=");
+        p.setLayout(layout);
+        p.copy(new MapConfiguration(sortedByKeyMap));
+        StringWriter writer = new StringWriter();
+        try {
+            p.write(writer);
+        } catch (ConfigurationException e) {
+            throw new IOException(e);
+        }
+        return writer.toString();
+    }
+
+    @Test
+    public void testSortedSourcesDuplicate(@TempDir Path tempDir) throws IOException {
+        MavenResourcesExecution execution = createSortedExecution(tempDir, "a=1\nb=2\n", "b=3\n");
+        filtering.setSortedSources(true);
+        filtering.setOverwriteProperties(false);
+
+        assertThrows(MavenFilteringException.class, () -> filtering.filterResources(execution));
+        assertFalse(tempDir.resolve("out").resolve(outputFile).toFile().exists());
+    }
+
+    @Test
+    public void testUnsortedSourcesRevertsToInMemoryMerge(@TempDir Path tempDir)
+        throws MavenFilteringException, IOException {
+        MavenResourcesExecution execution = createSortedExecution(tempDir, "a=1\nc=3\n", "d=4\nb=2\n");
+        filtering.setSortedSources(true);
+
+        filtering.filterResources(execution);
+
+        assertNotNull(filtering.storedProperties);
+        assertEquals(4, filtering.storedProperties.size());
+    }
+
+    @Test
+    public void testMergeStrategyStatistics(@TempDir Path tempDir) throws MavenFilteringException, IOException {
+        MavenResourcesExecution execution = createSortedExecution(tempDir, "a=1\nc=3\n", "d=4\nb=2\n");
+        execution.setOverwrite(true);
+        File workDirectory = tempDir.resolve("work").toFile();
+        filtering.setWorkDirectory(workDirectory);
+
+        filtering.filterResources(execution);
+
+        File[] statsFiles = workDirectory.listFiles((dir, name) -> name.endsWith(".stats"));
+        assertEquals(1, statsFiles.length);
+        MergeStats stats = MergeStats.read(statsFiles[0]);
+        assertEquals(MergeStrategy.PARALLEL, stats.getStrategy());
+        assertEquals(2, stats.getFiles());
+        assertEquals(16, stats.getBytes());
+        assertEquals(4, stats.getKeys());
+        assertNull(stats.getStreamable());
+
+        filtering.setMergeStrategy(MergeStrategy.STREAMED);
+        filtering.filterResources(execution);
+
+        stats = MergeStats.read(statsFiles[0]);
+        assertEquals(MergeStrategy.STREAMED, stats.getStrategy());
+        assertEquals(Boolean.FALSE, stats.getStreamable());
+        assertEquals(4, filtering.storedProperties.size());
+
+        filtering.setMergeStrategy(MergeStrategy.AUTO);
+        filtering.filterResources(execution);
+
+        assertEquals(MergeStrategy.SERIAL, MergeStats.read(statsFiles[0]).getStrategy());
+    }
+
+    @Test
+    public void testStreamedMergeStatistics(@TempDir Path tempDir) throws MavenFilteringException, IOException {
+        MavenResourcesExecution execution = createSortedExecution(tempDir, "a=1\nc=3\n", "b=2\nd=4\ne=5\n");
+        File workDirectory = tempDir.resolve("work").toFile();
+        filtering.setWorkDirectory(workDirectory);
+        filtering.setMergeStrategy(MergeStrategy.STREAMED);
+
+        filtering.filterResources(execution);
+
+        assertNull(filtering.storedProperties);
+        File[] statsFiles = workDirectory.listFiles((dir, name) -> name.endsWith(".stats"));
+        assertEquals(1, statsFiles.length);
+        MergeStats stats = MergeStats.read(statsFiles[0]);
+        assertEquals(MergeStrategy.STREAMED, stats.getStrategy());
+        assertEquals(Boolean.TRUE, stats.getStreamable());
+        assertEquals(5, stats.getKeys());
+    }
+
+    private static void writeCompressed(File file, String content) throws IOException {
+        try (OutputStream os = Compression.forName(file.getName()).compress(new FileOutputStream(file))) {
+            os.write(content.getBytes(StandardCharsets.ISO_8859_1));
+        }
+    }
+
+    private static String read(File file, Compression compression) throws IOException {
+        InputStream is = compression.decompress(new FileInputStream(file));
+        try (Reader r = new InputStreamReader(is, StandardCharsets.ISO_8859_1)) {
+            return IOUtil.toString(r);
+        }
+    }
+
+    @Test
+    public void testCompressedResources(@TempDir Path tempDir) throws MavenFilteringException, IOException {
+        MavenResourcesExecution execution = createSortedExecution(tempDir, "a=1\n");
+        File resourceDirectory = tempDir.resolve("sorted").toFile();
+        writeCompressed(new File(resourceDirectory, "b.properties.gz"), "b=2\nb.x=\u00e5\n");
+        writeCompressed(new File(resourceDirectory, "c.properties.deflate"), "c=3\n");
+        writeCompressed(new File(resourceDirectory, "d.txt.gz"), "d=4\n");
+
+        filtering.filterResources(execution);
+
+        assertNotNull(filtering.storedProperties);
+        assertEquals(4, filtering.storedProperties.size());
+        assertEquals("\u00e5", filtering.storedProperties.getProperty("b.x"));
+        assertEquals("3", filtering.storedProperties.getProperty("c"));
+    }
+
+    @Test
+    public void testCompressedOutput(@TempDir Path tempDir) throws MavenFilteringException, IOException {
+        Properties properties = new Properties();
+        properties.setProperty("a", "1");
+        properties.setProperty("b", "\u00e5");
+        MergeProperitesMavenResourcesFiltering plain = new MergeProperitesMavenResourcesFiltering(null, buildContext);
+        File expected = tempDir.resolve("expected.properties").toFile();
+        plain.storeProperties(properties, expected);
+
+        MergeProperitesMavenResourcesFiltering compressed =
+            new MergeProperitesMavenResourcesFiltering(null, buildContext);
+        for (Compression compression : Arrays.asList(Compression.GZIP, Compression.DEFLATE)) {
+            compressed.setOutputCompression(compression);
+            File file = tempDir.resolve("out.properties" + compression.getExtension()).toFile();
+            compressed.storeProperties(properties, file);
+            assertEquals(read(expected, Compression.NONE), read(file, compression));
+        }
+    }
+
+    @Test
+    public void testSortedSourcesCompressedOutput(@TempDir Path tempDir) throws MavenFilteringException, IOException {
+        MavenResourcesExecution execution = createSortedExecution(tempDir, "a=1\nc=3\n", "b=2\n");
+        filtering.setSortedSources(true);
+        filtering.setOutputCompression(Compression.GZIP);
+
+        filtering.filterResources(execution);
+
+        assertNull(filtering.storedProperties);
+        assertEquals("a=1\nb=2\nc=3\n",
+            read(tempDir.resolve("out").resolve(outputFile).toFile(), Compression.GZIP).replace("\r\n", "\n"));
+    }
+
+    @Test
+    public void testOutputDigest(@TempDir Path tempDir) throws MavenFilteringException, IOException {
+        MavenResourcesExecution execution = createSortedExecution(tempDir, "a.x=1\nb.y=3\n", "a.z=2\nc=4\n");
+        filtering.setSortedSources(true);
+        filtering.setOutputDigest(true);
+
+        filtering.filterResources(execution);
+
+        File streamed = OutputDigest.getSidecarFile(tempDir.resolve("out").resolve(outputFile).toFile());
+        Properties digests = new Properties();
+        try (InputStream is = new FileInputStream(streamed)) {
+            digests.load(is);
+        }
+        assertEquals("4", digests.getProperty("keys"));
+        assertNotNull(digests.getProperty("digest"));
+        assertNotNull(digests.getProperty("namespace.a"));
+        assertNotNull(digests.getProperty("namespace.c"));
+
+        Properties properties = new Properties();
+        properties.load(new StringReader("a.x=1\nb.y=3\na.z=2\nc=4\n"));
+        MergeProperitesMavenResourcesFiltering inMemory =
+            new MergeProperitesMavenResourcesFiltering(null, buildContext);
+        inMemory.setOutputDigest(true);
+        File stored = tempDir.resolve("stored.properties").toFile();
+        inMemory.storeProperties(properties, stored);
+        File sidecar = OutputDigest.getSidecarFile(stored);
+        assertEquals(new String(Files.readAllBytes(streamed.toPath()), StandardCharsets.ISO_8859_1),
+            new String(Files.readAllBytes(sidecar.toPath()), StandardCharsets.ISO_8859_1));
+    }
+
+    private File createJar(Path tempDir, String... entries) throws IOException {
+        File jar = tempDir.resolve("dependency.jar").toFile();
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+            out.putNextEntry(new ZipEntry("config/"));
+            out.closeEntry();
+            for (int i = 0; i < entries.length; i += 2) {
+                out.putNextEntry(new ZipEntry(entries[i]));
+                out.write(entries[i + 1].getBytes(StandardCharsets.ISO_8859_1));
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    @Test
+    public void testDependencyResources(@TempDir Path tempDir) throws MavenFilteringException, IOException {
+        MavenResourcesExecution execution = createSortedExecution(tempDir, "a=local\n");
+        File jar = createJar(tempDir, "config/a.properties", "a=jar\nb=2\n", "config/c.properties", "c=3\n",
+            "other/d.properties", "d=4\n", "config/e.txt", "e=5\n");
+
+        DependencyResource resource = new DependencyResource();
+        resource.setGroupId("g");
+        resource.setArtifactId("a");
+        resource.setIncludes(Arrays.asList("config/*.properties"));
+        resource.setExcludes(Arrays.asList("**/c.properties"));
+        resource.setFile(jar);
+        filtering.setDependencyResources(Arrays.asList(resource));
+        filtering.setSourceCache(new SourceCache());
+
+        filtering.filterResources(execution);
+
+        assertNotNull(filtering.storedProperties);
+        assertEquals(2, filtering.storedProperties.size());
+        assertEquals("local", filtering.storedProperties.getProperty("a"));
+        assertEquals("2", filtering.storedProperties.getProperty("b"));
+    }
+
+    @Test
+    public void testDependencyResourcesDuplicate(@TempDir Path tempDir) throws IOException {
+        MavenResourcesExecution execution = createSortedExecution(tempDir, "a=local\n");
+        File jar = createJar(tempDir, "a.properties", "a=jar\n");
+
+        DependencyResource resource = new DependencyResource();
+        resource.setFile(jar);
+        filtering.setDependencyResources(Arrays.asList(resource));
+        filtering.setOverwriteProperties(false);
+
+        MavenFilteringException e = assertThrows(MavenFilteringException.class,
+            () -> filtering.filterResources(execution));
+        assertTrue(e.getMessage().contains("'a' already exists (existing value is 'jar'"));
+    }
+
+    private String mergeInOrder(Path tempDir, OutputOrder order) throws MavenFilteringException, IOException {
+        List<Resource> resources = new ArrayList<Resource>();
+        String[] contents = {"z=1\nb=2\nm=3\n", "a=4\nz=5\n"};
+        for (int i = 0; i < contents.length; i++) {
+            File dir = tempDir.resolve("dir" + i).toFile();
+            dir.mkdirs();
+            Files.write(new File(dir, "file.properties").toPath(), contents[i].getBytes(StandardCharsets.ISO_8859_1));
+            Resource resource = new Resource();
+            resource.setDirectory(dir.getPath());
+            resources.add(resource);
+        }
+        MavenResourcesExecution execution = new MavenResourcesExecution();
+        execution.setResources(resources);
+        execution.setOutputDirectory(tempDir.resolve("out").toFile());
+        execution.setEncoding("ISO-8859-1");
+
+        MergeProperitesMavenResourcesFiltering f = new MergeProperitesMavenResourcesFiltering(null, buildContext);
+        f.enableLogging(new SilentLog());
+        f.setOutputFile(outputFile);
+        f.setOverwriteProperties(true);
+        f.setOutputOrder(order);
+        f.filterResources(execution);
+        return new String(Files.readAllBytes(tempDir.resolve("out").resolve(outputFile)), StandardCharsets.ISO_8859_1);
+    }
+
+    @Test
+    public void testOutputOrderSorted(@TempDir Path tempDir) throws MavenFilteringException, IOException {
+        assertEquals("a=4\nb=2\nm=3\nz=5\n", mergeInOrder(tempDir, OutputOrder.SORTED).replace("\r", ""));
+    }
+
+    @Test
+    public void testOutputOrderSource(@TempDir Path tempDir) throws MavenFilteringException, IOException {
+        assertEquals("z=5\nb=2\nm=3\na=4\n", mergeInOrder(tempDir, OutputOrder.SOURCE).replace("\r", ""));
+    }
+
+    @Test
+    public void testOutputOrderGrouped(@TempDir Path tempDir) throws MavenFilteringException, IOException {
+        assertEquals("b=2\nm=3\na=4\nz=5\n", mergeInOrder(tempDir, OutputOrder.GROUPED).replace("\r", ""));
+    }
+
+    private MavenResourcesExecution createLayeredExecution(Path tempDir, String[] contents, int[] precedences)
+        throws IOException {
+        List<Resource> resources = new ArrayList<Resource>();
+        for (int i = 0; i < contents.length; i++) {
+            File dir = tempDir.resolve("layer" + i).toFile();
+            dir.mkdirs();
+            Files.write(new File(dir, "file.properties").toPath(), contents[i].getBytes(StandardCharsets.ISO_8859_1));
+            MergeResource resource = new MergeResource();
+            resource.setDirectory(dir.getPath());
+            resource.setPrecedence(precedences[i]);
+            resources.add(resource);
+        }
+        MavenResourcesExecution execution = new MavenResourcesExecution();
+        execution.setResources(resources);
+        execution.setOutputDirectory(tempDir.resolve("out").toFile());
+        execution.setEncoding("ISO-8859-1");
+        return execution;
+    }
+
+    @Test
+    public void testPrecedence(@TempDir Path tempDir) throws MavenFilteringException, IOException {
+        String[] contents = {"a=env\n", "a=base\nb=base\nc=base\n", "a=region\nb=region\n"};
+        MavenResourcesExecution execution = createLayeredExecution(tempDir, contents, new int[] {2, 0, 1});
+        filtering.setOverwriteProperties(false);
+
+        filtering.filterResources(execution);
+
+        assertEquals(3, filtering.storedProperties.size());
+        assertEquals("env", filtering.storedProperties.getProperty("a"));
+        assertEquals("region", filtering.storedProperties.getProperty("b"));
+        assertEquals("base", filtering.storedProperties.getProperty("c"));
+    }
+
+    @Test
+    public void testPrecedenceDuplicate(@TempDir Path tempDir) throws IOException {
+        String[] contents = {"a=base\n", "a=env\n", "a=other\n"};
+        MavenResourcesExecution execution = createLayeredExecution(tempDir, contents, new int[] {0, 1, 1});
+        filtering.setOverwriteProperties(false);
+
+        MavenFilteringException e = assertThrows(MavenFilteringException.class,
+            () -> filtering.filterResources(execution));
+        assertTrue(e.getMessage().contains("'a' already exists (existing value is 'env'"));
+    }
+
+    @Test
+    public void testMergedPropertiesFilters(@TempDir Path tempDir) throws MavenFilteringException, IOException {
+        MavenResourcesExecution execution = createSortedExecution(tempDir, "a=1\nb=2\n");
+        AtomicInteger calls = new AtomicInteger();
+        filtering.setMergedPropertiesFilters(Collections.singletonList(p -> {
+            calls.incrementAndGet();
+            p.setProperty("b", "filtered");
+        }));
+        filtering.setSortedSources(true);
+
+        filtering.filterResources(execution);
+
+        assertEquals(1, calls.get());
+        assertEquals("filtered", filtering.storedProperties.getProperty("b"));
+    }
+
+    @Test
+    public void testDaemonCacheKeepsLargestSize() {
+        DaemonCache daemonCache = DaemonCache.getInstance(2L * 1024 * 1024);
+        assertSame(daemonCache, DaemonCache.getInstance(1024L * 1024));
+        assertSame(daemonCache, DaemonCache.getInstance(4L * 1024 * 1024));
+        assertTrue(daemonCache.getMaxSize() >= 4L * 1024 * 1024);
+    }
+
+    @Test
+    public void testDaemonCacheReusesResult(@TempDir Path tempDir) throws MavenFilteringException, IOException {
+        MavenResourcesExecution execution = createSortedExecution(tempDir, "a=1\nb=2\n");
+        AtomicInteger calls = new AtomicInteger();
+        filtering.setMergedPropertiesFilters(Collections.singletonList(p -> calls.incrementAndGet()));
+        DaemonCache daemonCache = new DaemonCache(1024 * 1024);
+        filtering.setDaemonCache(daemonCache);
+
+        filtering.filterResources(execution);
+        Properties merged = filtering.storedProperties;
+        filtering.filterResources(execution);
+
+        assertEquals(1, calls.get());
+        assertEquals(1, daemonCache.getResultCount());
+        assertEquals(merged, filtering.storedProperties);
+
+        File source = tempDir.resolve("sorted").resolve("file0.properties").toFile();
+        Files.write(source.toPath(), "a=1\nb=3\n".getBytes(StandardCharsets.ISO_8859_1));
+        source.setLastModified(source.lastModified() + 2000L);
+        filtering.filterResources(execution);
+
+        assertEquals(2, calls.get());
+        assertEquals("3", filtering.storedProperties.getProperty("b"));
+    }
+
+    private String mergeWithBuildCache(Path checkout, File buildCacheDirectory, AtomicInteger calls,
+        boolean resourceFiltering) throws MavenFilteringException, IOException {
+        MavenProject project = new MavenProject();
+        project.setFile(checkout.resolve("pom.xml").toFile());
+        List<Resource> resources = new ArrayList<Resource>();
+        Resource resource = new Resource();
+        resource.setDirectory(checkout.resolve("src").toString());
+        resource.setFiltering(resourceFiltering);
+        resources.add(resource);
+        MavenResourcesExecution execution = new MavenResourcesExecution();
+        execution.setResources(resources);
+        execution.setOutputDirectory(checkout.resolve("out").toFile());
+        execution.setEncoding("ISO-8859-1");
+        execution.setMavenProject(project);
+        execution.setFilterWrappers(filterWrappers);
+
+        MergeProperitesMavenResourcesFiltering f =
+            new MergeProperitesMavenResourcesFiltering(new DefaultMavenFileFilter(buildContext), buildContext);
+        f.enableLogging(new SilentLog());
+        f.setOutputFile(outputFile);
+        f.setBuildCacheDirectory(buildCacheDirectory);
+        f.setMergedPropertiesFilters(Collections.singletonList(p -> calls.incrementAndGet()));
+        f.filterResources(execution);
+        return new String(Files.readAllBytes(checkout.resolve("out").resolve(outputFile)), StandardCharsets.ISO_8859_1);
+    }
+
+    @Test
+    public void testBuildCacheRestoresOutputs(@TempDir Path tempDir) throws MavenFilteringException, IOException {
+        File buildCacheDirectory = tempDir.resolve("cache").toFile();
+        AtomicInteger calls = new AtomicInteger();
+        for (String checkout : new String[] {"a", "b", "c"}) {
+            Path src = tempDir.resolve(checkout).resolve("src");
+            Files.createDirectories(src);
+            Files.write(src.resolve("file.properties"),
+                (checkout.equals("c") ? "x=2\n" : "x=1\n").getBytes(StandardCharsets.ISO_8859_1));
+        }
+
+        String built = mergeWithBuildCache(tempDir.resolve("a"), buildCacheDirectory, calls, false);
+        String restored = mergeWithBuildCache(tempDir.resolve("b"), buildCacheDirectory, calls, false);
+
+        assertEquals(1, calls.get());
+        assertEquals(built, restored);
+
+        String changed = mergeWithBuildCache(tempDir.resolve("c"), buildCacheDirectory, calls, false);
+
+        assertEquals(2, calls.get());
+        assertTrue(changed.contains("x=2"));
+    }
+
+    @Test
+    public void testBuildCacheSkipsFilteredResources(@TempDir Path tempDir)
+        throws MavenFilteringException, IOException {
+        File buildCacheDirectory = tempDir.resolve("cache").toFile();
+        AtomicInteger calls = new AtomicInteger();
+        for (String checkout : new String[] {"a", "b"}) {
+            Path src = tempDir.resolve(checkout).resolve("src");
+            Files.createDirectories(src);
+            Files.write(src.resolve("file.properties"), "x=${project.version}\n".getBytes(StandardCharsets.ISO_8859_1));
+        }
+
+        mergeWithBuildCache(tempDir.resolve("a"), buildCacheDirectory, calls, true);
+        mergeWithBuildCache(tempDir.resolve("b"), buildCacheDirectory, calls, true);
+
+        assertEquals(2, calls.get());
+        assertFalse(buildCacheDirectory.exists());
+    }
 }
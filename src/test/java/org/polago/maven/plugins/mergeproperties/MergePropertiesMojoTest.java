@@ -16,12 +16,20 @@
 
 package org.polago.maven.plugins.mergeproperties;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.testing.SilentLog;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.shared.filtering.DefaultMavenFileFilter;
+import org.apache.maven.shared.filtering.MavenResourcesExecution;
+import org.apache.maven.shared.filtering.MavenResourcesFiltering;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.sonatype.plexus.build.incremental.BuildContext;
@@ -34,13 +42,22 @@ public class MergePropertiesMojoTest {
 
     private MergePropertiesMojo mojo;
 
+    private MergeProperitesMavenResourcesFiltering instance;
+
     @BeforeEach
     public void setUp() {
         mojo = new MergePropertiesMojo();
         BuildContext buildContext = new DefaultBuildContext();
 
         MergeProperitesMavenResourcesFiltering filtering =
-            new MergeProperitesMavenResourcesFiltering(new DefaultMavenFileFilter(buildContext), buildContext);
+            new MergeProperitesMavenResourcesFiltering(new DefaultMavenFileFilter(buildContext), buildContext) {
+
+                @Override
+                public MergeProperitesMavenResourcesFiltering newInstance() {
+                    instance = super.newInstance();
+                    return instance;
+                }
+            };
         filtering.enableLogging(new SilentLog());
         mojo.setMavenResourcesFiltering(filtering);
 
@@ -51,13 +68,40 @@ public class MergePropertiesMojoTest {
     @Test
     public void testDryRun() throws Exception {
         mojo.execute();
-        assertFalse(mojo.getMavenResourcesFiltering().isOverwriteProperties());
+        assertFalse(instance.isOverwriteProperties());
     }
 
     @Test
     public void testOverwriteProperties() throws Exception {
         mojo.setOverwriteProperties(true);
         mojo.execute();
-        assertTrue(mojo.getMavenResourcesFiltering().isOverwriteProperties());
+        assertTrue(instance.isOverwriteProperties());
+        assertFalse(mojo.getMavenResourcesFiltering().isOverwriteProperties());
+    }
+
+    @Test
+    public void testUserFilterComponentsRunOnce() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        MavenResourcesFiltering userFilter = new MergeProperitesMavenResourcesFiltering(null, null) {
+
+            @Override
+            public void filterResources(MavenResourcesExecution execution) {
+                calls.incrementAndGet();
+            }
+        };
+        mojo.setMavenResourcesFilteringMap(Collections.singletonMap("custom", userFilter));
+        mojo.setMavenFilteringHints(Collections.singletonList("custom"));
+
+        mojo.execute();
+        mojo.execute();
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testMergedPropertiesFilterNotPresent() {
+        mojo.setMergedPropertiesFilterMap(Collections.emptyMap());
+        mojo.setMergedPropertiesFilterHints(Collections.singletonList("missing"));
+
+        assertThrows(MojoExecutionException.class, () -> mojo.execute());
     }
 }
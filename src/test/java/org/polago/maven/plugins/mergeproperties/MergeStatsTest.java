@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the {@link MergeStats} class.
+ */
+public class MergeStatsTest {
+
+    private static final long HEAP = 1024L * 1024 * 1024;
+
+    private static MergeStats stats(int files, long bytes, int keys) {
+        MergeStats stats = new MergeStats();
+        stats.setFiles(files);
+        stats.setBytes(bytes);
+        stats.setKeys(keys);
+        return stats;
+    }
+
+    @Test
+    public void testSmallMergeIsSerial() {
+        assertEquals(MergeStrategy.SERIAL, stats(3, 10000, 300).choose(8, HEAP));
+        assertEquals(MergeStrategy.SERIAL, stats(1000, 100000, 3000).choose(8, HEAP));
+    }
+
+    @Test
+    public void testLargeMergeIsParallel() {
+        MergeStats stats = stats(1000, 10L * 1024 * 1024, 300000);
+        assertEquals(MergeStrategy.PARALLEL, stats.choose(8, HEAP));
+        assertEquals(MergeStrategy.SERIAL, stats.choose(1, HEAP));
+    }
+
+    @Test
+    public void testHugeMergeIsStreamed() {
+        MergeStats stats = stats(10, 200L * 1024 * 1024, 3000000);
+        assertEquals(MergeStrategy.STREAMED, stats.choose(8, HEAP));
+
+        stats.setStreamable(Boolean.FALSE);
+        assertEquals(MergeStrategy.PARALLEL, stats.choose(8, HEAP));
+    }
+
+    @Test
+    public void testWriteAndRead(@TempDir Path tempDir) throws IOException {
+        MergeStats stats = stats(12, 3456, 78);
+        stats.setScanMillis(1);
+        stats.setMergeMillis(2);
+        stats.setWriteMillis(3);
+        stats.setStrategy(MergeStrategy.SERIAL);
+        File file = tempDir.resolve("work/out.stats").toFile();
+        stats.write(file);
+
+        MergeStats read = MergeStats.read(file);
+        assertEquals(12, read.getFiles());
+        assertEquals(3456, read.getBytes());
+        assertEquals(78, read.getKeys());
+        assertEquals(1, read.getScanMillis());
+        assertEquals(2, read.getMergeMillis());
+        assertEquals(3, read.getWriteMillis());
+        assertEquals(MergeStrategy.SERIAL, read.getStrategy());
+        assertNull(read.getStreamable());
+
+        Files.write(file.toPath(), "files=many\n".getBytes("ISO-8859-1"));
+        assertNull(MergeStats.read(file));
+        assertNull(MergeStats.read(tempDir.resolve("missing.stats").toFile()));
+    }
+}
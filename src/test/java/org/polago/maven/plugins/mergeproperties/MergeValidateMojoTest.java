@@ -0,0 +1,128 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.testing.SilentLog;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.filtering.DefaultMavenFileFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonatype.plexus.build.incremental.DefaultBuildContext;
+
+/**
+ * Tests the {@link MergeValidateMojo} class.
+ */
+public class MergeValidateMojoTest {
+
+    @TempDir
+    Path tempDir;
+
+    private MergeValidateMojo mojo;
+
+    private void write(String name, String content) throws IOException {
+        Path file = tempDir.resolve("src").resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    @BeforeEach
+    public void setUp() {
+        DefaultBuildContext buildContext = new DefaultBuildContext();
+        MergeProperitesMavenResourcesFiltering filtering =
+            new MergeProperitesMavenResourcesFiltering(new DefaultMavenFileFilter(buildContext), buildContext);
+        filtering.enableLogging(new SilentLog());
+
+        MavenProject project = new MavenProject();
+        project.setFile(new File(tempDir.toFile(), "pom.xml"));
+
+        MergeResource resource = new MergeResource();
+        resource.setDirectory("src");
+
+        mojo = new MergeValidateMojo();
+        mojo.setLog(new SilentLog());
+        mojo.setProject(project);
+        mojo.setMavenResourcesFiltering(filtering);
+        mojo.setResources(Collections.singletonList(resource));
+        mojo.setEncoding("ISO-8859-1");
+    }
+
+    @Test
+    public void testValid() throws Exception {
+        write("a.properties", "a=1\nb=2\n");
+        write("sub/b.properties", "c=3\nd=4\n");
+
+        mojo.execute();
+    }
+
+    @Test
+    public void testPlatformEncoding() throws Exception {
+        write("a.properties", "a=1\nb=2\n");
+        write("sub/b.properties", "b=3\n");
+        mojo.setEncoding(null);
+
+        assertThrows(MojoFailureException.class, () -> mojo.execute());
+    }
+
+    @Test
+    public void testDuplicate() throws Exception {
+        write("a.properties", "a=1\nb=2\n");
+        write("sub/b.properties", "b=3\n");
+
+        assertThrows(MojoFailureException.class, () -> mojo.execute());
+
+        mojo.setOverwriteProperties(true);
+        mojo.execute();
+    }
+
+    @Test
+    public void testSimilarKeys() throws Exception {
+        write("a.properties", "server.url=1\n");
+        write("b.properties", "Server.URL=2\nserver\\ url=3\n");
+
+        mojo.execute();
+
+        mojo.setFailOnSimilarKeys(true);
+        assertThrows(MojoFailureException.class, () -> mojo.execute());
+    }
+
+    @Test
+    public void testPrecedence() throws Exception {
+        write("a.properties", "a=1\n");
+        write("env/b.properties", "a=2\n");
+        MergeResource base = new MergeResource();
+        base.setDirectory("src");
+        base.addExclude("env/**");
+        MergeResource env = new MergeResource();
+        env.setDirectory("src/env");
+        env.setPrecedence(1);
+        mojo.setResources(Arrays.asList(base, env));
+
+        mojo.execute();
+    }
+}
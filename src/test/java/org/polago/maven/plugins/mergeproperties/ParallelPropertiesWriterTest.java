@@ -0,0 +1,127 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the {@link ParallelPropertiesWriter} class.
+ */
+public class ParallelPropertiesWriterTest {
+
+    private static final String[] VALUES = {"plain", " leading space", "a=b:c", "line\nbreak", "tab\there", "åäö €",
+        "back\\slash", "#hash", ""};
+
+    private static byte[] writeSerial(Properties properties, List<String> keys, Charset charset) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MergedPropertiesWriter writer = new MergedPropertiesWriter(new OutputStreamWriter(out, charset))) {
+            for (String key : keys) {
+                writer.write(key, properties.getProperty(key));
+            }
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testIdenticalToSerialWriter(@TempDir Path tempDir) throws IOException {
+        Properties properties = new Properties();
+        for (int i = 0; i < 5000; i++) {
+            properties.setProperty("key " + i + (i % 3 == 0 ? "=x" : "") + (i % 5 == 0 ? "ü" : ""),
+                VALUES[i % VALUES.length] + i);
+        }
+        List<String> keys = new ArrayList<>(properties.stringPropertyNames());
+        Collections.sort(keys);
+        Path file = tempDir.resolve("out.properties");
+        Files.write(file, new byte[100000]);
+
+        for (Charset charset : new Charset[] {StandardCharsets.ISO_8859_1, StandardCharsets.UTF_8}) {
+            for (int chunkSize : new int[] {1, 7, 1000, 50000}) {
+                ParallelPropertiesWriter.write(properties, keys, file, charset, chunkSize);
+                assertArrayEquals(writeSerial(properties, keys, charset), Files.readAllBytes(file),
+                    charset + " " + chunkSize);
+            }
+        }
+    }
+
+    @Test
+    public void testOutputDigest(@TempDir Path tempDir) throws Exception {
+        Properties properties = new Properties();
+        for (int i = 0; i < 3000; i++) {
+            properties.setProperty("ns" + (i % 7) + ".key" + i, VALUES[i % VALUES.length] + i);
+        }
+        properties.setProperty("plain", "x");
+        List<String> keys = new ArrayList<>(properties.stringPropertyNames());
+        Collections.sort(keys);
+        Path file = tempDir.resolve("out.properties");
+
+        OutputDigest serial = new OutputDigest();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MergedPropertiesWriter writer =
+            new MergedPropertiesWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), serial)) {
+            for (String key : keys) {
+                writer.write(key, properties.getProperty(key));
+            }
+        }
+        Map<String, String> namespaces = serial.getNamespaceDigests();
+        assertEquals(8, namespaces.size());
+
+        for (int chunkSize : new int[] {1, 7, 1000, 50000}) {
+            OutputDigest digest = new OutputDigest();
+            ParallelPropertiesWriter.write(properties, keys, file, StandardCharsets.UTF_8, chunkSize, digest);
+            assertEquals(keys.size(), digest.getCount());
+            assertEquals(namespaces, digest.getNamespaceDigests());
+
+            File sidecar = OutputDigest.getSidecarFile(file.toFile());
+            digest.write(sidecar);
+            Properties written = new Properties();
+            try (InputStream is = Files.newInputStream(sidecar.toPath())) {
+                written.load(is);
+            }
+            byte[] expected = MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file));
+            assertEquals(MergeSnapshot.toHex(expected), written.getProperty("digest"));
+            assertEquals(Integer.toString(keys.size()), written.getProperty("keys"));
+            assertEquals(namespaces.get("ns3"), written.getProperty("namespace.ns3"));
+        }
+
+        properties.setProperty("ns3.key3", "changed");
+        OutputDigest changed = new OutputDigest();
+        ParallelPropertiesWriter.write(properties, keys, file, StandardCharsets.UTF_8, 100, changed);
+        assertNotEquals(namespaces.get("ns3"), changed.getNamespaceDigests().get("ns3"));
+        assertEquals(namespaces.get("ns4"), changed.getNamespaceDigests().get("ns4"));
+    }
+}
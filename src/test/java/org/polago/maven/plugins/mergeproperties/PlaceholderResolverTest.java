@@ -0,0 +1,72 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link PlaceholderResolver} class.
+ */
+public class PlaceholderResolverTest {
+
+    private static Properties resolve(String content) throws IOException, MergeException {
+        Properties p = new Properties();
+        p.load(new StringReader(content));
+        new PlaceholderResolver(p).resolve(p);
+        return p;
+    }
+
+    @Test
+    public void testResolve() throws Exception {
+        Properties p = resolve("db.url=jdbc:${db.host}:${db.port}/${db.name}\ndb.host=${host}\nhost=localhost\n"
+            + "db.port=5432\ndb.name=${unknown} and ${db.port\nother=${\n");
+
+        assertEquals("jdbc:localhost:5432/${unknown} and ${db.port", p.getProperty("db.url"));
+        assertEquals("localhost", p.getProperty("db.host"));
+        assertEquals("${", p.getProperty("other"));
+    }
+
+    @Test
+    public void testDeepChain() throws Exception {
+        StringBuilder sb = new StringBuilder("k0=end\n");
+        for (int i = 1; i < 100000; i++) {
+            sb.append('k').append(i).append("=${k").append(i - 1).append("}\n");
+        }
+        assertEquals("end", resolve(sb.toString()).getProperty("k99999"));
+    }
+
+    @Test
+    public void testCycle() {
+        MergeException e =
+            assertThrows(MergeException.class, () -> resolve("a=${b}\nb=${c}\nc=x${a}\nd=${a}\n"));
+        assertTrue(e.getMessage().contains("Placeholder cycle"));
+    }
+
+    @Test
+    public void testSelfReference() {
+        MergeException e = assertThrows(MergeException.class, () -> resolve("a=${a}\n"));
+        assertTrue(e.getMessage().contains("'a' references itself"));
+    }
+}
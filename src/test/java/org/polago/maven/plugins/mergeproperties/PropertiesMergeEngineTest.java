@@ -0,0 +1,197 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+
+import org.codehaus.plexus.util.IOUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the {@link PropertiesMergeEngine} class.
+ */
+public class PropertiesMergeEngineTest {
+
+    @TempDir
+    Path tempDir;
+
+    private PropertiesMergeEngine engine;
+
+    private static MergeSource stream(String name, String content, boolean filtering, int precedence) {
+        return new MergeSource(name, () -> new ByteArrayInputStream(content.getBytes(StandardCharsets.ISO_8859_1)),
+            filtering, precedence);
+    }
+
+    private MergeSource file(String name, String content) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.ISO_8859_1));
+        return new MergeSource(file, false, 0);
+    }
+
+    @BeforeEach
+    public void setUp() {
+        engine = new PropertiesMergeEngine();
+        engine.setInterpolator(reader -> new StringReader(IOUtil.toString(reader).replace("@env@", "prod")));
+    }
+
+    @Test
+    public void testMerge() throws Exception {
+        List<MergeSource> sources = Arrays.asList(file("a.properties", "a=1\nb=2\n"),
+            stream("env", "b=@env@\nc=@env@\n", true, 1), stream("c", "c=base\nd=4\n", false, 0));
+
+        Properties result = engine.merge(sources).getProperties();
+
+        assertEquals(4, result.size());
+        assertEquals("1", result.getProperty("a"));
+        assertEquals("prod", result.getProperty("b"));
+        assertEquals("prod", result.getProperty("c"));
+        assertEquals("4", result.getProperty("d"));
+    }
+
+    @Test
+    public void testParallelMatchesSequential() throws Exception {
+        List<MergeSource> sources = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            sources.add(file(i + ".properties", "k" + i + "=" + i + "\nshared=" + i + "\n"));
+        }
+        engine.setOverwriteProperties(true);
+        engine.setOutputOrder(OutputOrder.SOURCE);
+        PropertiesMergeEngine.Result parallel = engine.merge(sources);
+        engine.setParallel(false);
+        PropertiesMergeEngine.Result sequential = engine.merge(sources);
+
+        assertEquals(sequential.getProperties(), parallel.getProperties());
+        assertEquals(sequential.getKeys(), parallel.getKeys());
+        assertEquals("49", parallel.getProperties().getProperty("shared"));
+    }
+
+    @Test
+    public void testDuplicate() throws Exception {
+        List<MergeSource> sources = Arrays.asList(stream("a", "a=1\n", false, 0), stream("b", "a=2\n", false, 0));
+
+        MergeException e = assertThrows(MergeException.class, () -> engine.merge(sources));
+        assertTrue(e.getMessage().contains("'a' already exists"));
+    }
+
+    @Test
+    public void testKeyFilter() throws Exception {
+        List<MergeSource> sources = Arrays.asList(file("a.properties", "app.a=1\nlib.a=1\n"),
+            stream("b", "app.b=@env@\nlib.a=2\n", true, 0), stream("c", "app.c=3\nlib.a=3\n", false, 0));
+        engine.setKeyFilter(KeyFilter.create(Collections.singletonList("app."), null));
+
+        Properties result = engine.merge(sources).getProperties();
+
+        assertEquals(3, result.size());
+        assertEquals("prod", result.getProperty("app.b"));
+        assertNull(result.getProperty("lib.a"));
+    }
+
+    @Test
+    public void testConcurrentMatchesSerial() throws Exception {
+        Random random = new Random(42);
+        List<MergeSource> sources = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int j = 0; j < 200; j++) {
+                sb.append("key").append(random.nextInt(1000)).append('=').append(i).append('-').append(j).append('\n');
+            }
+            sources.add(stream("s" + i, sb.toString(), i % 7 == 0, random.nextInt(3)));
+        }
+        engine.setOverwriteProperties(true);
+
+        for (OutputOrder order : OutputOrder.values()) {
+            engine.setOutputOrder(order);
+            engine.setConcurrent(false);
+            PropertiesMergeEngine.Result serial = engine.merge(sources);
+            engine.setConcurrent(true);
+            PropertiesMergeEngine.Result concurrent = engine.merge(sources);
+
+            assertEquals(serial.getProperties(), concurrent.getProperties(), order.name());
+            assertEquals(serial.getKeys(), concurrent.getKeys(), order.name());
+        }
+    }
+
+    @Test
+    public void testConcurrentDuplicate() throws Exception {
+        List<MergeSource> sources = Arrays.asList(stream("a", "a=1\nb=1\n", false, 0),
+            stream("b", "b=2\n", false, 1), stream("c", "a=3\n", false, 0), stream("d", "a=4\nb=4\n", false, 0));
+
+        MergeException serial = assertThrows(MergeException.class, () -> engine.merge(sources));
+        engine.setConcurrent(true);
+        MergeException concurrent = assertThrows(MergeException.class, () -> engine.merge(sources));
+
+        assertEquals(serial.getMessage(), concurrent.getMessage());
+    }
+
+    @Test
+    public void testMergeSorted() throws Exception {
+        List<MergeSource> sources = Arrays.asList(stream("a", "a=1\nc=3\n", false, 0), stream("b", "b=2\n", false, 0));
+        StringWriter writer = new StringWriter();
+
+        assertEquals(3, engine.mergeSorted(sources, writer));
+        assertEquals("a=1\nb=2\nc=3\n", writer.toString().replace("\r", ""));
+    }
+
+    @Test
+    public void testMergeSortedUnsorted() throws Exception {
+        List<MergeSource> sources = Arrays.asList(stream("a", "c=3\na=1\n", false, 0), stream("b", "b=2\n", false, 0));
+
+        assertEquals(-1, engine.mergeSorted(sources, new StringWriter()));
+    }
+
+    @Test
+    public void testWrite() throws Exception {
+        PropertiesMergeEngine.Result result =
+            engine.merge(Arrays.asList(stream("a", "b=2\na=1\n", false, 0), stream("b", "c=3\n", false, 0)));
+        StringWriter writer = new StringWriter();
+
+        engine.write(result.getProperties(), result.getKeys(), writer);
+        assertEquals("a=1\nb=2\nc=3\n", writer.toString().replace("\r", ""));
+    }
+
+    @Test
+    public void testFilters() throws Exception {
+        engine.setOutputOrder(OutputOrder.SOURCE);
+        engine.setFilters(Arrays.asList(p -> p.remove("b"), p -> p.setProperty("a2", p.getProperty("a") + "!")));
+
+        PropertiesMergeEngine.Result result =
+            engine.merge(Arrays.asList(stream("a", "z=26\nb=2\na=1\n", false, 0)));
+
+        assertEquals(Arrays.asList("z", "a", "a2"), result.getKeys());
+        assertEquals("1!", result.getProperties().getProperty("a2"));
+        assertEquals(-1, engine.mergeSorted(Arrays.asList(stream("a", "a=1\n", false, 0)), new StringWriter()));
+    }
+}
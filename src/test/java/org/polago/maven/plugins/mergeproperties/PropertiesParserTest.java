@@ -0,0 +1,112 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link PropertiesParser} class.
+ */
+public class PropertiesParserTest {
+
+    private static final String INPUT = "# comment\n" + "! other comment \\\n" + "a=1\n" + "b : 2\n" + "c 3\n"
+        + "  d\t=\t4  \n" + "e=multi\\\n" + "    line\\\r\n" + "\tvalue\n" + "f\\=g=5\n" + "h\\ i=\\u00e5\\t\\n\n"
+        + "\n" + "   \n" + "j\n" + "k=\\\\\n" + "l=a\\\\\\\n" + " b\r" + "m=\\z\\\n";
+
+    private static Properties parse(PropertiesParser parser) throws IOException {
+        Properties result = new Properties();
+        while (parser.next()) {
+            result.setProperty(parser.getKey(), parser.getValue());
+        }
+        return result;
+    }
+
+    @Test
+    public void testMatchesPropertiesLoad() throws IOException {
+        Properties expected = new Properties();
+        expected.load(new StringReader(INPUT));
+
+        assertEquals(expected, parse(new PropertiesParser(new StringReader(INPUT))));
+    }
+
+    @Test
+    public void testCharArray() throws IOException {
+        Properties expected = new Properties();
+        expected.load(new StringReader(INPUT));
+
+        char[] chars = (INPUT + "garbage=ignored").toCharArray();
+        assertEquals(expected, parse(new PropertiesParser(chars, INPUT.length())));
+    }
+
+    @Test
+    public void testDuplicateKeysInFileOrder() throws IOException {
+        PropertiesParser parser = new PropertiesParser(new StringReader("a=1\nb=2\na=3"));
+        assertTrue(parser.next());
+        assertEquals("a", parser.getKey());
+        assertTrue(parser.next());
+        assertEquals("b", parser.getKey());
+        assertTrue(parser.next());
+        assertEquals("a", parser.getKey());
+        assertEquals("3", parser.getValue());
+        assertFalse(parser.next());
+    }
+
+    @Test
+    public void testKeyFilter() throws IOException {
+        String input = "app.a=1\napp.b.name=2\nlib.c=3\napp\\.d=4\napp.e.secret=5\nx=6\n";
+        KeyFilter filter = new KeyFilter(Arrays.asList("app.", "?"), Collections.singletonList("app.*.secret"));
+
+        Properties expected = new Properties();
+        expected.setProperty("app.a", "1");
+        expected.setProperty("app.b.name", "2");
+        expected.setProperty("app.d", "4");
+        expected.setProperty("x", "6");
+        assertEquals(expected, parse(new PropertiesParser(new StringReader(input), filter)));
+        assertEquals(expected, parse(new PropertiesParser(input.toCharArray(), input.length(), filter)));
+    }
+
+    @Test
+    public void testKeyFilterExcludesOnly() throws IOException {
+        KeyFilter filter = KeyFilter.create(null, Collections.singletonList("b"));
+        PropertiesParser parser = new PropertiesParser(new StringReader("a=1\nb=2\nbb=3\nc=4"), filter);
+        assertTrue(parser.next());
+        assertEquals("a", parser.getKey());
+        assertTrue(parser.next());
+        assertEquals("c", parser.getKey());
+        assertEquals("4", parser.getValue());
+        assertFalse(parser.next());
+    }
+
+    @Test
+    public void testMalformedUnicode() throws IOException {
+        PropertiesParser parser = new PropertiesParser(new StringReader("a=\\u00zz"));
+        assertTrue(parser.next());
+        assertEquals("a", parser.getKey());
+        assertThrows(IllegalArgumentException.class, parser::getValue);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.codehaus.plexus.util.DirectoryScanner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the {@link ResourceMatcher} class.
+ */
+public class ResourceMatcherTest {
+
+    private static final String[] FILES = {"a.properties", "b.txt", "config/c.properties", "config/sub/d.properties",
+        "config/sub/e.txt", "target/f.properties", "x/target/g.properties", "x/y/z/h.properties", ".git/i.properties",
+        "x/.svn/j.properties", "k.properties~", "config/l.PROPERTIES"};
+
+    @TempDir
+    Path tempDir;
+
+    private void createTree() throws IOException {
+        for (String name : FILES) {
+            File file = tempDir.resolve(name).toFile();
+            file.getParentFile().mkdirs();
+            Files.write(file.toPath(), new byte[0]);
+        }
+    }
+
+    private void assertSameAsDirectoryScanner(String[] includes, String[] excludes) {
+        DirectoryScanner scanner = new DirectoryScanner();
+        scanner.setBasedir(tempDir.toFile());
+        scanner.setIncludes(includes);
+        scanner.setExcludes(excludes);
+        scanner.addDefaultExcludes();
+        scanner.scan();
+        List<String> expected = Arrays.asList(scanner.getIncludedFiles());
+
+        String[] allExcludes = Arrays.copyOf(excludes, excludes.length + DirectoryScanner.DEFAULTEXCLUDES.length);
+        System.arraycopy(DirectoryScanner.DEFAULTEXCLUDES, 0, allExcludes, excludes.length,
+            DirectoryScanner.DEFAULTEXCLUDES.length);
+        List<String> actual = ResourceMatcher.get(includes, allExcludes).scan(tempDir.toFile());
+
+        assertEquals(expected, actual, Arrays.toString(includes) + " " + Arrays.toString(excludes));
+    }
+
+    @Test
+    public void testSameAsDirectoryScanner() throws IOException {
+        createTree();
+        String[] none = {};
+        assertSameAsDirectoryScanner(new String[] {"**/**.properties"}, none);
+        assertSameAsDirectoryScanner(new String[] {"**/*.properties"}, new String[] {"**/target/**"});
+        assertSameAsDirectoryScanner(new String[] {"config/"}, new String[] {"**/*.txt"});
+        assertSameAsDirectoryScanner(new String[] {"config\\**\\*.properties", "*.txt"}, none);
+        assertSameAsDirectoryScanner(new String[] {"x/**/?.properties"}, new String[] {"x/y/"});
+        assertSameAsDirectoryScanner(new String[] {"**"}, new String[] {"config/*"});
+        assertSameAsDirectoryScanner(new String[] {"/a.properties", " a.properties "}, none);
+        assertSameAsDirectoryScanner(new String[] {"**/sub/**/*"}, new String[] {"**/d*"});
+    }
+
+    @Test
+    public void testCached() {
+        String[] includes = {"**/*.properties"};
+        String[] excludes = {"**/target/**"};
+        assertSame(ResourceMatcher.get(includes, excludes), ResourceMatcher.get(includes.clone(), excludes.clone()));
+    }
+
+    @Test
+    public void testRegexNotSupported() {
+        assertNull(ResourceMatcher.get(new String[] {"%regex[.*\\.properties]"}, new String[0]));
+    }
+}
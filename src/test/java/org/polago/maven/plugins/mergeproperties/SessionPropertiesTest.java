@@ -0,0 +1,72 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Date;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link SessionProperties} class.
+ */
+public class SessionPropertiesTest {
+
+    @SuppressWarnings("deprecation")
+    private static MavenSession createSession(long startTime) {
+        MavenExecutionRequest request = new DefaultMavenExecutionRequest();
+        request.setStartTime(new Date(startTime));
+        return new MavenSession(null, null, request, new DefaultMavenExecutionResult());
+    }
+
+    @Test
+    public void testSameInstanceWithinSession() {
+        MavenSession session = createSession(0L);
+
+        SessionProperties first = SessionProperties.get(session, null);
+        assertSame(first, SessionProperties.get(session, null));
+        assertEquals("1970-01-01T00:00:00Z", first.getFormattedTimestamp());
+        assertEquals("1970-01-01T00:00:00Z",
+            first.toProperties().getProperty(SessionProperties.BUILD_TIMESTAMP_PROPERTY));
+    }
+
+    @Test
+    public void testTimestampFormat() {
+        MavenSession session = createSession(0L);
+
+        SessionProperties formatted = SessionProperties.get(session, "yyyyMMdd");
+        assertEquals("19700101", formatted.getFormattedTimestamp());
+        assertNotSame(formatted, SessionProperties.get(session, null));
+    }
+
+    @Test
+    public void testEqualAcrossSessionsWithSameStartTime() {
+        SessionProperties first = SessionProperties.get(createSession(1000L), null);
+        SessionProperties second = SessionProperties.get(createSession(1000L), null);
+
+        assertNotSame(first, second);
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the {@link ShardedPropertiesStore} class.
+ */
+public class ShardedPropertiesStoreTest {
+
+    private static Properties load(File file) throws IOException {
+        Properties p = new Properties();
+        try (InputStream is = new FileInputStream(file)) {
+            p.load(is);
+        }
+        return p;
+    }
+
+    private static Properties createProperties(int count) {
+        Properties p = new Properties();
+        for (int i = 0; i < count; i++) {
+            p.setProperty("ns" + (i % 7) + ".key" + i, "value " + i);
+        }
+        return p;
+    }
+
+    @Test
+    public void testHashShards(@TempDir Path tempDir) throws IOException {
+        File manifestFile = tempDir.resolve("out.properties").toFile();
+        Properties properties = createProperties(500);
+
+        new ShardedPropertiesStore(12, ShardStrategy.HASH).store(properties, manifestFile);
+
+        Properties manifest = load(manifestFile);
+        assertEquals("12", manifest.getProperty("shards"));
+        assertEquals("out-00.properties", manifest.getProperty("shard.0.file"));
+        List<File> files = ShardedPropertiesStore.listShardFiles(manifestFile);
+        assertEquals(12, files.size());
+        Properties merged = new Properties();
+        for (File file : files) {
+            merged.putAll(load(file));
+        }
+        assertEquals(properties, merged);
+    }
+
+    @Test
+    public void testPrefixShardsKeepNamespacesTogether(@TempDir Path tempDir) throws IOException {
+        File manifestFile = tempDir.resolve("out.properties").toFile();
+        new ShardedPropertiesStore(3, ShardStrategy.PREFIX).store(createProperties(700), manifestFile);
+
+        Set<String> namespaces = new HashSet<>();
+        int keys = 0;
+        for (File file : ShardedPropertiesStore.listShardFiles(manifestFile)) {
+            Set<String> shardNamespaces = new HashSet<>();
+            for (String key : load(file).stringPropertyNames()) {
+                shardNamespaces.add(ShardedPropertiesStore.getNamespace(key));
+                keys++;
+            }
+            for (String namespace : shardNamespaces) {
+                assertTrue(namespaces.add(namespace), namespace + " is stored in several shards");
+            }
+        }
+        assertEquals(7, namespaces.size());
+        assertEquals(700, keys);
+        assertEquals("ns0", load(manifestFile).getProperty("shard.0.firstNamespace"));
+    }
+
+    @Test
+    public void testOnlyChangedShardsAreRewritten(@TempDir Path tempDir) throws IOException {
+        File manifestFile = tempDir.resolve("out.properties").toFile();
+        Properties properties = createProperties(100);
+        new ShardedPropertiesStore(4, ShardStrategy.PREFIX).store(properties, manifestFile);
+        List<File> files = ShardedPropertiesStore.listShardFiles(manifestFile);
+        for (File file : files) {
+            file.setLastModified(1000L);
+        }
+        String digest = load(manifestFile).getProperty("shard.3.sha256");
+
+        properties.setProperty("ns6.key6", "changed");
+        ShardedPropertiesStore store = new ShardedPropertiesStore(4, ShardStrategy.PREFIX);
+        store.store(properties, manifestFile);
+
+        assertEquals(1, store.getWrittenShards());
+        assertEquals(1000L, files.get(0).lastModified());
+        assertNotEquals(1000L, files.get(3).lastModified());
+        assertNotEquals(digest, load(manifestFile).getProperty("shard.3.sha256"));
+        assertEquals("changed", load(files.get(3)).getProperty("ns6.key6"));
+    }
+
+    @Test
+    public void testStaleShardsAreDeleted(@TempDir Path tempDir) throws IOException {
+        File manifestFile = tempDir.resolve("out.properties").toFile();
+        new ShardedPropertiesStore(4, ShardStrategy.HASH).store(createProperties(100), manifestFile);
+        List<File> files = ShardedPropertiesStore.listShardFiles(manifestFile);
+
+        new ShardedPropertiesStore(2, ShardStrategy.HASH).store(createProperties(100), manifestFile);
+
+        assertTrue(files.get(1).exists());
+        assertFalse(files.get(2).exists());
+        assertFalse(files.get(3).exists());
+        assertEquals(2, ShardedPropertiesStore.listShardFiles(manifestFile).size());
+    }
+}
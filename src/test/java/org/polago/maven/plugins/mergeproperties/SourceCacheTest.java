@@ -0,0 +1,93 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the {@link SourceCache} class.
+ */
+public class SourceCacheTest {
+
+    private static Properties properties(int size) {
+        Properties p = new Properties();
+        for (int i = 0; i < size; i++) {
+            p.setProperty("key" + i, "value" + i);
+        }
+        return p;
+    }
+
+    private static File file(Path dir, String name) throws IOException {
+        return Files.write(dir.resolve(name), new byte[] {'a'}).toFile();
+    }
+
+    @Test
+    public void testReuse(@TempDir Path tempDir) throws Exception {
+        SourceCache cache = new SourceCache();
+        File a = file(tempDir, "a");
+        AtomicInteger loads = new AtomicInteger();
+
+        Properties first = cache.get(a, "UTF-8", () -> {
+            loads.incrementAndGet();
+            return properties(1);
+        });
+        Properties second = cache.get(a, "UTF-8", () -> {
+            loads.incrementAndGet();
+            return properties(1);
+        });
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed(@TempDir Path tempDir) throws Exception {
+        long size = SourceCache.estimateSize(properties(100));
+        SourceCache cache = new SourceCache(2 * size);
+        File a = file(tempDir, "a");
+        File b = file(tempDir, "b");
+        File c = file(tempDir, "c");
+        AtomicInteger loads = new AtomicInteger();
+        SourceCache.Loader loader = () -> {
+            loads.incrementAndGet();
+            return properties(100);
+        };
+
+        cache.get(a, "UTF-8", loader);
+        cache.get(b, "UTF-8", loader);
+        cache.get(a, "UTF-8", loader);
+        cache.get(c, "UTF-8", loader);
+        assertEquals(2, cache.size());
+        assertEquals(3, loads.get());
+
+        cache.get(a, "UTF-8", loader);
+        assertEquals(3, loads.get());
+        cache.get(b, "UTF-8", loader);
+        assertEquals(4, loads.get());
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014-2023 Polago AB.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.polago.maven.plugins.mergeproperties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the {@link SourceDecoder} class.
+ */
+public class SourceDecoderTest {
+
+    private static Properties loadWithReader(File file, String encoding) throws IOException {
+        Properties p = new Properties();
+        try (Reader r = new InputStreamReader(new FileInputStream(file), encoding)) {
+            p.load(r);
+        }
+        return p;
+    }
+
+    private static Properties load(File file, String encoding) throws IOException {
+        MergeSource source = new MergeSource(file, false);
+        assertTrue(SourceDecoder.isSupported(source, encoding));
+        return SourceDecoder.load(source, encoding, null);
+    }
+
+    @Test
+    public void testUtf8(@TempDir Path tempDir) throws IOException {
+        File file = tempDir.resolve("utf8.properties").toFile();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            sb.append("key").append(i).append("=åäö € 😀 ").append(i).append('\n');
+        }
+        Files.write(file.toPath(), sb.toString().getBytes("UTF-8"));
+
+        assertEquals(loadWithReader(file, "UTF-8"), load(file, "UTF-8"));
+    }
+
+    @Test
+    public void testMalformedInputIsReplaced(@TempDir Path tempDir) throws IOException {
+        File file = tempDir.resolve("malformed.properties").toFile();
+        Files.write(file.toPath(), new byte[] {'a', '=', (byte) 0xc3, '\n', 'b', '=', (byte) 0xff, (byte) 0xe5});
+
+        assertEquals(loadWithReader(file, "UTF-8"), load(file, "UTF-8"));
+    }
+
+    @Test
+    public void testBuffersAreReused(@TempDir Path tempDir) throws IOException {
+        File large = tempDir.resolve("large.properties").toFile();
+        File small = tempDir.resolve("small.properties").toFile();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            sb.append("large").append(i).append('=').append(i).append('\n');
+        }
+        Files.write(large.toPath(), sb.toString().getBytes("ISO-8859-1"));
+        Files.write(small.toPath(), "small=1".getBytes("ISO-8859-1"));
+
+        assertEquals(5000, load(large, "ISO-8859-1").size());
+        assertEquals(loadWithReader(small, "ISO-8859-1"), load(small, "ISO-8859-1"));
+    }
+
+    @Test
+    public void testLargeBuffersAreReleased(@TempDir Path tempDir) throws IOException {
+        File large = tempDir.resolve("large.properties").toFile();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 50000; i++) {
+            sb.append("large").append(i).append('=').append(i).append('\n');
+        }
+        Files.write(large.toPath(), sb.toString().getBytes("ISO-8859-1"));
+
+        assertEquals(50000, load(large, "ISO-8859-1").size());
+        assertTrue(SourceDecoder.getRetainedSize() <= 3L * SourceDecoder.MAX_RETAINED_BUFFER_SIZE);
+        assertEquals(50000, SourceDecoder.loadKeys(new MergeSource(large, false), "ISO-8859-1", null).size());
+        assertTrue(SourceDecoder.getRetainedSize() <= 3L * SourceDecoder.MAX_RETAINED_BUFFER_SIZE);
+    }
+
+    @Test
+    public void testKeyFilter(@TempDir Path tempDir) throws IOException {
+        File file = tempDir.resolve("filtered.properties").toFile();
+        Files.write(file.toPath(), "a.x=1\nb.x=2\na.y=3\n".getBytes("ISO-8859-1"));
+        MergeSource source = new MergeSource(file, false);
+        KeyFilter keyFilter = KeyFilter.create(Collections.singletonList("a.*"), null);
+
+        assertEquals(Arrays.asList("a.x", "a.y"), SourceDecoder.loadKeys(source, "ISO-8859-1", keyFilter));
+        assertEquals(2, SourceDecoder.load(source, "ISO-8859-1", keyFilter).size());
+    }
+
+    @Test
+    public void testUnsupported(@TempDir Path tempDir) throws IOException {
+        File file = tempDir.resolve("unsupported.properties").toFile();
+        Files.write(file.toPath(), "a=1\n".getBytes("ISO-8859-1"));
+        MergeSource source = new MergeSource(file, false);
+
+        assertFalse(SourceDecoder.isSupported(source, null));
+        assertFalse(SourceDecoder.isSupported(source, "no-such-charset"));
+    }
+}